@@ -0,0 +1,62 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.connect.DriverClass;
+import com.it.soul.lab.sql.query.QueryType;
+import com.it.soul.lab.sql.query.SQLInsertQuery;
+import com.it.soul.lab.sql.query.SQLQuery;
+import com.it.soul.lab.sql.query.models.Property;
+import com.it.soul.lab.sql.query.models.Row;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Private embedded H2 database per benchmark state, with the Passenger table of testDB.sql.
+ */
+final class BenchmarkDatabase {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private BenchmarkDatabase() {}
+
+    static SQLExecutor open() throws Exception {
+        SQLExecutor exe = new SQLExecutor.Builder(DriverClass.H2_EMBEDDED)
+                .database("jmhH2DB_" + SEQUENCE.incrementAndGet())
+                .credential("sa", "")
+                .build();
+        exe.executeDDLQuery("CREATE TABLE IF NOT EXISTS Passenger (" +
+                "id int auto_increment primary key" +
+                ", name varchar(1024) null" +
+                ", age int default '18' null" +
+                ", sex varchar(12) null);");
+        return exe;
+    }
+
+    static void truncate(SQLExecutor exe) throws SQLException {
+        exe.executeDDLQuery("TRUNCATE TABLE Passenger");
+    }
+
+    static List<Row> passengerRows(int count) {
+        List<Row> rows = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            rows.add(new Row()
+                    .add("name", "name-" + index)
+                    .add("age", 18 + (index % 60))
+                    .add("sex", (index % 2 == 0) ? "male" : "female"));
+        }
+        return rows;
+    }
+
+    static SQLInsertQuery passengerInsert() {
+        return new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name"), new Property("age"), new Property("sex"))
+                .build();
+    }
+
+    static void fill(SQLExecutor exe, int count) throws SQLException {
+        exe.executeInsert(false, 1000, passengerInsert(), passengerRows(count));
+    }
+}
@@ -0,0 +1,71 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.entity.Entity;
+import com.it.soul.lab.sql.query.models.Property;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity insert/update/read round trips on embedded H2, including metadata and mapping cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityBenchmark {
+
+    private SQLExecutor exe;
+    private Passenger existing;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        exe = BenchmarkDatabase.open();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTable() throws SQLException {
+        BenchmarkDatabase.truncate(exe);
+        BenchmarkDatabase.fill(exe, 100);
+        existing = new Passenger();
+        existing.setName("existing");
+        existing.setAge(30);
+        existing.setSex("male");
+        existing.insert(exe);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        exe.close();
+    }
+
+    @Benchmark
+    public Boolean insert() throws SQLException {
+        Passenger passenger = new Passenger();
+        passenger.setName("name-" + counter++);
+        passenger.setAge(18);
+        passenger.setSex("female");
+        return passenger.insert(exe);
+    }
+
+    @Benchmark
+    public Boolean update() throws SQLException {
+        existing.setAge(counter++ % 100);
+        return existing.update(exe, "age");
+    }
+
+    @Benchmark
+    public List<Passenger> readByName() throws Exception {
+        return Entity.read(Passenger.class, exe, new Property("name", "existing"));
+    }
+
+    @Benchmark
+    public List<Passenger> readAll() throws Exception {
+        return Entity.read(Passenger.class, exe, (Property[]) new Property[0]);
+    }
+}
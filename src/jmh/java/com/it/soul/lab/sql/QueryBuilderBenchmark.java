@@ -0,0 +1,65 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.query.QueryType;
+import com.it.soul.lab.sql.query.SQLQuery;
+import com.it.soul.lab.sql.query.models.Predicate;
+import com.it.soul.lab.sql.query.models.Property;
+import com.it.soul.lab.sql.query.models.Where;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQLQuery.Builder construction plus rendering of the SQL text.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryBuilderBenchmark {
+
+    @Benchmark
+    public String select() {
+        Predicate where = new Where("name").isEqualTo("towhid")
+                .and("age").isGreaterThenOrEqual(18)
+                .and("sex").isEqualTo("male");
+        SQLQuery query = new SQLQuery.Builder(QueryType.SELECT)
+                .columns("id", "name", "age", "sex")
+                .from("Passenger")
+                .where(where)
+                .addLimit(100, 0)
+                .build();
+        return query.toString();
+    }
+
+    @Benchmark
+    public String insert() {
+        SQLQuery query = new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name", "towhid"), new Property("age", 36), new Property("sex", "male"))
+                .build();
+        return query.toString();
+    }
+
+    @Benchmark
+    public String update() {
+        SQLQuery query = new SQLQuery.Builder(QueryType.UPDATE)
+                .set(new Property("name", "towhid"), new Property("age", 36))
+                .from("Passenger")
+                .where(new Where("id").isEqualTo(1))
+                .build();
+        return query.toString();
+    }
+
+    @Benchmark
+    public String count() {
+        SQLQuery query = new SQLQuery.Builder(QueryType.COUNT)
+                .columns()
+                .on("Passenger")
+                .where(new Where("age").isGreaterThen(18))
+                .build();
+        return query.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.query.QueryType;
+import com.it.soul.lab.sql.query.SQLInsertQuery;
+import com.it.soul.lab.sql.query.SQLQuery;
+import com.it.soul.lab.sql.query.SQLSelectQuery;
+import com.it.soul.lab.sql.query.models.Property;
+import com.it.soul.lab.sql.query.models.Row;
+import com.it.soul.lab.sql.query.models.Table;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQLExecutor hot paths on embedded H2: parameter binding (legacy and ParameterBinder), ResultSet to Row mapping,
+ * Row to object inflation and batched insert.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SQLExecutorBenchmark {
+
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    private SQLExecutor exe;
+    private SQLSelectQuery selectAll;
+    private SQLInsertQuery insertQuery;
+    private List<Row> rows;
+    private String[] keys;
+    private Map<String, Property> values;
+    private PreparedStatement insertStatement;
+    private Table table;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        exe = BenchmarkDatabase.open();
+        selectAll = new SQLQuery.Builder(QueryType.SELECT)
+                .columns()
+                .from("Passenger")
+                .build();
+        insertQuery = BenchmarkDatabase.passengerInsert();
+        rows = BenchmarkDatabase.passengerRows(rowCount);
+        keys = rows.get(0).getKeys();
+        values = rows.get(0).keyValueMap();
+        insertStatement = exe.prepareStatement(insertQuery.toString());
+        table = new Table();
+        table.setRows(BenchmarkDatabase.passengerRows(rowCount));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        exe.releaseStatement(insertStatement);
+        exe.close();
+    }
+
+    /**
+     * Legacy key/Map binding, kept as the baseline for the ParameterBinder benchmarks.
+     */
+    @Benchmark
+    public PreparedStatement bindValueToStatement() throws SQLException {
+        return exe.bindValueToStatement(insertStatement, 1, keys, values);
+    }
+
+    /**
+     * One row with its own binder, as a single insert/update binds.
+     */
+    @Benchmark
+    public int parameterBinderRow() throws SQLException {
+        Row row = rows.get(0);
+        return ParameterBinder.of(row).bind(insertStatement, 1, row);
+    }
+
+    /**
+     * Every row with the binder of the first, as the batch paths bind.
+     */
+    @Benchmark
+    public int parameterBinderBatch() throws SQLException {
+        ParameterBinder binder = ParameterBinder.of(rows.get(0));
+        int next = 1;
+        for (Row row : rows) {
+            next = binder.bind(insertStatement, 1, row);
+        }
+        return next;
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTable() throws SQLException {
+        //batchInsert keeps adding rows; selects always see rowCount rows.
+        BenchmarkDatabase.truncate(exe);
+        BenchmarkDatabase.fill(exe, rowCount);
+    }
+
+    @Benchmark
+    public List<Row> createRowsFrom() throws SQLException {
+        ResultSet rst = exe.executeSelect(selectAll, 0);
+        try {
+            return exe.createRowsFrom(rst);
+        } finally {
+            rst.getStatement().close();
+        }
+    }
+
+    @Benchmark
+    public List<Passenger> tableInflate() throws Exception {
+        return table.inflate(Passenger.class);
+    }
+
+    @Benchmark
+    public List<Passenger> executeSelectTyped() throws Exception {
+        return exe.executeSelect(selectAll, Passenger.class);
+    }
+
+    @Benchmark
+    public Integer[] batchInsert() throws SQLException {
+        return exe.executeInsert(false, 100, insertQuery, rows);
+    }
+}
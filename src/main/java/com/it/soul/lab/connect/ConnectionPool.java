@@ -0,0 +1,450 @@
+package com.it.soul.lab.connect;
+
+import com.it.soul.lab.sql.QueryMetrics;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool on top of JDBConnectionBuilder.
+ * Borrow/return go through a non-fair Semaphore and a concurrent deque, so there is no pool wide monitor.
+ * Physical connections are created lazily up to maxSize, validated on borrow, retired after maxLifetime
+ * and evicted (down to minSize) once idle longer than idleTimeout.
+ * Closing a borrowed connection returns it to the pool, with autoCommit, readOnly and the transaction isolation
+ * reset to the driver's defaults. Statements and DatabaseMetaData from a borrowed connection return it (not
+ * the physical connection) from getConnection(); ResultSet.getStatement() still gives the driver's statement.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    public static class Builder {
+        private JDBConnectionBuilder connectionBuilder;
+        private int minSize = 0;
+        private int maxSize = 10;
+        private long borrowTimeout = 30_000;
+        private long idleTimeout = 10 * 60_000;
+        private long maxLifetime = 30 * 60_000;
+        private int validationTimeout = 5;
+        private boolean validateOnBorrow = true;
+        private long housekeepingPeriod = 30_000;
+        private QueryMetrics metrics = QueryMetrics.NO_OP;
+
+        public Builder(JDBConnectionBuilder connectionBuilder){
+            this.connectionBuilder = connectionBuilder;
+        }
+        public Builder(DriverClass driver){
+            this(new JDBConnection.Builder(driver));
+        }
+        public Builder(String connectionURL){
+            this(new JDBConnection.Builder(connectionURL));
+        }
+        public Builder host(String name, String port) {
+            if (connectionBuilder instanceof JDBConnection.Builder)
+                ((JDBConnection.Builder) connectionBuilder).host(name, port);
+            return this;
+        }
+        public Builder database(String name) {
+            connectionBuilder.database(name);
+            return this;
+        }
+        public Builder credential(String name, String password){
+            connectionBuilder.credential(name, password);
+            return this;
+        }
+        public Builder query(String query){
+            connectionBuilder.query(query);
+            return this;
+        }
+        public Builder minSize(int minSize){
+            this.minSize = Math.max(0, minSize);
+            return this;
+        }
+        public Builder maxSize(int maxSize){
+            this.maxSize = Math.max(1, maxSize);
+            return this;
+        }
+        public Builder borrowTimeout(long timeout, TimeUnit unit){
+            this.borrowTimeout = unit.toMillis(timeout);
+            return this;
+        }
+        public Builder idleTimeout(long timeout, TimeUnit unit){
+            this.idleTimeout = unit.toMillis(timeout);
+            return this;
+        }
+        public Builder maxLifetime(long lifetime, TimeUnit unit){
+            this.maxLifetime = unit.toMillis(lifetime);
+            return this;
+        }
+        public Builder validateOnBorrow(boolean validate, int timeoutInSeconds){
+            this.validateOnBorrow = validate;
+            this.validationTimeout = timeoutInSeconds;
+            return this;
+        }
+        public Builder housekeepingPeriod(long period, TimeUnit unit){
+            this.housekeepingPeriod = unit.toMillis(period);
+            return this;
+        }
+        public Builder metrics(QueryMetrics metrics){
+            this.metrics = (metrics == null) ? QueryMetrics.NO_OP : metrics;
+            return this;
+        }
+        public ConnectionPool build() {
+            if (minSize > maxSize) minSize = maxSize;
+            ConnectionPool pool = new ConnectionPool(this);
+            pool.fill();
+            return pool;
+        }
+    }
+
+    private static class PooledEntry {
+        final Connection physical;
+        final long createdAt;
+        final boolean readOnly;
+        final int isolation;
+        volatile long lastUsed;
+        //Set once a borrower changes readOnly or the isolation level:
+        volatile boolean sessionChanged;
+        PooledEntry(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.createdAt = System.currentTimeMillis();
+            this.lastUsed = createdAt;
+            this.readOnly = physical.isReadOnly();
+            this.isolation = physical.getTransactionIsolation();
+        }
+    }
+
+    private static Logger LOG = Logger.getLogger(ConnectionPool.class.getSimpleName());
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    private final JDBConnectionBuilder connectionBuilder;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeout;
+    private final long idleTimeout;
+    private final long maxLifetime;
+    private final int validationTimeout;
+    private final boolean validateOnBorrow;
+
+    private final ConcurrentLinkedDeque<PooledEntry> idle = new ConcurrentLinkedDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+    private volatile QueryMetrics metrics;
+    private PrintWriter logWriter;
+    private int loginTimeout;
+
+    private ConnectionPool(Builder builder){
+        this.connectionBuilder = builder.connectionBuilder;
+        this.minSize = builder.minSize;
+        this.maxSize = builder.maxSize;
+        this.borrowTimeout = builder.borrowTimeout;
+        this.idleTimeout = builder.idleTimeout;
+        this.maxLifetime = builder.maxLifetime;
+        this.validationTimeout = builder.validationTimeout;
+        this.validateOnBorrow = builder.validateOnBorrow;
+        this.metrics = builder.metrics;
+        this.permits = new Semaphore(maxSize, false);
+        String name = "ConnectionPool-Housekeeper-" + POOL_SEQUENCE.incrementAndGet();
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (builder.housekeepingPeriod > 0){
+            housekeeper.scheduleWithFixedDelay(this::housekeeping
+                    , builder.housekeepingPeriod, builder.housekeepingPeriod, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Borrow a connection, waiting at most borrowTimeout for one to become available.
+     * @return
+     * @throws SQLException
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return borrow(borrowTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection borrow(long timeout, TimeUnit unit) throws SQLException {
+        if (closed) throw new SQLException("ConnectionPool has been closed.");
+        long start = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(timeout, unit);
+            metrics.recordBorrowWait(System.nanoTime() - start);
+            if (!acquired)
+                throw new SQLException("Timeout: no connection available after " + unit.toMillis(timeout) + " ms. Active: "
+                        + activeConnections() + ", Max: " + maxSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e.getMessage(), e);
+        }
+        try {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null){
+                if (isUsable(entry)) break;
+                discard(entry);
+            }
+            if (entry == null) entry = create();
+            entry.lastUsed = System.currentTimeMillis();
+            return wrap(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are fixed by the pool's JDBConnectionBuilder.");
+    }
+
+    private PooledEntry create() throws SQLException {
+        total.incrementAndGet();
+        Connection physical = null;
+        try {
+            physical = connectionBuilder.build();
+            return new PooledEntry(physical);
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            if (physical != null) physical.close();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        if (isExpired(entry, System.currentTimeMillis())) return false;
+        try {
+            if (entry.physical.isClosed()) return false;
+            return !validateOnBorrow || entry.physical.isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledEntry entry, long now) {
+        return maxLifetime > 0 && (now - entry.createdAt) >= maxLifetime;
+    }
+
+    private void discard(PooledEntry entry) {
+        total.decrementAndGet();
+        try {
+            if (!entry.physical.isClosed()) entry.physical.close();
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+
+    private void giveBack(PooledEntry entry) {
+        try {
+            boolean reusable = !closed && !entry.physical.isClosed() && !isExpired(entry, System.currentTimeMillis());
+            if (reusable && !entry.physical.getAutoCommit()){
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            if (reusable && entry.sessionChanged){
+                entry.physical.setReadOnly(entry.readOnly);
+                entry.physical.setTransactionIsolation(entry.isolation);
+                entry.sessionChanged = false;
+            }
+            if (reusable){
+                entry.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            }else {
+                discard(entry);
+            }
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void fill() {
+        //Pre-filled connections hold a permit while being created, so the pool never exceeds maxSize.
+        while (!closed && total.get() < minSize && permits.tryAcquire()){
+            try {
+                idle.offerLast(create());
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void housekeeping() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> iterator = idle.descendingIterator();
+        while (iterator.hasNext()){
+            PooledEntry entry = iterator.next();
+            boolean idleTooLong = idleTimeout > 0
+                    && (now - entry.lastUsed) >= idleTimeout
+                    && total.get() > minSize;
+            if ((idleTooLong || isExpired(entry, now)) && idle.removeFirstOccurrence(entry)){
+                discard(entry);
+            }
+        }
+        fill();
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        InvocationHandler handler = new InvocationHandler() {
+            private volatile boolean returned;
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if ("close".equals(name) && method.getParameterCount() == 0){
+                    if (!returned){
+                        returned = true;
+                        giveBack(entry);
+                    }
+                    return null;
+                }
+                if ("isClosed".equals(name) && method.getParameterCount() == 0){
+                    return returned || entry.physical.isClosed();
+                }
+                if ("equals".equals(name) && method.getParameterCount() == 1) return proxy == args[0];
+                if ("hashCode".equals(name) && method.getParameterCount() == 0) return System.identityHashCode(proxy);
+                if ("toString".equals(name) && method.getParameterCount() == 0) return "Pooled:" + entry.physical;
+                if (returned) throw new SQLException("Connection has been returned to the pool.");
+                if ("setReadOnly".equals(name) || "setTransactionIsolation".equals(name)) entry.sessionChanged = true;
+                Object result;
+                try {
+                    result = method.invoke(entry.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                return (result != null && isConnectionChild(method.getReturnType()))
+                        ? wrapChild(result, method.getReturnType(), (Connection) proxy) : result;
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader()
+                , new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static boolean isConnectionChild(Class<?> type) {
+        return Statement.class.isAssignableFrom(type) || type == DatabaseMetaData.class;
+    }
+
+    /**
+     * Statement or DatabaseMetaData whose getConnection() returns the pooled connection, so closing that
+     * gives the connection back instead of closing the physical one.
+     */
+    private static Object wrapChild(Object target, Class<?> type, Connection pooled) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if ("getConnection".equals(name) && method.getParameterCount() == 0) return pooled;
+            if ("equals".equals(name) && method.getParameterCount() == 1) return proxy == args[0];
+            if ("hashCode".equals(name) && method.getParameterCount() == 0) return System.identityHashCode(proxy);
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    public int activeConnections(){
+        return maxSize - permits.availablePermits();
+    }
+
+    public int idleConnections(){
+        return idle.size();
+    }
+
+    public int totalConnections(){
+        return total.get();
+    }
+
+    public int awaitingBorrowers(){
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Receives the time every borrow waited for a free slot; null restores QueryMetrics.NO_OP.
+     * @param metrics
+     */
+    public void setMetrics(QueryMetrics metrics){
+        this.metrics = (metrics == null) ? QueryMetrics.NO_OP : metrics;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes idle connections immediately; borrowed ones are closed as they get returned.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null){
+            discard(entry);
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return LOG;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+}
@@ -6,27 +6,34 @@ import java.util.List;
 
 public enum DriverClass {
 
-    MYSQL("com.mysql.jdbc.Driver","jdbc:mysql://","3306"),
-    PostgresQLv7("org.postgresql.Driver","jdbc:postgresql://","5432"),
-    DB2("COM.ibm.db2.jdbc.app.DB2Driver","jdbc:db2://","446"),
-    OracleOCI9i("oracle.jdbc.driver.OracleDriver","jdbc:oracle:thin:@//",""),
-    SQLServer("com.microsoft.jdbc.sqlserver.SQLServerDriver","jdbc:sqlserver://","1433"),
-    H2_EMBEDDED("org.h2.Driver","jdbc:h2:mem:",""),
-    H2_FILE("org.h2.Driver","jdbc:h2:file:",""),
-    H2_SERVER("org.h2.Driver","jdbc:h2:tcp://","8084"),
-    H2_SERVER_TLS("org.h2.Driver","jdbc:h2:ssl://","8085"),
-    HSQL_EMBEDDED("org.hsqldb.jdbcDriver","jdbc:hsqldb:hsql://","9001"),
-    DERBY_EMBEDDED("org.apache.derby.jdbc.EmbeddedDriver","jdbc:derby://","1527"),
-    JDBC_ODBC("sun.jdbc.odbc.JdbcOdbcDriver","jdbc:odbc://","");
+    MYSQL("com.mysql.jdbc.Driver","jdbc:mysql://","3306", 65535, Integer.MAX_VALUE, true),
+    PostgresQLv7("org.postgresql.Driver","jdbc:postgresql://","5432", 32767, Integer.MAX_VALUE, true),
+    DB2("COM.ibm.db2.jdbc.app.DB2Driver","jdbc:db2://","446", 32767, Integer.MAX_VALUE, false),
+    OracleOCI9i("oracle.jdbc.driver.OracleDriver","jdbc:oracle:thin:@//","", 65535, 1, false),
+    SQLServer("com.microsoft.jdbc.sqlserver.SQLServerDriver","jdbc:sqlserver://","1433", 2098, 1000, false),
+    H2_EMBEDDED("org.h2.Driver","jdbc:h2:mem:","", 32767, Integer.MAX_VALUE, true),
+    H2_FILE("org.h2.Driver","jdbc:h2:file:","", 32767, Integer.MAX_VALUE, true),
+    H2_SERVER("org.h2.Driver","jdbc:h2:tcp://","8084", 32767, Integer.MAX_VALUE, true),
+    H2_SERVER_TLS("org.h2.Driver","jdbc:h2:ssl://","8085", 32767, Integer.MAX_VALUE, true),
+    HSQL_EMBEDDED("org.hsqldb.jdbcDriver","jdbc:hsqldb:hsql://","9001", 32767, Integer.MAX_VALUE, false),
+    DERBY_EMBEDDED("org.apache.derby.jdbc.EmbeddedDriver","jdbc:derby://","1527", 32767, Integer.MAX_VALUE, false),
+    JDBC_ODBC("sun.jdbc.odbc.JdbcOdbcDriver","jdbc:odbc://","", 2098, 1, false);
 
     private final String driverClassName;
     private final String urlSchema;
     private final String defaultPort;
+    private final int maxParameters;
+    private final int maxRowsPerInsert;
+    private final boolean multiRowGeneratedKeys;
 
-    DriverClass(String driverClassName, String urlSchema, String defaultPort) {
+    DriverClass(String driverClassName, String urlSchema, String defaultPort
+            , int maxParameters, int maxRowsPerInsert, boolean multiRowGeneratedKeys) {
         this.driverClassName = driverClassName;
         this.urlSchema = urlSchema;
         this.defaultPort = defaultPort;
+        this.maxParameters = maxParameters;
+        this.maxRowsPerInsert = maxRowsPerInsert;
+        this.multiRowGeneratedKeys = multiRowGeneratedKeys;
     }
 
     public String toString(){
@@ -41,6 +48,34 @@ public enum DriverClass {
         return defaultPort;
     }
 
+    /**
+     * Bind parameters the driver/server accepts in one statement.
+     * @return
+     */
+    public int maxParameters() {
+        return maxParameters;
+    }
+
+    /**
+     * Rows one INSERT ... VALUES (...),(...) may carry; 1 means multi-row VALUES is not supported.
+     * @return
+     */
+    public int maxRowsPerInsert() {
+        return maxRowsPerInsert;
+    }
+
+    public boolean supportsMultiRowInsert() {
+        return maxRowsPerInsert > 1;
+    }
+
+    /**
+     * Whether getGeneratedKeys() returns one key per row of a multi-row insert.
+     * @return
+     */
+    public boolean multiRowGeneratedKeys() {
+        return multiRowGeneratedKeys;
+    }
+
     public static DriverClass getMatchedDriver(String connectionURL) {
         DriverClass result = JDBC_ODBC;
         List<DriverClass> all = new ArrayList<>(EnumSet.allOf(DriverClass.class));
@@ -8,8 +8,8 @@ package com.it.soul.lab.connect;
 import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -22,12 +22,12 @@ public class JDBConnectionPool implements Serializable{
 	private static Logger LOG = Logger.getLogger(JDBConnectionPool.class.getSimpleName());
 	private static final long serialVersionUID = 8229833245259862179L;
 	private static Object _lock = new Object();
-	private static JDBConnectionPool _sharedInstance = null;
-	private static int activeConnectionCount = 0;
+	private static volatile JDBConnectionPool _sharedInstance = null;
+	private static final AtomicInteger activeConnectionCount = new AtomicInteger();
 
 	private static InitialContext initCtx=null;
-	private static SortedMap<String, DataSource> dataSourcePool = null;
-	private static String _DEFAULT_KEY = null;
+	private static final ConcurrentSkipListMap<String, DataSource> dataSourcePool = new ConcurrentSkipListMap<String, DataSource>();
+	private static volatile String _DEFAULT_KEY = null;
 
 	private JDBConnectionPool() throws NamingException {
 		initCtx = new InitialContext();
@@ -70,16 +70,13 @@ public class JDBConnectionPool implements Serializable{
 		if(_DEFAULT_KEY == null){
 			_DEFAULT_KEY = lookUpName;
 		}
-		if(!getDataSourcePool().containsKey(lookUpName)){
-			getDataSourcePool().put(lookUpName, source);
-		}
+		getDataSourcePool().putIfAbsent(lookUpName, source);
 	}
 
 	private static JDBConnectionPool poolInstance() {
-		synchronized (_lock) {
-			if(_sharedInstance != null){
-				return _sharedInstance;
-			}
+		JDBConnectionPool instance = _sharedInstance;
+		if(instance != null){
+			return instance;
 		}
 		LOG.info("Please Call configureConnectionPool at least once.");
 		return null;
@@ -102,26 +99,19 @@ public class JDBConnectionPool implements Serializable{
 	}
 
 	public static int activeConnections(){
-		return activeConnectionCount;
+		return activeConnectionCount.get();
 	}
 
 	private static void increasePoolCount(){
-		synchronized (_lock) {
-			activeConnectionCount++;
-		}
+		activeConnectionCount.incrementAndGet();
 	}
 
 	//increase decrease
 	private static void decreasePoolCount(){
-		synchronized (_lock) {
-			activeConnectionCount--;
-		}
+		activeConnectionCount.decrementAndGet();
 	}
 
-	private static SortedMap<String, DataSource> getDataSourcePool() {
-		if(dataSourcePool == null){
-			dataSourcePool = new TreeMap<String, DataSource>();
-		}
+	private static ConcurrentSkipListMap<String, DataSource> getDataSourcePool() {
 		return dataSourcePool;
 	}
 
@@ -149,6 +139,11 @@ public class JDBConnectionPool implements Serializable{
 		}
 	}
 
+	/**
+	 * Registers any DataSource under the key, e.g. a ConnectionPool built from JDBConnection.Builder.
+	 * @param key
+	 * @param source
+	 */
 	public static void configure(String key, DataSource source) {
 		synchronized (_lock){
 			if(_sharedInstance == null){
@@ -165,16 +160,14 @@ public class JDBConnectionPool implements Serializable{
 	}
 
 	private DataSource findSourceByName(String key){
-		if(!getDataSourcePool().containsKey(key))
-			return getDataSourcePool().get(_DEFAULT_KEY);
-		else
-			return getDataSourcePool().get(key);
+		DataSource source = (key == null) ? null : getDataSourcePool().get(key);
+		return (source != null) ? source : getDataSourcePool().get(_DEFAULT_KEY);
 	}
 
 	/**
 	 *
 	 */
-	public static synchronized Connection connection() throws SQLException{
+	public static Connection connection() throws SQLException{
 		Connection con = null;
 		try{
 			con = JDBConnectionPool.poolInstance().findSourceByName(_DEFAULT_KEY).getConnection();
@@ -185,7 +178,7 @@ public class JDBConnectionPool implements Serializable{
 		return con;
 	}
 
-	public static synchronized Connection connection(String key) throws SQLException{
+	public static Connection connection(String key) throws SQLException{
 		Connection con = null;
 		try{
 			con = JDBConnectionPool.poolInstance().findSourceByName(key).getConnection();
@@ -202,7 +195,7 @@ public class JDBConnectionPool implements Serializable{
 	 * @return
 	 * @throws SQLException
 	 */
-	public static synchronized Connection connection(String key, String userName , String password)
+	public static Connection connection(String key, String userName , String password)
 			throws SQLException{
 		Connection con = null;
 		try{
@@ -220,7 +213,7 @@ public class JDBConnectionPool implements Serializable{
 	 * @param conn
 	 * @throws SQLException
 	 */
-	public static synchronized void close(Connection conn) {
+	public static void close(Connection conn) {
 		try{
 			if(conn != null && ! conn.getAutoCommit()){
 				conn.commit();
@@ -0,0 +1,113 @@
+package com.it.soul.lab.cql;
+
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy, forward-only cursor over a paged select: only the current page is held in memory,
+ * and the next page is requested (executeAsync with the page's PagingState) as soon as the current one arrives,
+ * so it is usually ready when the current page is consumed.
+ * getPagingState() lets a later request resume the scan after the current page.
+ */
+public class CQLCursor<T> implements Iterator<T>, AutoCloseable {
+
+    private final Session session;
+    private final Statement statement;
+    private final Function<ResultSet, Function<Row, T>> readerFactory;
+    private Function<Row, T> reader;
+    private ResultSet page;
+    private int remaining;
+    private ResultSetFuture nextPage;
+    private boolean closed;
+
+    CQLCursor(Session session
+            , Statement statement
+            , ResultSet firstPage
+            , Function<ResultSet, Function<Row, T>> readerFactory) {
+        this.session = session;
+        this.statement = statement;
+        this.readerFactory = readerFactory;
+        setPage(firstPage);
+    }
+
+    private void setPage(ResultSet page) {
+        this.page = page;
+        this.remaining = page.getAvailableWithoutFetching();
+        if (reader == null) reader = readerFactory.apply(page);
+        PagingState state = page.getExecutionInfo().getPagingState();
+        //Prefetch: the next page is on its way while this one is consumed.
+        nextPage = (state == null) ? null : session.executeAsync(statement.setPagingState(state));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) return false;
+        while (remaining == 0) {
+            if (nextPage == null) {
+                close();
+                return false;
+            }
+            try {
+                setPage(Uninterruptibles.getUninterruptibly(nextPage));
+            } catch (ExecutionException e) {
+                close();
+                throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        remaining--;
+        return reader.apply(page.one());
+    }
+
+    /**
+     * @return rows of the current page not yet returned by next().
+     */
+    public int remainingInPage() {
+        return remaining;
+    }
+
+    /**
+     * Resume point after the current page: a statement with this paging state continues with the next page,
+     * so rows still remainingInPage() are not part of the resumed scan. Null when this is the last page.
+     * The paging state only fits the same query with the same bound values.
+     * @return
+     */
+    public PagingState getPagingState() {
+        return page.getExecutionInfo().getPagingState();
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        remaining = 0;
+        if (nextPage != null) nextPage.cancel(true);
+        nextPage = null;
+    }
+
+    public Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this
+                , Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+}
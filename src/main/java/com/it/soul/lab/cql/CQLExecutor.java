@@ -4,8 +4,17 @@ import com.datastax.driver.core.*;
 import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
 import com.datastax.driver.core.policies.ReconnectionPolicy;
 import com.datastax.driver.core.policies.RetryPolicy;
+import com.datastax.driver.core.policies.SpeculativeExecutionPolicy;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.it.soul.lab.cql.entity.CQLEntity;
 import com.it.soul.lab.cql.entity.CQLIndex;
 import com.it.soul.lab.cql.entity.ClusteringKey;
@@ -13,35 +22,53 @@ import com.it.soul.lab.cql.query.*;
 import com.it.soul.lab.cql.query.ReplicationStrategy;
 import com.it.soul.lab.sql.AbstractExecutor;
 import com.it.soul.lab.sql.QueryExecutor;
+import com.it.soul.lab.sql.QueryMetrics;
+import com.it.soul.lab.sql.QueryResultCache;
 import com.it.soul.lab.sql.QueryTransaction;
 import com.it.soul.lab.sql.entity.Column;
 import com.it.soul.lab.sql.entity.Entity;
 import com.it.soul.lab.sql.entity.PrimaryKey;
+import com.it.soul.lab.sql.query.QueryTemplate;
 import com.it.soul.lab.sql.query.QueryType;
+import com.it.soul.lab.sql.query.SQLQuery;
 import com.it.soul.lab.sql.query.SQLScalarQuery;
 import com.it.soul.lab.sql.query.SQLSelectQuery;
+import com.it.soul.lab.sql.query.models.ColumnarTable;
+import com.it.soul.lab.sql.query.models.DataType;
 import com.it.soul.lab.sql.query.models.Property;
 import com.it.soul.lab.sql.query.models.Row;
-import com.it.soul.lab.sql.query.models.Table;
+import com.it.soul.lab.sql.query.models.RowBinder;
 import com.it.soul.lab.sql.query.models.Where;
 
 import java.awt.image.BufferedImage;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.sql.BatchUpdateException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSelectQuery, CQLInsertQuery, CQLUpdateQuery, CQLDeleteQuery, SQLScalarQuery> {
 
@@ -49,13 +76,52 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
 
         private Cluster.Builder clBuilder;
         private String keySpace;
+        private QueryMetrics metrics;
+        private int maxInFlightWrites = DEFAULT_MAX_IN_FLIGHT_WRITES;
+        private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+        private QueryResultCache resultCache;
 
         public Builder() {
             clBuilder = Cluster.builder();
         }
 
         public <T extends QueryExecutor> T build(){
-            return (T) new CQLExecutor(clBuilder.build(), keySpace);
+            CQLExecutor executor = new CQLExecutor(clBuilder.build(), keySpace, statementCacheSize);
+            executor.setMetrics(metrics);
+            executor.setResultCache(resultCache);
+            executor.maxInFlightWrites = maxInFlightWrites;
+            return (T) executor;
+        }
+
+        /**
+         * Max prepared statements kept per session; 0 prepares on every call (not recommended).
+         * @param size
+         * @return
+         */
+        public Builder statementCacheSize(int size){
+            this.statementCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Upper bound of outstanding async requests during bulk writes (batch executeInsert/Update/Delete).
+         * @param max
+         * @return
+         */
+        public Builder maxInFlightWrites(int max){
+            if (max <= 0) throw new IllegalArgumentException("maxInFlightWrites must be greater than 0.");
+            this.maxInFlightWrites = max;
+            return this;
+        }
+
+        public Builder metrics(QueryMetrics metrics){
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Builder resultCache(QueryResultCache resultCache){
+            this.resultCache = resultCache;
+            return this;
         }
 
         public Builder connectTo(Integer port, String...points){
@@ -94,9 +160,20 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
             return this;
         }
 
+        /**
+         * e.g. ConstantSpeculativeExecutionPolicy or PercentileSpeculativeExecutionPolicy; the driver only
+         * speculates on idempotent statements, see CQLQueryOptions.Builder.idempotent().
+         * @param policy
+         * @return
+         */
+        public Builder speculativeExecution(SpeculativeExecutionPolicy policy){
+            clBuilder.withSpeculativeExecutionPolicy(policy);
+            return this;
+        }
+
     }
 
-    private CQLExecutor(Cluster cluster, String keyspace) {
+    private CQLExecutor(Cluster cluster, String keyspace, int statementCacheSize) {
 
         Metadata metadata = cluster.getMetadata();
         LOG.info(String.format("Connected to cluster: %s\n", metadata.getClusterName()));
@@ -105,17 +182,39 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
             LOG.info(String.format("Datacenter: %s; Host: %s; Rack: %s\n", host.getDatacenter(), host.getAddress(), host.getRack()));
         }
         //
+        this.statementCacheSize = statementCacheSize;
         setupSession(cluster, keyspace);
     }
 
+    private static final int DEFAULT_BATCH_SIZE = 20;
+    private static final int DEFAULT_MAX_IN_FLIGHT_WRITES = 128;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 1000;
+
     private Logger LOG = Logger.getLogger(this.getClass().getSimpleName());
     private Session _session;
+    private int maxInFlightWrites = DEFAULT_MAX_IN_FLIGHT_WRITES;
+    private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+    private StatementPool statementPool;
 
     protected Session getSession(){
         assert _session != null : "Invalid Cassandra Session : CQLExecutor";
         return _session;
     }
 
+    /**
+     * @return cluster name, contact hosts and logged keyspace of the session.
+     */
+    @Override
+    public String getDatabaseId() {
+        if (_session == null) return super.getDatabaseId();
+        Metadata metadata = _session.getCluster().getMetadata();
+        Set<String> hosts = new TreeSet<>();
+        for (Host host : metadata.getAllHosts()) {
+            hosts.add(String.valueOf(host.getSocketAddress()));
+        }
+        return metadata.getClusterName() + hosts + "/" + _session.getLoggedKeyspace();
+    }
+
     protected void setupSession(Cluster cluster, String keyspace){
         if (keyspace == null) keyspace = "";
         //Check keyspace exist or not.
@@ -126,6 +225,7 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
         }else {
             _session = cluster.connect();
         }
+        statementPool = new StatementPool(_session, statementCacheSize);
         //TODO: WHAT IS THIS:
         //_session = cluster.newSession();
     }
@@ -154,11 +254,36 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
         if (getSession().isClosed() == false){
             keyspace = validateKeyspace(keyspace);
             getSession().execute("USE " + keyspace + ";");
+            //Statements prepared against the previous keyspace must not be reused:
+            statementPool.invalidate();
         }else{
             reconnectSession(keyspace);
         }
     }
 
+    /**
+     * Prepared once per session and query, see StatementPool.
+     */
+    protected PreparedStatement prepareStatement(String query){
+        return statementPool.prepare(query, getMetrics());
+    }
+
+    public ListenableFuture<PreparedStatement> prepareStatementAsync(String query){
+        return statementPool.prepareAsync(query, getMetrics());
+    }
+
+    public long getStatementCacheHits(){
+        return statementPool.stats().hitCount();
+    }
+
+    public long getStatementCacheMisses(){
+        return statementPool.stats().missCount();
+    }
+
+    public long getStatementCacheEvictions(){
+        return statementPool.stats().evictionCount();
+    }
+
     @Override
     public CQLQuery.Builder createQueryBuilder(QueryType queryType) {
         return new CQLQuery.Builder(queryType);
@@ -166,18 +291,22 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
 
     @Override
     public Integer executeUpdate(CQLUpdateQuery cqlUpdateQuery) throws SQLException {
+        long start = System.nanoTime();
         try {
             Statement statement = createUpdateStatement(cqlUpdateQuery);
             getSession().execute(statement);
+            invalidateResultCache(cqlUpdateQuery.getTableName());
+            getMetrics().recordWrite(cqlUpdateQuery.toString(), System.nanoTime() - start, 1);
             return 1;
         }catch (Exception e){
+            getMetrics().recordError(cqlUpdateQuery.toString(), e);
             throw new SQLException(e.getMessage());
         }
     }
 
     protected Statement createUpdateStatement(CQLUpdateQuery cqlUpdateQuery) {
         //Order of keys in statements
-        PreparedStatement smt = StatementPool.createIfNotExist(cqlUpdateQuery.toString(), getSession());
+        PreparedStatement smt = prepareStatement(cqlUpdateQuery.toString());
         List<Object> properties = new ArrayList<>();
         //
         Row row = cqlUpdateQuery.getRow();
@@ -191,67 +320,289 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
         }
         //
         Object[] values = properties.toArray(new Object[0]);
-        return (properties.isEmpty()) ? smt.bind() : smt.bind(values);
+        return applyOptions((properties.isEmpty()) ? smt.bind() : smt.bind(values), cqlUpdateQuery);
     }
 
+    /**
+     * Sets the query's CQLQueryOptions (if any) on the statement.
+     */
+    protected Statement applyOptions(Statement statement, SQLQuery query) {
+        if (query instanceof CQLQueryOptions.Holder) {
+            CQLQueryOptions options = ((CQLQueryOptions.Holder) query).getOptions();
+            if (options != null) options.applyTo(statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Every row holds the SET values of the query; the where clause is shared by all rows.
+     * @see #executeBulk(String, int, int, IntFunction)
+     */
     @Override
     public Integer[] executeUpdate(int size, CQLUpdateQuery query, List<Row> rows) throws SQLException, IllegalArgumentException {
-        throw new SQLException("Not Implemented YET");
+        if (rows == null || rows.isEmpty()){
+            throw new SQLException("Set Parameter Should not be bull or empty!!!");
+        }
+        PreparedStatement smt = prepareStatement(query.toString());
+        String[] keys = query.getRow().getKeys();
+        Row where = query.getWhereProperties();
+        try {
+            return executeBulk(query.toString(), size, rows.size(), index -> applyOptions(bind(smt, keys, rows.get(index), where), query));
+        } finally {
+            invalidateResultCache(query.getTableName());
+        }
     }
 
     @Override
     public Integer[] executeUpdate(int size, List<CQLUpdateQuery> queries) throws SQLException, IllegalArgumentException {
-        throw new SQLException("Not Implemented YET");
+        if (queries == null || queries.isEmpty()){
+            throw new SQLException("Queries Should not be bull or empty!!!");
+        }
+        try {
+            return executeBulk(queries.get(0).toString(), size, queries.size(), index -> createUpdateStatement(queries.get(index)));
+        } finally {
+            for (CQLUpdateQuery query : queries) {
+                if (query != null) invalidateResultCache(query.getTableName());
+            }
+        }
     }
 
     @Override
     public Integer executeDelete(CQLDeleteQuery cqlDeleteQuery) throws SQLException {
+        long start = System.nanoTime();
         try{
             Statement statement = createSelectStatementFrom(cqlDeleteQuery);
             getSession().execute(statement);
+            invalidateResultCache(cqlDeleteQuery.getTableName());
+            getMetrics().recordWrite(cqlDeleteQuery.toString(), System.nanoTime() - start, -1);
             return 1;
         }catch (Exception e) {
+            getMetrics().recordError(cqlDeleteQuery.toString(), e);
             throw new SQLException(e.getMessage());
         }
     }
 
+    /**
+     * @return number of rows whose delete was applied.
+     */
     @Override
     public Integer executeDelete(int size, CQLDeleteQuery deleteQuery, List<Row> where) throws SQLException {
-        throw new SQLException("Not Implemented YET");
+        if (where == null || where.isEmpty()){
+            throw new SQLException("Where parameter should not be null or empty!!!");
+        }
+        PreparedStatement smt = prepareStatement(deleteQuery.toString());
+        String[] keys = deleteQuery.getWhereProperties().getKeys();
+        Integer[] results;
+        try {
+            results = executeBulk(deleteQuery.toString(), size, where.size(), index -> applyOptions(bind(smt, keys, where.get(index), null), deleteQuery));
+        } finally {
+            invalidateResultCache(deleteQuery.getTableName());
+        }
+        int deleted = 0;
+        for (Integer result : results) deleted += result;
+        return deleted;
     }
 
     public Integer executeInsert(boolean autoId, String s) throws SQLException, IllegalArgumentException {
+        long start = System.nanoTime();
         try{
             getSession().execute(s);
+            invalidateResultCache(null);
+            getMetrics().recordWrite(s, System.nanoTime() - start, 1);
             return 1;
         }catch (Exception e){
+            getMetrics().recordError(s, e);
             throw new SQLException(e.getMessage());
         }
     }
 
     @Override
     public Integer executeInsert(boolean autoId, CQLInsertQuery cqlInsertQuery) throws SQLException, IllegalArgumentException {
+        long start = System.nanoTime();
         try{
             Statement statement = createInsertStatement(cqlInsertQuery);
             getSession().execute(statement);
+            invalidateResultCache(cqlInsertQuery.getTableName());
+            getMetrics().recordWrite(cqlInsertQuery.toString(), System.nanoTime() - start, 1);
             return 1;
         }catch (Exception e){
+            getMetrics().recordError(cqlInsertQuery.toString(), e);
             throw new SQLException(e.getMessage());
         }
     }
 
+    /**
+     * autoId is ignored, Cassandra has no generated keys.
+     * @see #executeBulk(String, int, int, IntFunction)
+     */
     @Override
     public Integer[] executeInsert(boolean autoId, int size, CQLInsertQuery insertQuery, List<Row> rows) throws SQLException, IllegalArgumentException {
-        throw new SQLException("Not Implemented YET");
+        if (rows == null || rows.isEmpty()){
+            throw new SQLException("Set Parameter Should not be bull or empty!!!");
+        }
+        PreparedStatement smt = prepareStatement(insertQuery.toString());
+        String[] keys = insertQuery.getRow().getKeys();
+        try {
+            return executeBulk(insertQuery.toString(), size, rows.size(), index -> applyOptions(bind(smt, keys, rows.get(index), null), insertQuery));
+        } finally {
+            invalidateResultCache(insertQuery.getTableName());
+        }
+    }
+
+    /**
+     * Binds the row's values in the order of keys, followed by the where values (if any).
+     */
+    protected Statement bind(PreparedStatement smt, String[] keys, Row row, Row where) throws IllegalArgumentException {
+        int whereCount = (where != null) ? where.size() : 0;
+        Object[] values = new Object[keys.length + whereCount];
+        for (int index = 0; index < keys.length; index++) {
+            values[index] = valueOf(row, keys[index]);
+        }
+        for (int index = 0; index < whereCount; index++) {
+            values[keys.length + index] = where.getProperties().get(index).getValue();
+        }
+        return (values.length == 0) ? smt.bind() : smt.bind(values);
+    }
+
+    private Object valueOf(Row row, String key) throws IllegalArgumentException {
+        for (Property prop : row.getProperties()) {
+            if (prop.getKey().equals(key)) return prop.getValue();
+        }
+        throw new IllegalArgumentException(key + " is missing from row " + row);
+    }
+
+    /**
+     * Bulk write engine: statements are bound one window (size * maxInFlightWrites) at a time,
+     * grouped by routing key (partition) into UNLOGGED batches of at most size statements and sent with
+     * executeAsync, never more than maxInFlightWrites requests outstanding. Statements without a known
+     * routing key are sent on their own.
+     * @param query for metrics and logging.
+     * @param size statements per batch.
+     * @param count number of statements.
+     * @param binder creates statement i.
+     * @return per statement 1 when applied.
+     * @throws BatchUpdateException after every request sent has completed, when any of them failed;
+     * getUpdateCounts() holds 1 per applied statement and EXECUTE_FAILED per failed or unsent one.
+     * @throws SQLException when binding a statement failed, also after the requests already sent completed.
+     */
+    protected Integer[] executeBulk(String query, int size, int count, IntFunction<Statement> binder) throws SQLException {
+        size = (size <= 0) ? DEFAULT_BATCH_SIZE : size;
+        Integer[] results = new Integer[count];
+        Arrays.fill(results, 0);
+        Configuration config = getSession().getCluster().getConfiguration();
+        ProtocolVersion version = config.getProtocolOptions().getProtocolVersion();
+        CodecRegistry registry = config.getCodecRegistry();
+        Semaphore inFlight = new Semaphore(maxInFlightWrites);
+        AtomicInteger applied = new AtomicInteger();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        int windowSize = size * maxInFlightWrites;
+        long start = System.nanoTime();
+        Exception error = null;
+        try {
+            for (int offset = 0; offset < count; offset += windowSize) {
+                int end = Math.min(count, offset + windowSize);
+                Statement[] window = new Statement[end - offset];
+                Map<ByteBuffer, List<Integer>> partitions = new LinkedHashMap<>();
+                for (int index = offset; index < end; index++) {
+                    Statement statement = binder.apply(index);
+                    window[index - offset] = statement;
+                    ByteBuffer routingKey = statement.getRoutingKey(version, registry);
+                    if (routingKey == null) {
+                        sendBulk(query, Collections.singletonList(index), offset, window, results, inFlight, applied, failures);
+                        continue;
+                    }
+                    List<Integer> partition = partitions.computeIfAbsent(routingKey, key -> new ArrayList<>());
+                    partition.add(index);
+                    if (partition.size() == size) {
+                        sendBulk(query, partition, offset, window, results, inFlight, applied, failures);
+                        partitions.remove(routingKey);
+                    }
+                }
+                for (List<Integer> partition : partitions.values()) {
+                    sendBulk(query, partition, offset, window, results, inFlight, applied, failures);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        } catch (RuntimeException e) {
+            error = e;
+        } finally {
+            //Wait for every outstanding request, also when binding failed half way:
+            inFlight.acquireUninterruptibly(maxInFlightWrites);
+            inFlight.release(maxInFlightWrites);
+        }
+        getMetrics().recordBatch(query, System.nanoTime() - start, count, applied.get());
+        if (error != null) {
+            getMetrics().recordError(query, error);
+            throw new SQLException(error.getMessage(), error);
+        }
+        if (!failures.isEmpty()) {
+            int[] counts = new int[count];
+            for (int index = 0; index < count; index++) {
+                counts[index] = (results[index] == 1) ? 1 : java.sql.Statement.EXECUTE_FAILED;
+            }
+            Throwable first = failures.poll();
+            BatchUpdateException exception = new BatchUpdateException(
+                    (count - applied.get()) + " of " + count + " statements failed: " + first.getMessage(), counts, first);
+            for (Throwable other : failures) exception.addSuppressed(other);
+            throw exception;
+        }
+        return results;
+    }
+
+    private void sendBulk(String query
+            , List<Integer> indexes
+            , int offset
+            , Statement[] window
+            , Integer[] results
+            , Semaphore inFlight
+            , AtomicInteger applied
+            , Queue<Throwable> failures) throws InterruptedException {
+        //
+        Statement statement;
+        if (indexes.size() == 1) {
+            statement = window[indexes.get(0) - offset];
+        } else {
+            BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+            for (Integer index : indexes) batch.add(window[index - offset]);
+            //The batch is what gets executed, so it takes the options of its statements:
+            Statement first = window[indexes.get(0) - offset];
+            batch.setConsistencyLevel(first.getConsistencyLevel());
+            batch.setSerialConsistencyLevel(first.getSerialConsistencyLevel());
+            if (first.getReadTimeoutMillis() >= 0) batch.setReadTimeoutMillis(first.getReadTimeoutMillis());
+            statement = batch;
+        }
+        inFlight.acquire();
+        ResultSetFuture future;
+        try {
+            future = getSession().executeAsync(statement);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet rows) {
+                for (Integer index : indexes) results[index] = 1;
+                applied.addAndGet(indexes.size());
+                inFlight.release();
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                getMetrics().recordError(query, throwable);
+                LOG.log(Level.WARNING, throwable.getMessage(), throwable);
+                failures.add(throwable);
+                inFlight.release();
+            }
+        }, MoreExecutors.directExecutor());
     }
 
     protected Statement createInsertStatement(CQLInsertQuery cqlInsertQuery) {
         //Order of keys in statements
-        PreparedStatement smt = StatementPool.createIfNotExist(cqlInsertQuery.toString(), getSession());
-        //TODO: Have to understand:
-        //smt.setConsistencyLevel(ConsistencyLevel.LOCAL_ONE);
-        //smt.setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
-        //
+        PreparedStatement smt = prepareStatement(cqlInsertQuery.toString());
+        //Consistency etc. per query, see CQLQueryOptions:
         Row row = cqlInsertQuery.getRow();
         List<Object> properties = new ArrayList<>();
         for (Property prop : row.getProperties()){
@@ -259,7 +610,7 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
         }
         Object[] values = properties.toArray(new Object[0]);
 
-        return (properties.isEmpty()) ? smt.bind() : smt.bind(values);
+        return applyOptions((properties.isEmpty()) ? smt.bind() : smt.bind(values), cqlInsertQuery);
     }
 
     public Integer getScalerValue(String s) throws SQLException {
@@ -292,18 +643,180 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
         List<Row> rows = new ArrayList<>();
         Iterator<com.datastax.driver.core.Row> iterator = set.iterator();
         while (iterator.hasNext()){
-            com.datastax.driver.core.Row row = iterator.next();
-            ColumnDefinitions def = row.getColumnDefinitions();
-            Row nRow = new Row();
-            //FIXME:
-            for (ColumnDefinitions.Definition definition : def.asList()){
-                nRow.add(definition.getName(), row.getObject(definition.getName()));
-            }
-            rows.add(nRow);
+            rows.add(createRowFrom(iterator.next()));
         }
         return rows;
     }
 
+    /**
+     * Like createRowsFrom(), but into a ColumnarTable: numeric and boolean columns are kept
+     * in primitive arrays. Iterating the ResultSet fetches further pages transparently.
+     * @param set
+     * @return
+     */
+    protected ColumnarTable createColumnarTableFrom(ResultSet set) {
+        List<ColumnDefinitions.Definition> definitions = set.getColumnDefinitions().asList();
+        String[] names = new String[definitions.size()];
+        DataType[] types = new DataType[definitions.size()];
+        for (int index = 0; index < names.length; index++) {
+            names[index] = definitions.get(index).getName();
+            types[index] = getColumnarType(definitions.get(index).getType().getName());
+        }
+        ColumnarTable table = new ColumnarTable(names, types, Math.max(1, set.getAvailableWithoutFetching()));
+        for (com.datastax.driver.core.Row row : set) {
+            int index = table.addRow();
+            for (int column = 0; column < names.length; column++) {
+                if (row.isNull(column)) {
+                    table.setNull(index, column);
+                    continue;
+                }
+                switch (table.getType(column)) {
+                    case LONG: table.setLong(index, column, row.getLong(column)); break;
+                    case FLOAT: table.setFloat(index, column, row.getFloat(column)); break;
+                    case DOUBLE: table.setDouble(index, column, row.getDouble(column)); break;
+                    case BOOL: table.setBoolean(index, column, row.getBool(column)); break;
+                    case STRING: table.setObject(index, column, row.getString(column)); break;
+                    //INT covers smallint/tinyint too, which the driver only reads as short/byte:
+                    default: table.setObject(index, column, row.getObject(column)); break;
+                }
+            }
+        }
+        return table;
+    }
+
+    protected DataType getColumnarType(com.datastax.driver.core.DataType.Name name) {
+        switch (name) {
+            case INT:
+            case SMALLINT:
+            case TINYINT:
+                return DataType.INT;
+            case BIGINT:
+            case COUNTER:
+            case TIME:
+                return DataType.LONG;
+            case FLOAT:
+                return DataType.FLOAT;
+            case DOUBLE:
+                return DataType.DOUBLE;
+            case BOOLEAN:
+                return DataType.BOOL;
+            case ASCII:
+            case TEXT:
+            case VARCHAR:
+                return DataType.STRING;
+            default:
+                return DataType.OBJECT;
+        }
+    }
+
+    public ColumnarTable executeSelectColumnar(CQLSelectQuery cqlSelectQuery) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Statement statement = createSelectStatementFrom(cqlSelectQuery);
+            ResultSet set = getSession().execute(statement);
+            ColumnarTable table = createColumnarTableFrom(set);
+            table.trimToSize();
+            getMetrics().recordRead(cqlSelectQuery.toString(), System.nanoTime() - start, table.size());
+            return table;
+        }catch (Exception e){
+            getMetrics().recordError(cqlSelectQuery.toString(), e);
+            throw new SQLException(e.getMessage());
+        }
+    }
+
+    /**
+     * Fills objects straight from driver rows by column index, without intermediate Row/Property.
+     * Iterating the ResultSet fetches further pages transparently.
+     * @param set
+     * @param aClass
+     * @param map Column:Name -> field name, may be null.
+     * @return
+     */
+    protected <T> List<T> inflate(ResultSet set, Class<T> aClass, Map<String, String> map) throws InstantiationException, IllegalAccessException, SQLException {
+        List<ColumnDefinitions.Definition> definitions = set.getColumnDefinitions().asList();
+        String[] columns = new String[definitions.size()];
+        for (int index = 0; index < columns.length; index++) {
+            columns[index] = definitions.get(index).getName();
+        }
+        RowBinder<T> binder = RowBinder.of(aClass, columns, map);
+        List<T> results = new ArrayList<>(set.getAvailableWithoutFetching());
+        for (com.datastax.driver.core.Row row : set) {
+            results.add(binder.bind(row::getObject));
+        }
+        return results;
+    }
+
+    /**
+     * Lazily reads the select fetchSize rows at a time, prefetching the next page, see CQLCursor.
+     * Must be closed unless it is fully consumed.
+     * @param query
+     * @param fetchSize rows per page; 0 keeps the driver default.
+     * @param type
+     * @param map Column:Name -> field name, may be null.
+     * @param resumeFrom CQLCursor.getPagingState() of an earlier cursor over the same query; null from the start.
+     * @return
+     * @throws SQLException
+     */
+    public <T> CQLCursor<T> openCursor(CQLSelectQuery query, int fetchSize, Class<T> type, Map<String, String> map, PagingState resumeFrom) throws SQLException {
+        return openCursor(query, fetchSize, resumeFrom, set -> createBinderReader(set, type, map));
+    }
+
+    public <T> Stream<T> stream(CQLSelectQuery query, int fetchSize, Class<T> type, Map<String, String> map) throws SQLException {
+        return openCursor(query, fetchSize, type, map, null).stream();
+    }
+
+    public Stream<Row> stream(CQLSelectQuery query, int fetchSize) throws SQLException {
+        return openCursor(query, fetchSize, null, set -> this::createRowFrom).stream();
+    }
+
+    protected <T> CQLCursor<T> openCursor(CQLSelectQuery query
+            , int fetchSize
+            , PagingState resumeFrom
+            , Function<ResultSet, Function<com.datastax.driver.core.Row, T>> readerFactory) throws SQLException {
+        //
+        long start = System.nanoTime();
+        try {
+            Statement statement = createSelectStatementFrom(query);
+            if (fetchSize > 0) statement.setFetchSize(fetchSize);
+            if (resumeFrom != null) statement.setPagingState(resumeFrom);
+            ResultSet firstPage = getSession().execute(statement);
+            getMetrics().recordRead(query.toString(), System.nanoTime() - start, firstPage.getAvailableWithoutFetching());
+            return new CQLCursor<>(getSession(), statement, firstPage, readerFactory);
+        } catch (Exception e) {
+            getMetrics().recordError(query.toString(), e);
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    protected <T> Function<com.datastax.driver.core.Row, T> createBinderReader(ResultSet set, Class<T> aClass, Map<String, String> map) {
+        List<ColumnDefinitions.Definition> definitions = set.getColumnDefinitions().asList();
+        String[] columns = new String[definitions.size()];
+        for (int index = 0; index < columns.length; index++) {
+            columns[index] = definitions.get(index).getName();
+        }
+        RowBinder<T> binder;
+        try {
+            binder = RowBinder.of(aClass, columns, map);
+        } catch (InstantiationException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return row -> {
+            try {
+                return binder.bind(row::getObject);
+            } catch (SQLException | InstantiationException | IllegalAccessException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        };
+    }
+
+    protected Row createRowFrom(com.datastax.driver.core.Row row) {
+        Row nRow = new Row();
+        for (ColumnDefinitions.Definition definition : row.getColumnDefinitions().asList()){
+            nRow.add(definition.getName(), row.getObject(definition.getName()));
+        }
+        return nRow;
+    }
+
     @Override
     public Object createBlob(String s) throws SQLException {
         ProtocolVersion proto = getSession().getCluster().getConfiguration().getProtocolOptions().getProtocolVersion();
@@ -322,82 +835,206 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
 
     @Override
     public <T> List<T> executeSelect(CQLSelectQuery cqlSelectQuery, Class<T> aClass, Map<String, String> map) throws SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException {
+        QueryResultCache.Key cacheKey = resultCacheKey(cqlSelectQuery, aClass, map);
+        List<T> cached = getCachedResult(cacheKey, cqlSelectQuery.toString());
+        if (cached != null) return cached;
+        long start = System.nanoTime();
         try {
             Statement statement = createSelectStatementFrom(cqlSelectQuery);
             ResultSet set = getSession().execute(statement);
-            List<Row> rows = createRowsFrom(set);
-            Table table = new Table();
-            table.setRows(rows);
-            return table.inflate(aClass, map);
+            List<T> results = inflate(set, aClass, map);
+            getMetrics().recordRead(cqlSelectQuery.toString(), System.nanoTime() - start, results.size());
+            cacheResult(cacheKey, results);
+            return results;
         }catch (Exception e){
+            getMetrics().recordError(cqlSelectQuery.toString(), e);
             throw new SQLException(e.getMessage());
         }
     }
 
+    public <T> List<T> executeSelect(QueryTemplate.Bound bound, Class<T> aClass, Map<String, String> map) throws SQLException, IllegalArgumentException {
+        return executeSelect(bound, aClass, map, null);
+    }
+
+    /**
+     * Select from a template; options replace the prototype's CQLQueryOptions, which the template does not keep.
+     */
+    public <T> List<T> executeSelect(QueryTemplate.Bound bound, Class<T> aClass, Map<String, String> map, CQLQueryOptions options) throws SQLException, IllegalArgumentException {
+        QueryTemplate template = bound.getTemplate();
+        if (template.isWrite()) throw new IllegalArgumentException("Template must be a Select query!");
+        QueryResultCache.Key cacheKey = resultCacheKey(bound, aClass, map);
+        List<T> cached = getCachedResult(cacheKey, template.getSql());
+        if (cached != null) return cached;
+        long start = System.nanoTime();
+        try {
+            ResultSet set = getSession().execute(createStatementFrom(bound, options));
+            List<T> results = inflate(set, aClass, map);
+            getMetrics().recordRead(template.getSql(), System.nanoTime() - start, results.size());
+            cacheResult(cacheKey, results);
+            return results;
+        }catch (Exception e){
+            getMetrics().recordError(template.getSql(), e);
+            throw new SQLException(e.getMessage());
+        }
+    }
+
+    public Integer executeUpdate(QueryTemplate.Bound bound) throws SQLException, IllegalArgumentException {
+        return executeUpdate(bound, null);
+    }
+
+    /**
+     * Insert, update or delete from a template.
+     */
+    public Integer executeUpdate(QueryTemplate.Bound bound, CQLQueryOptions options) throws SQLException, IllegalArgumentException {
+        QueryTemplate template = bound.getTemplate();
+        if (!template.isWrite()) throw new IllegalArgumentException("Template must be an Insert, Update or Delete query!");
+        long start = System.nanoTime();
+        try {
+            getSession().execute(createStatementFrom(bound, options));
+            getMetrics().recordWrite(template.getSql(), System.nanoTime() - start, 1);
+            return 1;
+        }catch (Exception e){
+            getMetrics().recordError(template.getSql(), e);
+            throw new SQLException(e.getMessage());
+        }finally {
+            invalidateResultCache(template.getTableName());
+        }
+    }
+
+    protected Statement createStatementFrom(QueryTemplate.Bound bound, CQLQueryOptions options) {
+        PreparedStatement smt = prepareStatement(bound.getTemplate().getSql());
+        Statement statement = (bound.size() == 0) ? smt.bind() : smt.bind(bound.getValues());
+        return (options != null) ? options.applyTo(statement) : statement;
+    }
+
     private final ExecutorService executionPool = Executors
             .newFixedThreadPool(Runtime.getRuntime().availableProcessors());
 
+    /**
+     * Calls back on the executor's pool with all results, or null when the select failed.
+     * @see #executeSelectAsync(CQLSelectQuery, Class, Map)
+     */
     public <T extends Entity> void executeSelect(CQLSelectQuery cqlSelectQuery, Class<T> aClass, Consumer<List<T>> consumer)  {
-        Statement statement = null;
-        try{
-            statement = createSelectStatementFrom(cqlSelectQuery);
-        }catch (Exception e) {
-            LOG.log(Level.WARNING,e.getMessage(), e);
-            consumer.accept(null);
-            return;
+        executeSelectAsync(cqlSelectQuery, aClass, CQLEntity.mapColumnsToProperties(aClass))
+                .whenCompleteAsync((results, error) -> {
+                    if (error != null) LOG.log(Level.WARNING, error.getMessage(), error);
+                    consumer.accept(error == null ? results : null);
+                }, executionPool);
+    }
+
+    /**
+     * Non-blocking select: prepares (cached) and executes asynchronously, decodes every page by column index
+     * as it arrives and fetches the next one with fetchMoreResults; no thread waits on the way.
+     * @param cqlSelectQuery
+     * @param aClass
+     * @param map Column:Name -> field name, may be null.
+     * @return
+     */
+    public <T> CompletionStage<List<T>> executeSelectAsync(CQLSelectQuery cqlSelectQuery, Class<T> aClass, Map<String, String> map) {
+        List<T> results = new ArrayList<>();
+        return executeSelectAsync(cqlSelectQuery, aClass, map, page -> {
+            results.addAll(page);
+            return CompletableFuture.completedFuture(null);
+        }).thenApply(count -> results);
+    }
+
+    /**
+     * Page-wise backpressure: the next page is requested only after the stage returned by pageHandler completes,
+     * so a slow subscriber never has more than one page in memory. pageHandler runs on driver threads and must not block.
+     * @param cqlSelectQuery
+     * @param aClass
+     * @param map Column:Name -> field name, may be null.
+     * @param pageHandler
+     * @return total number of rows, once the last page is handled; fails with the first error.
+     */
+    public <T> CompletionStage<Long> executeSelectAsync(CQLSelectQuery cqlSelectQuery
+            , Class<T> aClass
+            , Map<String, String> map
+            , Function<List<T>, ? extends CompletionStage<?>> pageHandler) {
+        //
+        AsyncSelect<T> select = new AsyncSelect<>(cqlSelectQuery.toString(), aClass, map, pageHandler);
+        ListenableFuture<ResultSet> firstPage = Futures.transformAsync(prepareStatementAsync(select.query)
+                , smt -> getSession().executeAsync(createSelectStatementFrom(smt, cqlSelectQuery)));
+        select.onPage(firstPage);
+        return select.result;
+    }
+
+    /**
+     * One asynchronous select: decodes each page as it arrives and chains the next fetch on the handler's stage.
+     */
+    private final class AsyncSelect<T> {
+        private final String query;
+        private final Class<T> type;
+        private final Map<String, String> map;
+        private final Function<List<T>, ? extends CompletionStage<?>> pageHandler;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private final long start = System.nanoTime();
+        private Function<com.datastax.driver.core.Row, T> reader;
+        private long rows;
+
+        private AsyncSelect(String query, Class<T> type, Map<String, String> map, Function<List<T>, ? extends CompletionStage<?>> pageHandler) {
+            this.query = query;
+            this.type = type;
+            this.map = map;
+            this.pageHandler = pageHandler;
         }
-        ResultSetFuture future = getSession().executeAsync(statement);
-        Futures.addCallback(future
-                , new FutureCallback<ResultSet>() {
-                    @Override
-                    public void onSuccess(ResultSet rows) {
-                        //
-                        List<Row> items = StreamSupport.stream(rows.spliterator(), false)
-                                .map(row -> {
-                                    ColumnDefinitions def = row.getColumnDefinitions();
-                                    Row nRow = new Row();
-                                    for (ColumnDefinitions.Definition definition : def.asList()){
-                                        nRow.add(definition.getName(), row.getObject(definition.getName()));
-                                    }
-                                    return nRow;
-                                }).collect(Collectors.toList());
-
-                        //items.forEach(row -> System.out.println(row.size()));
-                        Table table = new Table();
-                        table.setRows(items);
-                        try {
-                            List<T> results = table.inflate(aClass, CQLEntity.mapColumnsToProperties(aClass));
-                            consumer.accept(results);
-                        } catch (InstantiationException e) {
-                            LOG.log(Level.WARNING,e.getMessage(), e);
-                            consumer.accept(null);
-                        } catch (IllegalAccessException e) {
-                            LOG.log(Level.WARNING,e.getMessage(), e);
-                            consumer.accept(null);
+
+        private void onPage(ListenableFuture<ResultSet> page) {
+            Futures.addCallback(page, new FutureCallback<ResultSet>() {
+                @Override
+                public void onSuccess(ResultSet set) {
+                    try {
+                        if (reader == null) reader = createBinderReader(set, type, map);
+                        int available = set.getAvailableWithoutFetching();
+                        List<T> items = new ArrayList<>(available);
+                        for (int index = 0; index < available; index++) {
+                            items.add(reader.apply(set.one()));
                         }
-                        //
+                        rows += available;
+                        boolean last = set.isFullyFetched();
+                        CompletionStage<?> handled = items.isEmpty()
+                                ? CompletableFuture.completedFuture(null) : pageHandler.apply(items);
+                        handled.whenComplete((ignore, error) -> {
+                            if (error != null) fail(error);
+                            else if (last) complete();
+                            else onPage(set.fetchMoreResults());
+                        });
+                    } catch (RuntimeException e) {
+                        fail(e);
                     }
+                }
 
-                    @Override
-                    public void onFailure(Throwable throwable) {
-                        LOG.log(Level.WARNING,throwable.getMessage(), throwable);
-                        consumer.accept(null);
-                    }
-                }, executionPool);
-        //
+                @Override
+                public void onFailure(Throwable throwable) {
+                    fail(throwable);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        private void complete() {
+            getMetrics().recordRead(query, System.nanoTime() - start, (int) Math.min(rows, Integer.MAX_VALUE));
+            result.complete(rows);
+        }
+
+        private void fail(Throwable error) {
+            getMetrics().recordError(query, error);
+            result.completeExceptionally(error);
+        }
     }
 
     protected Statement createSelectStatementFrom(SQLSelectQuery cqlSelectQuery) {
+        return createSelectStatementFrom(prepareStatement(cqlSelectQuery.toString()), cqlSelectQuery);
+    }
+
+    protected Statement createSelectStatementFrom(PreparedStatement smt, SQLSelectQuery cqlSelectQuery) {
         //Order of keys in statements
-        String query = cqlSelectQuery.toString();
-        PreparedStatement smt = StatementPool.createIfNotExist(query, getSession());
         Row row = cqlSelectQuery.getWhereProperties();
         List<Object> properties = new ArrayList<>();
         for (Property prop : row.getProperties()){
             properties.add(prop.getValue());
         }
         Object[] values = properties.toArray(new Object[0]);
-        return (properties.isEmpty()) ? smt.bind() : smt.bind(values);
+        return applyOptions((properties.isEmpty()) ? smt.bind() : smt.bind(values), cqlSelectQuery);
     }
 
     public <T extends Entity> List<T> executeSelect(String s, Class<T> aClass) throws SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException {
@@ -407,13 +1044,14 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
 
     @Override
     public <T> List<T> executeSelect(String s, Class<T> aClass, Map<String, String> map) throws SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException {
+        long start = System.nanoTime();
         try{
             ResultSet set = getSession().execute(s);
-            List<Row> rows = createRowsFrom(set);
-            Table table = new Table();
-            table.setRows(rows);
-            return table.inflate(aClass, map);
+            List<T> results = inflate(set, aClass, map);
+            getMetrics().recordRead(s, System.nanoTime() - start, results.size());
+            return results;
         }catch (Exception e){
+            getMetrics().recordError(s, e);
             throw new SQLException(e.getMessage());
         }
     }
@@ -591,6 +1229,7 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
         String query = String.format("Truncate %s.%s;", keyspace, tableNameStr);
         try{
             ResultSet set = getSession().execute(query);
+            invalidateResultCache(tableNameStr);
             return set.wasApplied();
         }catch (Exception e){
             throw new SQLException(e.getMessage());
@@ -719,19 +1358,65 @@ public class CQLExecutor extends AbstractExecutor implements QueryExecutor<CQLSe
         }
     }
 
-    //FIXME: com.datastax.driver.core.Cluster Re-preparing already prepared query is generally an anti-pattern and will likely affect performance. Consider preparing the statement only once.
-    //TODO: Check if this query already prepared in this session:
+    /**
+     * Prepared statements of one Session, bounded by size (least recently used are evicted first).
+     * Each query is prepared once: concurrent callers share the same prepareAsync future,
+     * and a failed prepare is dropped so the next call retries.
+     */
     private static class StatementPool{
 
-        static final Map<String, PreparedStatement> statementPool = new ConcurrentHashMap<>();
+        private final Session session;
+        private final Cache<String, ListenableFuture<PreparedStatement>> cache;
 
-        static PreparedStatement createIfNotExist(String key, Session session){
-            PreparedStatement smt = statementPool.get(key);
-            if (smt == null){
-                smt = session.prepare(key);
-                statementPool.put(key, smt);
+        StatementPool(Session session, int maximumSize){
+            this.session = session;
+            this.cache = CacheBuilder.newBuilder()
+                    .maximumSize(Math.max(0, maximumSize))
+                    .recordStats()
+                    .build();
+        }
+
+        ListenableFuture<PreparedStatement> prepareAsync(String query, QueryMetrics metrics){
+            boolean[] loaded = new boolean[1];
+            ListenableFuture<PreparedStatement> future;
+            try {
+                future = cache.get(query, () -> {
+                    loaded[0] = true;
+                    return session.prepareAsync(query);
+                });
+            } catch (ExecutionException | UncheckedExecutionException e) {
+                return Futures.immediateFailedFuture(e.getCause());
             }
-            return smt;
+            metrics.recordPrepare(query, !loaded[0]);
+            if (loaded[0]){
+                ListenableFuture<PreparedStatement> prepared = future;
+                Futures.addCallback(prepared, new FutureCallback<PreparedStatement>() {
+                    @Override
+                    public void onSuccess(PreparedStatement statement) {}
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        cache.asMap().remove(query, prepared);
+                    }
+                }, MoreExecutors.directExecutor());
+            }
+            return future;
+        }
+
+        PreparedStatement prepare(String query, QueryMetrics metrics){
+            try {
+                return Uninterruptibles.getUninterruptibly(prepareAsync(query, metrics));
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+
+        CacheStats stats(){
+            return cache.stats();
+        }
+
+        void invalidate(){
+            cache.invalidateAll();
         }
     }
 
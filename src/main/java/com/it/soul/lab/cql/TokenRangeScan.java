@@ -0,0 +1,284 @@
+package com.it.soul.lab.cql;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.TokenRange;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.it.soul.lab.cql.entity.CQLEntity;
+import com.it.soul.lab.sql.entity.Entity;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Full table scan split by the ring's token ranges (cluster Metadata): every range is read with
+ * SELECT * FROM table WHERE token(pk) > ? AND token(pk) <= ?, at most concurrency ranges at a time.
+ * Each range is sent to one of its replicas that is up, local data center first; a failed page is retried
+ * on the next replica from where the range left off. Pages are handed to the consumer on the calling thread
+ * as they arrive (ranges interleave), so the consumer need not be thread safe.
+ */
+public class TokenRangeScan<T extends CQLEntity> {
+
+    public static class Builder<T extends CQLEntity> {
+        private final Class<T> type;
+        private final CQLExecutor executor;
+        private int concurrency = Runtime.getRuntime().availableProcessors() * 2;
+        private int fetchSize = 1000;
+        private int retries = 3;
+        private int splitsPerRange = 1;
+
+        public Builder(Class<T> type, CQLExecutor executor){
+            this.type = type;
+            this.executor = executor;
+        }
+        /**
+         * Max ranges read at the same time (one outstanding page request each).
+         * @param concurrency
+         * @return
+         */
+        public Builder<T> concurrency(int concurrency){
+            this.concurrency = concurrency;
+            return this;
+        }
+        public Builder<T> fetchSize(int fetchSize){
+            this.fetchSize = fetchSize;
+            return this;
+        }
+        /**
+         * Attempts per page after the first one fails.
+         * @param retries
+         * @return
+         */
+        public Builder<T> retries(int retries){
+            this.retries = retries;
+            return this;
+        }
+        /**
+         * Splits every token range further, for more parallelism than the ring has ranges.
+         * @param splits
+         * @return
+         */
+        public Builder<T> splitsPerRange(int splits){
+            this.splitsPerRange = splits;
+            return this;
+        }
+        public TokenRangeScan<T> build(){
+            if (type == null) throw new IllegalArgumentException("Entity type must not be null!");
+            if (executor == null) throw new IllegalArgumentException("CQLExecutor must not be null!");
+            if (concurrency <= 0 || fetchSize <= 0 || splitsPerRange <= 0 || retries < 0)
+                throw new IllegalArgumentException("Concurrency, fetchSize and splitsPerRange must be greater than 0.");
+            return new TokenRangeScan<>(this);
+        }
+    }
+
+    private static Logger LOG = Logger.getLogger(TokenRangeScan.class.getSimpleName());
+
+    private final Class<T> type;
+    private final CQLExecutor executor;
+    private final int concurrency;
+    private final int fetchSize;
+    private final int retries;
+    private final int splitsPerRange;
+
+    private TokenRangeScan(Builder<T> builder) {
+        this.type = builder.type;
+        this.executor = builder.executor;
+        this.concurrency = builder.concurrency;
+        this.fetchSize = builder.fetchSize;
+        this.retries = builder.retries;
+        this.splitsPerRange = builder.splitsPerRange;
+    }
+
+    /**
+     * Blocks until the whole table is read, or a page failed more than retries times.
+     * @param consumer
+     * @return number of rows read.
+     * @throws SQLException
+     */
+    public long read(Consumer<List<T>> consumer) throws SQLException {
+        if (consumer == null) return 0;
+        Session session = executor.getSession();
+        String keyspace = session.getLoggedKeyspace();
+        if (keyspace == null) throw new SQLException("No keyspace in use; see CQLExecutor.switchKeyspace().");
+        Metadata metadata = session.getCluster().getMetadata();
+        KeyspaceMetadata keyspaceMetadata = metadata.getKeyspace(keyspace);
+        TableMetadata table = (keyspaceMetadata != null) ? keyspaceMetadata.getTable(Entity.tableName(type)) : null;
+        if (table == null) throw new SQLException(Entity.tableName(type) + " not found in keyspace " + keyspace);
+        //
+        String token = table.getPartitionKey().stream()
+                .map(column -> Metadata.quoteIfNecessary(column.getName()))
+                .collect(Collectors.joining(", ", "token(", ")"));
+        String select = "SELECT * FROM " + Metadata.quoteIfNecessary(table.getName()) + " WHERE " + token + " > ?";
+        String rangeQuery = select + " AND " + token + " <= ?";
+        PreparedStatement range = executor.prepareStatement(rangeQuery);
+        //A range that ends at the ring's minimum token (after unwrap) has no upper bound:
+        PreparedStatement tail = executor.prepareStatement(select);
+        //
+        Deque<Range> pending = new ArrayDeque<>();
+        for (TokenRange ring : metadata.getTokenRanges()) {
+            for (TokenRange unwrapped : ring.unwrap()) {
+                List<TokenRange> splits = (splitsPerRange > 1) ? unwrapped.splitEvenly(splitsPerRange) : Collections.singletonList(unwrapped);
+                for (TokenRange split : splits) {
+                    boolean isTail = split.getEnd().compareTo(split.getStart()) <= 0;
+                    pending.add(new Range(split, isTail ? tail : range, isTail, replicas(session, keyspace, split)));
+                }
+            }
+        }
+        List<Range> ranges = new ArrayList<>(pending);
+        BlockingQueue<Page> pages = new LinkedBlockingQueue<>();
+        Function<Row, T> reader = null;
+        int running = 0;
+        long rows = 0;
+        try {
+            while (!pending.isEmpty() || running > 0) {
+                while (running < concurrency && !pending.isEmpty()) {
+                    send(session, pending.poll(), pages);
+                    running++;
+                }
+                Page page = pages.take();
+                Range current = page.range;
+                if (page.error != null) {
+                    executor.getMetrics().recordError(current.query(), page.error);
+                    if (++current.attempts > retries) {
+                        throw new SQLException("Token range " + current.range + " failed: " + page.error.getMessage(), page.error);
+                    }
+                    LOG.log(Level.WARNING, "Retrying token range " + current.range + ": " + page.error.getMessage());
+                    send(session, current, pages);
+                    continue;
+                }
+                ResultSet set = page.set;
+                int available = set.getAvailableWithoutFetching();
+                executor.getMetrics().recordRead(current.query(), System.nanoTime() - current.sentAt, available);
+                if (reader == null) {
+                    reader = executor.createBinderReader(set, type, CQLEntity.mapColumnsToProperties(type));
+                }
+                List<T> items = new ArrayList<>(available);
+                for (int index = 0; index < available; index++) {
+                    items.add(reader.apply(set.one()));
+                }
+                //Request the range's next page before handing this one over:
+                PagingState next = set.getExecutionInfo().getPagingState();
+                if (next != null) {
+                    current.pagingState = next;
+                    current.attempts = 0;
+                    send(session, current, pages);
+                } else {
+                    running--;
+                }
+                rows += items.size();
+                if (!items.isEmpty()) consumer.accept(items);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while scanning " + table.getName(), e);
+        } finally {
+            for (Range each : ranges) {
+                if (each.future != null && !each.future.isDone()) each.future.cancel(true);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return replicas of the range that are up; those the load balancing policy counts as LOCAL first.
+     */
+    private List<Host> replicas(Session session, String keyspace, TokenRange range) {
+        LoadBalancingPolicy policy = session.getCluster().getConfiguration().getPolicies().getLoadBalancingPolicy();
+        List<Host> local = new ArrayList<>();
+        List<Host> remote = new ArrayList<>();
+        for (Host host : session.getCluster().getMetadata().getReplicas(Metadata.quote(keyspace), range)) {
+            if (!host.isUp()) continue;
+            if (policy.distance(host) == HostDistance.LOCAL) local.add(host);
+            else if (policy.distance(host) == HostDistance.REMOTE) remote.add(host);
+        }
+        local.addAll(remote);
+        return local;
+    }
+
+    private void send(Session session, Range range, BlockingQueue<Page> pages) {
+        range.sentAt = System.nanoTime();
+        ResultSetFuture future = session.executeAsync(range.statement(fetchSize));
+        range.future = future;
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet set) {
+                pages.add(new Page(range, set, null));
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                pages.add(new Page(range, null, throwable));
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private static class Range {
+        private final TokenRange range;
+        private final PreparedStatement prepared;
+        private final boolean tail;
+        private final List<Host> replicas;
+        private PagingState pagingState;
+        private int attempts;
+        private long sentAt;
+        private ResultSetFuture future;
+
+        private Range(TokenRange range, PreparedStatement prepared, boolean tail, List<Host> replicas) {
+            this.range = range;
+            this.prepared = prepared;
+            this.tail = tail;
+            this.replicas = replicas;
+        }
+
+        private String query() {
+            return prepared.getQueryString();
+        }
+
+        private BoundStatement statement(int fetchSize) {
+            BoundStatement statement = prepared.bind().setToken(0, range.getStart());
+            if (!tail) statement.setToken(1, range.getEnd());
+            statement.setFetchSize(fetchSize);
+            statement.setIdempotent(true);
+            if (pagingState != null) statement.setPagingState(pagingState);
+            //Next replica on every retry; without replicas the load balancing policy decides.
+            if (!replicas.isEmpty()) statement.setHost(replicas.get(attempts % replicas.size()));
+            return statement;
+        }
+    }
+
+    private static class Page {
+        private final Range range;
+        private final ResultSet set;
+        private final Throwable error;
+
+        private Page(Range range, ResultSet set, Throwable error) {
+            this.range = range;
+            this.set = set;
+            this.error = error;
+        }
+    }
+
+}
@@ -1,11 +1,15 @@
 package com.it.soul.lab.cql.entity;
 
+import com.datastax.driver.core.ConsistencyLevel;
 import com.it.soul.lab.cql.query.CQLInsertQuery;
+import com.it.soul.lab.cql.query.CQLQueryOptions;
 import com.it.soul.lab.sql.QueryExecutor;
 import com.it.soul.lab.sql.entity.Column;
 import com.it.soul.lab.sql.entity.Entity;
+import com.it.soul.lab.sql.entity.EntityMetadata;
 import com.it.soul.lab.sql.entity.PrimaryKey;
 import com.it.soul.lab.sql.query.QueryType;
+import com.it.soul.lab.sql.query.SQLQuery;
 import com.it.soul.lab.sql.query.SQLSelectQuery;
 import com.it.soul.lab.sql.query.models.*;
 
@@ -21,29 +25,8 @@ public abstract class CQLEntity extends Entity {
     }
 
     @Override
-    protected Property getProperty(String fieldName, QueryExecutor exe, boolean skipPrimary){
-        Property prop = super.getProperty(fieldName, exe, skipPrimary);
-        try {
-            Field field = getClass().getDeclaredField(fieldName);
-            if (field.isAnnotationPresent(ClusteringKey.class)){
-                if (skipPrimary) return null;
-            }
-        } catch (NoSuchFieldException e) {
-            e.printStackTrace();
-        }
-        return prop;
-    }
-
-    @Override
-    protected List<Field> getPrimaryFields() {
-        List<Field> fields = super.getPrimaryFields();
-        Field[] allAgain = this.getClass().getDeclaredFields();
-        for (Field fl : allAgain) {
-            if (fl.isAnnotationPresent(ClusteringKey.class)){
-                fields.add(fl);
-            }
-        }
-        return fields;
+    protected boolean isClusteringKeyField(Field field) {
+        return field.isAnnotationPresent(ClusteringKey.class);
     }
 
     @Override
@@ -58,13 +41,18 @@ public abstract class CQLEntity extends Entity {
         }
     }
 
-    protected long getTTLValue(){
+    @Override
+    protected long readTTLValue() {
         if (getClass().isAnnotationPresent(EnableTimeToLive.class)) {
             return getClass().getAnnotation(EnableTimeToLive.class).value();
         }
         return 0;
     }
 
+    protected long getTTLValue(){
+        return getMetadata().getTimeToLive();
+    }
+
     @Override
     public Boolean insert(QueryExecutor exe, String... keys) throws SQLException {
         //
@@ -77,12 +65,80 @@ public abstract class CQLEntity extends Entity {
         if (ttl > 0L){
             query.usingTTL(ttl);
         }
+        customize(query);
 
         int result = exe.executeInsert(false, query);
+        if (result == 1) writeThroughCache(exe);
         return result == 1;
     }
 
+    /**
+     * Attaches the type's @QueryOptions to every write made through insert, update and delete.
+     */
+    @Override
+    protected void customize(SQLQuery query) {
+        applyOptions(getClass(), query);
+    }
+
+    private static final ClassValue<CQLQueryOptions> QUERY_OPTIONS = new ClassValue<CQLQueryOptions>() {
+        @Override
+        protected CQLQueryOptions computeValue(Class<?> type) {
+            return createQueryOptions(type);
+        }
+    };
+
+    /**
+     * @param type
+     * @return options of the type's @QueryOptions, cached per class; null when not annotated.
+     */
+    public static CQLQueryOptions queryOptions(Class<?> type) {
+        return QUERY_OPTIONS.get(type);
+    }
+
+    private static CQLQueryOptions createQueryOptions(Class<?> type) {
+        if (!type.isAnnotationPresent(QueryOptions.class)) return null;
+        QueryOptions annotation = type.getAnnotation(QueryOptions.class);
+        CQLQueryOptions.Builder builder = new CQLQueryOptions.Builder();
+        try {
+            if (!annotation.consistency().trim().isEmpty())
+                builder.consistency(ConsistencyLevel.valueOf(annotation.consistency().trim().toUpperCase()));
+            if (!annotation.serialConsistency().trim().isEmpty())
+                builder.serialConsistency(ConsistencyLevel.valueOf(annotation.serialConsistency().trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(type.getSimpleName() + " @QueryOptions: " + e.getMessage(), e);
+        }
+        if (annotation.idempotent()) builder.idempotent(true);
+        if (annotation.readTimeoutMillis() >= 0) builder.readTimeoutMillis(annotation.readTimeoutMillis());
+        if (annotation.fetchSize() > 0) builder.fetchSize(annotation.fetchSize());
+        return builder.build();
+    }
+
+    /**
+     * Sets the type's @QueryOptions on the query, unless the query already has options of its own.
+     */
+    protected static void applyOptions(Class<?> type, Object query) {
+        CQLQueryOptions options = queryOptions(type);
+        if (options == null || !(query instanceof CQLQueryOptions.Holder)) return;
+        CQLQueryOptions.Holder holder = (CQLQueryOptions.Holder) query;
+        if (holder.getOptions() == null) holder.setOptions(options);
+    }
+
+    private static final ClassValue<Map<String, String>> COLUMNS_TO_PROPERTIES = new ClassValue<Map<String, String>>() {
+        @Override
+        protected Map<String, String> computeValue(Class<?> type) {
+            return Collections.unmodifiableMap(createColumnsToProperties(type));
+        }
+    };
+
+    /**
+     * @param type
+     * @return Column:Name -> field name of the declared fields, cached per class (read-only).
+     */
     public static <T extends Entity> Map<String, String> mapColumnsToProperties(Class<T> type) {
+        return COLUMNS_TO_PROPERTIES.get(type);
+    }
+
+    private static Map<String, String> createColumnsToProperties(Class<?> type) {
         Map<String, String> results = new HashMap<>();
         for (Field field : type.getDeclaredFields()) {
             if (field.isAnnotationPresent(Column.class)){
@@ -105,12 +161,17 @@ public abstract class CQLEntity extends Entity {
     }
 
     public static <T extends Entity> List<T> read(Class<T>  type, QueryExecutor exe, Property...match) throws SQLException, Exception{
+        List<T> cached = readFromCache(type, exe, match);
+        if (cached != null) return cached;
         //We will add our cassandra specific search key.
         ExpressionInterpreter expression = getExpressionInterpreter(CQLEntity.validateProperties(type, exe, Arrays.asList(match)));
         //
         String name = Entity.tableName(type);
         SQLSelectQuery query = getSqlSelectQuery(exe, expression, name);
-        return exe.executeSelect(query, type, CQLEntity.mapColumnsToProperties(type));
+        applyOptions(type, query);
+        List<T> items = exe.executeSelect(query, type, CQLEntity.mapColumnsToProperties(type));
+        cacheRead(type, exe, items, match);
+        return items;
     }
 
     public static <T extends Entity> List<T> read(Class<T>  type, QueryExecutor exe, ExpressionInterpreter expression) throws SQLException, Exception{
@@ -119,6 +180,7 @@ public abstract class CQLEntity extends Entity {
 
         String name = Entity.tableName(type);
         SQLSelectQuery query = getSqlSelectQuery(exe, expression, name);
+        applyOptions(type, query);
         return exe.executeSelect(query, type, CQLEntity.mapColumnsToProperties(type));
     }
 
@@ -167,21 +229,19 @@ public abstract class CQLEntity extends Entity {
     protected static <T extends Entity> List<Property> validateProperties(Class<T> type, QueryExecutor exe, List<Property> match) {
         List<Property> results = new ArrayList<>();
         try {
-            //FIXME: Not efficient way of sorting.
-            Entity instance = type.newInstance();
-            if (instance instanceof CQLEntity){
-                List<Property> primaryProps = ((CQLEntity)instance).getPrimaryProperties(exe);
+            if (CQLEntity.class.isAssignableFrom(type)){
+                //Primary and clustering key columns, in key order, from the cached metadata.
+                List<EntityMetadata.FieldMetadata> primaryFields = EntityMetadata.of(type).getPrimaryFields();
                 int index = 0;
-                while (index < primaryProps.size() && index < match.size()){
-                    Property pProperty = primaryProps.get(index);
+                while (index < primaryFields.size() && index < match.size()){
+                    String pKey = primaryFields.get(index).getColumnName();
                     Property mProperty = match.get(index);
-                    if (mProperty.getKey().equalsIgnoreCase(pProperty.getKey())){
+                    if (mProperty.getKey().equalsIgnoreCase(pKey)){
                         results.add(mProperty);
                     }
                     index++;
                 }
             }
-            instance = null;
         }catch (Exception e){
             e.printStackTrace();
         }
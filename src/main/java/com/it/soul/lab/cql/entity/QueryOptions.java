@@ -0,0 +1,19 @@
+package com.it.soul.lab.cql.entity;
+
+import java.lang.annotation.*;
+
+/**
+ * Execution options for the entity's insert, update, delete and read queries.
+ * Consistency names are those of com.datastax.driver.core.ConsistencyLevel; empty values,
+ * idempotent = false and negative numbers keep the cluster's default.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface QueryOptions {
+    String consistency() default "";
+    String serialConsistency() default "";
+    boolean idempotent() default false;
+    int readTimeoutMillis() default -1;
+    int fetchSize() default -1;
+}
@@ -5,7 +5,19 @@ import com.it.soul.lab.sql.query.SQLInsertQuery;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
-public class CQLInsertQuery extends SQLInsertQuery {
+public class CQLInsertQuery extends SQLInsertQuery implements CQLQueryOptions.Holder {
+
+    private CQLQueryOptions options;
+
+    @Override
+    public CQLQueryOptions getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(CQLQueryOptions options) {
+        this.options = options;
+    }
 
     protected StringBuffer timeBuffer = new StringBuffer();
 
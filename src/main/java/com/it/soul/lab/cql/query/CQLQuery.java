@@ -9,13 +9,29 @@ public class CQLQuery extends SQLQuery {
 
     public static class Builder extends AbstractQueryBuilder {
 
+        private CQLQueryOptions options;
+
         public Builder(QueryType type){
             factory(type);
         }
 
+        /**
+         * Execution options for the query being built; call before the rest of the chain.
+         * @param options
+         * @return
+         */
+        public Builder options(CQLQueryOptions options){
+            this.options = options;
+            return this;
+        }
+
         @SuppressWarnings("unchecked")
         public <T extends SQLQuery> T build(){
-            return (T) super.build();
+            SQLQuery query = super.build();
+            if (options != null && query instanceof CQLQueryOptions.Holder){
+                ((CQLQueryOptions.Holder) query).setOptions(options);
+            }
+            return (T) query;
         }
 
         protected SQLQuery factory(QueryType type){
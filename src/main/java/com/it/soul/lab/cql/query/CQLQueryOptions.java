@@ -0,0 +1,126 @@
+package com.it.soul.lab.cql.query;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.Statement;
+
+/**
+ * Per query execution settings, applied to the driver statement when the query is executed.
+ * Anything left unset keeps the cluster's default (see Cluster.Builder.withQueryOptions).
+ */
+public final class CQLQueryOptions {
+
+    /**
+     * Queries that carry options: CQLSelectQuery, CQLInsertQuery, CQLUpdateQuery and CQLDeleteQuery.
+     */
+    public interface Holder {
+        CQLQueryOptions getOptions();
+        void setOptions(CQLQueryOptions options);
+    }
+
+    public static class Builder {
+        private ConsistencyLevel consistency;
+        private ConsistencyLevel serialConsistency;
+        private Boolean idempotent;
+        private Integer readTimeoutMillis;
+        private Integer fetchSize;
+
+        public Builder consistency(ConsistencyLevel consistency){
+            this.consistency = consistency;
+            return this;
+        }
+        /**
+         * Consistency of the Paxos phase of conditional (IF ...) writes: SERIAL or LOCAL_SERIAL.
+         * @param consistency
+         * @return
+         */
+        public Builder serialConsistency(ConsistencyLevel consistency){
+            if (consistency != null && !consistency.isSerial())
+                throw new IllegalArgumentException(consistency + " is not a serial consistency level.");
+            this.serialConsistency = consistency;
+            return this;
+        }
+        /**
+         * Idempotent statements may be retried and speculatively executed by the driver.
+         * @param idempotent
+         * @return
+         */
+        public Builder idempotent(boolean idempotent){
+            this.idempotent = idempotent;
+            return this;
+        }
+        /**
+         * @param millis 0 disables the timeout.
+         * @return
+         */
+        public Builder readTimeoutMillis(int millis){
+            if (millis < 0) throw new IllegalArgumentException("readTimeoutMillis must not be negative.");
+            this.readTimeoutMillis = millis;
+            return this;
+        }
+        public Builder fetchSize(int fetchSize){
+            if (fetchSize <= 0) throw new IllegalArgumentException("fetchSize must be greater than 0.");
+            this.fetchSize = fetchSize;
+            return this;
+        }
+        public CQLQueryOptions build(){
+            return new CQLQueryOptions(this);
+        }
+    }
+
+    private final ConsistencyLevel consistency;
+    private final ConsistencyLevel serialConsistency;
+    private final Boolean idempotent;
+    private final Integer readTimeoutMillis;
+    private final Integer fetchSize;
+
+    private CQLQueryOptions(Builder builder) {
+        this.consistency = builder.consistency;
+        this.serialConsistency = builder.serialConsistency;
+        this.idempotent = builder.idempotent;
+        this.readTimeoutMillis = builder.readTimeoutMillis;
+        this.fetchSize = builder.fetchSize;
+    }
+
+    public ConsistencyLevel getConsistency() {
+        return consistency;
+    }
+
+    public ConsistencyLevel getSerialConsistency() {
+        return serialConsistency;
+    }
+
+    public Boolean getIdempotent() {
+        return idempotent;
+    }
+
+    public Integer getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets every option that is set here on the statement.
+     * @param statement
+     * @return the same statement.
+     */
+    public <S extends Statement> S applyTo(S statement) {
+        if (consistency != null) statement.setConsistencyLevel(consistency);
+        if (serialConsistency != null) statement.setSerialConsistencyLevel(serialConsistency);
+        if (idempotent != null) statement.setIdempotent(idempotent);
+        if (readTimeoutMillis != null) statement.setReadTimeoutMillis(readTimeoutMillis);
+        if (fetchSize != null) statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    @Override
+    public String toString() {
+        return "CQLQueryOptions{consistency=" + consistency
+                + ", serialConsistency=" + serialConsistency
+                + ", idempotent=" + idempotent
+                + ", readTimeoutMillis=" + readTimeoutMillis
+                + ", fetchSize=" + fetchSize + "}";
+    }
+}
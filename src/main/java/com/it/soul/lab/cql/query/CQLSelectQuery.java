@@ -5,7 +5,19 @@ import com.it.soul.lab.sql.query.models.AndExpression;
 import com.it.soul.lab.sql.query.models.Expression;
 import com.it.soul.lab.sql.query.models.ExpressionInterpreter;
 
-public class CQLSelectQuery extends SQLSelectQuery {
+public class CQLSelectQuery extends SQLSelectQuery implements CQLQueryOptions.Holder {
+
+    private CQLQueryOptions options;
+
+    @Override
+    public CQLQueryOptions getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(CQLQueryOptions options) {
+        this.options = options;
+    }
 
     @Override
     protected void prepareWhereExpression(ExpressionInterpreter whereExpression) {
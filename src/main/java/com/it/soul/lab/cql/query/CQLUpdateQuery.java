@@ -3,7 +3,19 @@ package com.it.soul.lab.cql.query;
 import com.it.soul.lab.sql.query.SQLUpdateQuery;
 import com.it.soul.lab.sql.query.models.ExpressionInterpreter;
 
-public class CQLUpdateQuery extends SQLUpdateQuery {
+public class CQLUpdateQuery extends SQLUpdateQuery implements CQLQueryOptions.Holder {
+
+    private CQLQueryOptions options;
+
+    @Override
+    public CQLQueryOptions getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(CQLQueryOptions options) {
+        this.options = options;
+    }
     @Override
     protected void prepareWhereExpression(ExpressionInterpreter whereExpression) {
         //FIXME:
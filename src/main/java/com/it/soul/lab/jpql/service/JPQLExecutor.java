@@ -70,15 +70,18 @@ public class JPQLExecutor extends AbstractExecutor implements QueryExecutor<JPQL
         return null;
     }
 
-    private Integer executeUpdate(Query typedQuery) throws SQLException {
+    private Integer executeUpdate(String query, Query typedQuery) throws SQLException {
         if (typedQuery == null) return 0;
         int result = 0;
+        long start = System.nanoTime();
         boolean isNotAlreadyActive = !isTransactionActive();
         try{
             if(isNotAlreadyActive) begin();
             result = typedQuery.executeUpdate();
             if (isNotAlreadyActive) end();
+            getMetrics().recordWrite(query, System.nanoTime() - start, result);
         }catch (Exception e){
+            getMetrics().recordError(query, e);
             if (isNotAlreadyActive) abort();
         }
         return result;
@@ -99,7 +102,7 @@ public class JPQLExecutor extends AbstractExecutor implements QueryExecutor<JPQL
                 typedQuery.setParameter(expression.getProperty(), expression.getValueProperty().getValue());
             }
         }
-        return executeUpdate(typedQuery);
+        return executeUpdate(updateQuery.toString(), typedQuery);
     }
 
     @Override
@@ -125,7 +128,7 @@ public class JPQLExecutor extends AbstractExecutor implements QueryExecutor<JPQL
                 }
             }
         }
-        return executeUpdate(query);
+        return executeUpdate(insertQuery.toString(), query);
     }
 
     @Override
@@ -142,7 +145,7 @@ public class JPQLExecutor extends AbstractExecutor implements QueryExecutor<JPQL
                 typedQuery.setParameter(expression.getProperty(), expression.getValueProperty().getValue());
             }
         }
-        return executeUpdate(typedQuery);
+        return executeUpdate(deleteQuery.toString(), typedQuery);
     }
 
     @Override
@@ -156,13 +159,16 @@ public class JPQLExecutor extends AbstractExecutor implements QueryExecutor<JPQL
         //Checking entityManager
         if(getEntityManager() == null || !getEntityManager().isOpen()){return result;}
         if (scalarQuery instanceof SQLScalarQuery){
+            String pql = scalarQuery.toString();
+            long start = System.nanoTime();
             try {
-                String pql = scalarQuery.toString();
                 Query query = getEntityManager().createNativeQuery(pql);
                 Object val = query.getSingleResult();
                 if (val instanceof BigInteger) result = ((BigInteger)val).intValue();
                 else if (val instanceof Long) result = ((Long)val).intValue();
+                getMetrics().recordRead(pql, System.nanoTime() - start, 1);
             } catch (Exception e) {
+                getMetrics().recordError(pql, e);
                 throw new SQLException(e.getMessage());
             }
         }
@@ -172,21 +178,38 @@ public class JPQLExecutor extends AbstractExecutor implements QueryExecutor<JPQL
     @Override
     public <T> List<T> executeSelect(String query, Class<T> type, Map<String, String> mappingKeys) throws SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException {
         //TypedQuery<T> typedQuery = getEntityManager().createQuery(query, type);
-        Query typedQuery = getEntityManager().createNativeQuery(query, type);
-        return typedQuery.getResultList();
+        long start = System.nanoTime();
+        try {
+            Query typedQuery = getEntityManager().createNativeQuery(query, type);
+            List<T> results = typedQuery.getResultList();
+            getMetrics().recordRead(query, System.nanoTime() - start, results.size());
+            return results;
+        } catch (RuntimeException e) {
+            getMetrics().recordError(query, e);
+            throw e;
+        }
     }
 
     @Override
     public <T> List<T> executeSelect(JPQLSelectQuery query, Class<T> type, Map<String, String> mappingKeys) throws SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException {
-        TypedQuery<T> typedQuery = getEntityManager().createQuery(query.toString(), type);
-        List<Expression> expressions = query.getWhereParamExpressions();
-        if (expressions != null) {
-            for (Expression expression : expressions) {
-                if (expression.getValueProperty().getValue() != null)
-                    typedQuery.setParameter(expression.getProperty(), expression.getValueProperty().getValue());
+        String jpql = query.toString();
+        long start = System.nanoTime();
+        try {
+            TypedQuery<T> typedQuery = getEntityManager().createQuery(jpql, type);
+            List<Expression> expressions = query.getWhereParamExpressions();
+            if (expressions != null) {
+                for (Expression expression : expressions) {
+                    if (expression.getValueProperty().getValue() != null)
+                        typedQuery.setParameter(expression.getProperty(), expression.getValueProperty().getValue());
+                }
             }
+            List<T> results = typedQuery.getResultList();
+            getMetrics().recordRead(jpql, System.nanoTime() - start, results.size());
+            return results;
+        } catch (RuntimeException e) {
+            getMetrics().recordError(jpql, e);
+            throw e;
         }
-        return typedQuery.getResultList();
     }
 
     protected boolean isTransactionActive(){
@@ -1,6 +1,8 @@
 package com.it.soul.lab.sql;
 
 import com.it.soul.lab.sql.entity.Entity;
+import com.it.soul.lab.sql.query.QueryTemplate;
+import com.it.soul.lab.sql.query.SQLQuery;
 import com.it.soul.lab.sql.query.models.DataType;
 import com.it.soul.lab.sql.query.models.Table;
 
@@ -14,6 +16,89 @@ import java.util.Set;
 
 public abstract class AbstractExecutor {
 
+    private volatile QueryMetrics metrics = QueryMetrics.NO_OP;
+
+    public QueryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Instrumentation for every query this executor runs; null restores QueryMetrics.NO_OP.
+     * @param metrics e.g. new MetricRegistryQueryMetrics(registry)
+     */
+    public void setMetrics(QueryMetrics metrics) {
+        this.metrics = (metrics == null) ? QueryMetrics.NO_OP : metrics;
+    }
+
+    private volatile QueryResultCache resultCache;
+
+    public QueryResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Read-through cache for executeSelect(query, type, mapping); writes through this executor invalidate
+     * the written table. null (default) disables caching.
+     * @param resultCache
+     */
+    public void setResultCache(QueryResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * @return null when there is no result cache or the query can not be cached.
+     */
+    protected QueryResultCache.Key resultCacheKey(SQLQuery query, Class<?> type, Map<String, String> mapping) {
+        QueryResultCache cache = resultCache;
+        return (cache != null) ? cache.keyOf(query, type, mapping) : null;
+    }
+
+    protected QueryResultCache.Key resultCacheKey(QueryTemplate.Bound bound, Class<?> type, Map<String, String> mapping) {
+        QueryResultCache cache = resultCache;
+        return (cache != null) ? cache.keyOf(bound, type, mapping) : null;
+    }
+
+    protected <T> List<T> getCachedResult(QueryResultCache.Key key, String query) {
+        QueryResultCache cache = resultCache;
+        if (cache == null || key == null) return null;
+        List<T> cached = cache.get(key);
+        getMetrics().recordCacheLookup(query, cached != null);
+        return cached;
+    }
+
+    protected void cacheResult(QueryResultCache.Key key, List<?> items) {
+        QueryResultCache cache = resultCache;
+        if (cache != null && key != null && items != null) cache.put(key, items);
+    }
+
+    /**
+     * @param table null when the written table is not known, which drops every entry.
+     */
+    protected void invalidateResultCache(String table) {
+        QueryResultCache cache = resultCache;
+        if (cache == null) return;
+        if (table == null) cache.invalidateAll();
+        else cache.invalidate(table);
+    }
+
+    /**
+     * Reads inside an open transaction may see uncommitted rows and writes may still roll back,
+     * so shared caches neither keep them nor are written through while this is true.
+     * @return false unless the executor has begun a transaction that has not ended yet.
+     */
+    public boolean isTransactionOpen() {
+        return false;
+    }
+
+    /**
+     * Identity of the database this executor reads and writes, e.g. its JDBC URL; EntityCache keeps the
+     * entries of different databases apart by it. Defaults to this executor instance.
+     * @return
+     */
+    public String getDatabaseId() {
+        return getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+    }
+
     public String toString(Object o){
         StringBuffer buffer = new StringBuffer();
         if(o instanceof List){
@@ -0,0 +1,37 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.query.SQLQuery;
+import com.it.soul.lab.sql.query.models.Row;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of QueryExecutor: every call returns at once and the future
+ * completes (or completes exceptionally with the SQLException) when the query has run.
+ */
+public interface AsyncQueryExecutor<S extends SQLQuery
+        , I extends SQLQuery
+        , U extends SQLQuery
+        , D extends SQLQuery
+        , C extends SQLQuery> extends AutoCloseable {
+
+    <T> CompletableFuture<List<T>> executeSelect(S query, Class<T> type, Map<String, String> mappingKeys);
+
+    CompletableFuture<Integer> executeInsert(boolean autoId, I insertQuery);
+    CompletableFuture<Integer[]> executeInsert(boolean autoId, int size, I insertQuery, List<Row> rows);
+
+    CompletableFuture<Integer> executeUpdate(U query);
+    CompletableFuture<Integer[]> executeUpdate(int size, U query, List<Row> rows);
+
+    CompletableFuture<Integer> executeDelete(D deleteQuery);
+
+    CompletableFuture<Integer> getScalarValue(C scalarQuery);
+
+    /**
+     * Stops accepting calls; those already submitted still complete.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,251 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.entity.Entity;
+import com.it.soul.lab.sql.query.SQLDeleteQuery;
+import com.it.soul.lab.sql.query.SQLInsertQuery;
+import com.it.soul.lab.sql.query.SQLScalarQuery;
+import com.it.soul.lab.sql.query.SQLSelectQuery;
+import com.it.soul.lab.sql.query.SQLUpdateQuery;
+import com.it.soul.lab.sql.query.models.Row;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs every call as a task that borrows its own Connection from the DataSource (e.g. ConnectionPool),
+ * executes through a SQLExecutor and returns the connection when done, so independent queries run in parallel.
+ * Tasks run on a bounded platform-thread pool (default) or on virtual threads where the runtime has them;
+ * when the queue is full the returned future fails with RejectedExecutionException.
+ */
+public class AsyncSQLExecutor implements AsyncQueryExecutor<SQLSelectQuery, SQLInsertQuery, SQLUpdateQuery, SQLDeleteQuery, SQLScalarQuery> {
+
+    public static class Builder {
+        private DataSource dataSource;
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 1000;
+        private boolean virtualThreads;
+        private ExecutorService executor;
+        private QueryMetrics metrics;
+        private QueryResultCache resultCache;
+
+        public Builder(DataSource dataSource){
+            this.dataSource = dataSource;
+        }
+        public Builder threads(int threads){
+            this.threads = threads;
+            return this;
+        }
+        public Builder queueCapacity(int capacity){
+            this.queueCapacity = capacity;
+            return this;
+        }
+        /**
+         * One virtual thread per task (Java 21+); falls back to the bounded pool on older runtimes.
+         * Concurrency is then bounded by the DataSource, e.g. ConnectionPool maxSize.
+         * @param virtualThreads
+         * @return
+         */
+        public Builder virtualThreads(boolean virtualThreads){
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+        /**
+         * Caller owned executor; it is not shut down by close().
+         * @param executor
+         * @return
+         */
+        public Builder executor(ExecutorService executor){
+            this.executor = executor;
+            return this;
+        }
+        public Builder metrics(QueryMetrics metrics){
+            this.metrics = metrics;
+            return this;
+        }
+        /**
+         * Shared by every task, so a write in one task invalidates what the others cached.
+         * @param resultCache
+         * @return
+         */
+        public Builder resultCache(QueryResultCache resultCache){
+            this.resultCache = resultCache;
+            return this;
+        }
+        public AsyncSQLExecutor build(){
+            if (dataSource == null) throw new IllegalArgumentException("DataSource must not be null!");
+            if (executor != null) return new AsyncSQLExecutor(this, executor, false);
+            ExecutorService service = virtualThreads ? newVirtualThreadExecutor() : null;
+            if (service == null) service = newBoundedExecutor(threads, queueCapacity);
+            return new AsyncSQLExecutor(this, service, true);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Task<R> {
+        R execute(SQLExecutor executor) throws Exception;
+    }
+
+    private static Logger LOG = Logger.getLogger(AsyncSQLExecutor.class.getSimpleName());
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    private final DataSource dataSource;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final QueryMetrics metrics;
+    private final QueryResultCache resultCache;
+
+    private AsyncSQLExecutor(Builder builder, ExecutorService executor, boolean ownsExecutor) {
+        this.dataSource = builder.dataSource;
+        this.metrics = builder.metrics;
+        this.resultCache = builder.resultCache;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public static boolean isVirtualThreadSupported(){
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor(){
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            LOG.info("Virtual threads are not available on this runtime, using a bounded thread pool.");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+        return null;
+    }
+
+    private static ExecutorService newBoundedExecutor(int threads, int queueCapacity){
+        threads = Math.max(1, threads);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads
+                , 60, TimeUnit.SECONDS
+                , new ArrayBlockingQueue<>(Math.max(1, queueCapacity))
+                , runnable -> {
+                    Thread thread = new Thread(runnable, "AsyncSQLExecutor-" + THREAD_SEQUENCE.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Runs the task with a SQLExecutor over a freshly borrowed connection, e.g. several queries
+     * or a begin()/end() transaction that must share one connection.
+     * @param task
+     * @return
+     */
+    public <R> CompletableFuture<R> submit(Task<R> task){
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) return; //cancelled while queued.
+                R result;
+                try (Connection conn = dataSource.getConnection();
+                     TaskExecutor exe = new TaskExecutor(conn, metrics, resultCache)) {
+                    result = task.execute(exe);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                //Completed after the connection is back, so dependants can borrow it.
+                future.complete(result);
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> executeSelect(SQLSelectQuery query, Class<T> type, Map<String, String> mappingKeys) {
+        return submit(exe -> exe.executeSelect(query, type, mappingKeys));
+    }
+
+    public <T extends Entity> CompletableFuture<List<T>> executeSelect(SQLSelectQuery query, Class<T> type) {
+        return executeSelect(query, type, Entity.mapColumnsToProperties(type));
+    }
+
+    @Override
+    public CompletableFuture<Integer> executeInsert(boolean autoId, SQLInsertQuery insertQuery) {
+        return submit(exe -> exe.executeInsert(autoId, insertQuery));
+    }
+
+    @Override
+    public CompletableFuture<Integer[]> executeInsert(boolean autoId, int size, SQLInsertQuery insertQuery, List<Row> rows) {
+        return submit(exe -> exe.executeInsert(autoId, size, insertQuery, rows));
+    }
+
+    @Override
+    public CompletableFuture<Integer> executeUpdate(SQLUpdateQuery query) {
+        return submit(exe -> exe.executeUpdate(query));
+    }
+
+    @Override
+    public CompletableFuture<Integer[]> executeUpdate(int size, SQLUpdateQuery query, List<Row> rows) {
+        return submit(exe -> exe.executeUpdate(size, query, rows));
+    }
+
+    @Override
+    public CompletableFuture<Integer> executeDelete(SQLDeleteQuery deleteQuery) {
+        return submit(exe -> exe.executeDelete(deleteQuery));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getScalarValue(SQLScalarQuery scalarQuery) {
+        return submit(exe -> exe.getScalarValue(scalarQuery));
+    }
+
+    /**
+     * Stops accepting tasks; queued and running tasks still complete. The DataSource is left open.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) executor.shutdown();
+    }
+
+    /**
+     * The borrowed connection belongs to the task, which closes (returns) it;
+     * so this executor must not close it again on close() or finalize.
+     */
+    static class TaskExecutor extends SQLExecutor {
+        TaskExecutor(Connection conn, QueryMetrics metrics, QueryResultCache resultCache) {
+            super(conn);
+            setMetrics(metrics);
+            setResultCache(resultCache);
+        }
+
+        /**
+         * Closes the statements left open by the task before its connection goes back to the pool.
+         */
+        @Override
+        public void close() {
+            closeStatements();
+        }
+
+        @Override
+        protected void finalize() throws Throwable {}
+    }
+
+}
@@ -0,0 +1,309 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.query.SQLInsertQuery;
+import com.it.soul.lab.sql.query.models.Row;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Push based bulk insert: producers offer rows into a bounded queue and one writer thread inserts them
+ * (SQLExecutor.executeBulkInsert) once batchSize rows are queued or flushInterval has passed since the
+ * first row of the batch, on a connection borrowed from the DataSource per batch.
+ * A full queue is the backpressure: offer() returns false, put() blocks.
+ * flush() returns once every row offered before it is committed; close() flushes and stops the writer.
+ * A batch that fails is dropped (its rows are counted in getFailedRows()) and its error is thrown by the
+ * next flush() or close().
+ */
+public class BulkWriter implements AutoCloseable {
+
+    public static class Builder {
+        private final DataSource dataSource;
+        private final SQLInsertQuery query;
+        private int queueCapacity = 10_000;
+        private int batchSize = 1000;
+        private long flushIntervalNanos = TimeUnit.SECONDS.toNanos(1);
+        private QueryMetrics metrics;
+        private QueryResultCache resultCache;
+
+        public Builder(DataSource dataSource, SQLInsertQuery query){
+            this.dataSource = dataSource;
+            this.query = query;
+        }
+        public Builder queueCapacity(int capacity){
+            this.queueCapacity = capacity;
+            return this;
+        }
+        public Builder batchSize(int batchSize){
+            this.batchSize = batchSize;
+            return this;
+        }
+        /**
+         * Longest time a queued row waits for its batch to fill up.
+         * @param interval
+         * @param unit
+         * @return
+         */
+        public Builder flushInterval(long interval, TimeUnit unit){
+            this.flushIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+        public Builder metrics(QueryMetrics metrics){
+            this.metrics = metrics;
+            return this;
+        }
+        public Builder resultCache(QueryResultCache resultCache){
+            this.resultCache = resultCache;
+            return this;
+        }
+        public BulkWriter build(){
+            if (dataSource == null) throw new IllegalArgumentException("DataSource must not be null!");
+            if (query == null) throw new IllegalArgumentException("SQLInsertQuery must not be null!");
+            if (queueCapacity <= 0 || batchSize <= 0 || flushIntervalNanos <= 0)
+                throw new IllegalArgumentException("QueueCapacity, batchSize and flushInterval must be greater than 0.");
+            return new BulkWriter(this);
+        }
+    }
+
+    private static Logger LOG = Logger.getLogger(BulkWriter.class.getSimpleName());
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+    //Queued by flush() and close(); never written.
+    private static final Row FLUSH = new Row();
+    //Queued by close() after its flush: the writer drains what is left and exits.
+    private static final Row STOP = new Row();
+
+    private final DataSource dataSource;
+    private final SQLInsertQuery query;
+    private final String queryStr;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final QueryMetrics metrics;
+    private final QueryResultCache resultCache;
+    private final BlockingQueue<Row> queue;
+    private final Thread writer;
+    private volatile boolean closed;
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicReference<SQLException> error = new AtomicReference<>();
+    private final Object progress = new Object();
+    private long processed;
+    private long written;
+    private long failed;
+    private long flushes;
+    private long lastFlushNanos;
+    private long totalFlushNanos;
+
+    private BulkWriter(Builder builder) {
+        this.dataSource = builder.dataSource;
+        this.query = builder.query;
+        this.queryStr = builder.query.toString();
+        this.batchSize = builder.batchSize;
+        this.flushIntervalNanos = builder.flushIntervalNanos;
+        this.metrics = (builder.metrics != null) ? builder.metrics : QueryMetrics.NO_OP;
+        this.resultCache = builder.resultCache;
+        this.queue = new LinkedBlockingQueue<>(builder.queueCapacity);
+        this.writer = new Thread(this::run, "BulkWriter-" + THREAD_SEQUENCE.incrementAndGet());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * @param row
+     * @return false when the queue is full.
+     * @throws IllegalStateException after close().
+     */
+    public boolean offer(Row row) {
+        checkOpen(row);
+        if (!queue.offer(row)) return false;
+        offered.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return false when the queue stayed full for timeout.
+     */
+    public boolean offer(Row row, long timeout, TimeUnit unit) throws InterruptedException {
+        checkOpen(row);
+        if (!queue.offer(row, timeout, unit)) return false;
+        offered.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Waits while the queue is full.
+     */
+    public void put(Row row) throws InterruptedException {
+        checkOpen(row);
+        queue.put(row);
+        offered.incrementAndGet();
+    }
+
+    private void checkOpen(Row row) {
+        if (row == null) throw new IllegalArgumentException("Row must not be null!");
+        if (closed) throw new IllegalStateException("BulkWriter is closed.");
+    }
+
+    /**
+     * Writes the pending batch now and waits until every row offered before this call is processed.
+     * @throws SQLException the first batch error since the last flush(); those rows are not written.
+     */
+    public void flush() throws SQLException, InterruptedException {
+        long target = offered.get();
+        queue.put(FLUSH);
+        synchronized (progress) {
+            while (processed < target && writer.isAlive()) {
+                progress.wait(100);
+            }
+        }
+        SQLException failure = error.getAndSet(null);
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Stops accepting rows, writes everything queued and stops the writer thread.
+     * @throws SQLException the first batch error since the last flush().
+     */
+    @Override
+    public void close() throws SQLException, InterruptedException {
+        if (closed) return;
+        closed = true;
+        try {
+            flush();
+        } finally {
+            //A marker, not an interrupt: interrupting a write in progress may abort it (H2 closes its file).
+            queue.put(STOP);
+            writer.join();
+        }
+    }
+
+    private void run() {
+        List<Row> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        boolean stopping = false;
+        while (true) {
+            Row row;
+            if (stopping) {
+                //Rows queued since close() flushed are still written:
+                row = queue.poll();
+                if (row == null && batch.isEmpty()) return;
+            } else {
+                try {
+                    if (batch.isEmpty()) {
+                        row = queue.take();
+                    } else {
+                        long wait = deadline - System.nanoTime();
+                        row = (wait > 0) ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    }
+                } catch (InterruptedException e) {
+                    stopping = true;
+                    continue;
+                }
+            }
+            if (row == STOP) stopping = true;
+            boolean flushNow = (row == null) || (row == FLUSH) || (row == STOP);
+            if (!flushNow) {
+                if (batch.isEmpty()) deadline = System.nanoTime() + flushIntervalNanos;
+                batch.add(row);
+                //Take whatever else is queued up to the batch size, stopping at a marker:
+                while (batch.size() < batchSize) {
+                    Row next = queue.peek();
+                    if (next == null) break;
+                    if (next == FLUSH || next == STOP) {
+                        queue.poll();
+                        stopping |= (next == STOP);
+                        flushNow = true;
+                        break;
+                    }
+                    batch.add(queue.poll());
+                }
+                flushNow |= batch.size() >= batchSize;
+            }
+            if (flushNow) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Row> batch) {
+        if (batch.isEmpty()) {
+            //A marker with nothing pending still wakes flush():
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try (Connection conn = dataSource.getConnection();
+             AsyncSQLExecutor.TaskExecutor exe = new AsyncSQLExecutor.TaskExecutor(conn, metrics, resultCache)) {
+            exe.executeBulkInsert(false, batchSize, query, batch);
+            success = true;
+        } catch (SQLException | RuntimeException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+            error.compareAndSet(null, (e instanceof SQLException) ? (SQLException) e : new SQLException(e.getMessage(), e));
+        }
+        long elapsed = System.nanoTime() - start;
+        metrics.recordFlush(queryStr, elapsed, success ? batch.size() : 0, queue.size());
+        synchronized (progress) {
+            processed += batch.size();
+            if (success) written += batch.size();
+            else failed += batch.size();
+            flushes++;
+            lastFlushNanos = elapsed;
+            totalFlushNanos += elapsed;
+            progress.notifyAll();
+        }
+    }
+
+    /**
+     * @return rows offered and not yet taken by the writer thread (plus pending flush markers).
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getWrittenRows() {
+        synchronized (progress) {
+            return written;
+        }
+    }
+
+    public long getFailedRows() {
+        synchronized (progress) {
+            return failed;
+        }
+    }
+
+    public long getFlushCount() {
+        synchronized (progress) {
+            return flushes;
+        }
+    }
+
+    public long getLastFlushNanos() {
+        synchronized (progress) {
+            return lastFlushNanos;
+        }
+    }
+
+    /**
+     * @return mean flush latency; 0 before the first flush.
+     */
+    public long getAverageFlushNanos() {
+        synchronized (progress) {
+            return (flushes == 0) ? 0 : totalFlushNanos / flushes;
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.query.models.Property;
+import com.it.soul.lab.sql.query.models.Row;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * UTF-8 CSV of rows, encoded one line at a time as the stream is read, for the native bulk loaders.
+ * Fields are separated by , and lines end with \n; strings (and any value that is not a number,
+ * boolean or date) are always quoted with " doubled inside, so an unquoted nullToken is the only NULL.
+ * Booleans are written as 1/0. Binary values (byte[], Blob) are refused.
+ */
+class CsvRowStream extends InputStream {
+
+    private final String[] columns;
+    private final Iterator<Row> rows;
+    private final String nullToken;
+    private final StringBuilder line = new StringBuilder(256);
+    private byte[] buffer = new byte[0];
+    private int position;
+    private long count;
+
+    /**
+     * @param columns values are written in this order; a column missing from a row is NULL.
+     * @param rows
+     * @param nullToken written for NULL, e.g. "" (PostgreSQL) or NULL (MySQL).
+     * @param header whether the first line holds the column names.
+     */
+    CsvRowStream(String[] columns, Iterator<Row> rows, String nullToken, boolean header) {
+        this.columns = columns;
+        this.rows = rows;
+        this.nullToken = nullToken;
+        if (header) {
+            for (int index = 0; index < columns.length; index++) {
+                if (index > 0) line.append(',');
+                quote(columns[index]);
+            }
+            line.append('\n');
+            buffer = line.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @return rows encoded so far.
+     */
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() {
+        if (!fill()) return -1;
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) return 0;
+        int read = 0;
+        while (read < length && fill()) {
+            int chunk = Math.min(length - read, buffer.length - position);
+            System.arraycopy(buffer, position, bytes, offset + read, chunk);
+            position += chunk;
+            read += chunk;
+        }
+        return (read == 0) ? -1 : read;
+    }
+
+    private boolean fill() {
+        while (position >= buffer.length) {
+            if (!rows.hasNext()) return false;
+            encode(rows.next());
+            buffer = line.toString().getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            count++;
+        }
+        return true;
+    }
+
+    private void encode(Row row) {
+        line.setLength(0);
+        List<Property> properties = row.getProperties();
+        for (int index = 0; index < columns.length; index++) {
+            if (index > 0) line.append(',');
+            Property property = (index < properties.size()) ? properties.get(index) : null;
+            if (property == null || !columns[index].equals(property.getKey())) property = find(properties, columns[index]);
+            append((property != null) ? property.getValue() : null);
+        }
+        line.append('\n');
+    }
+
+    private static Property find(List<Property> properties, String key) {
+        for (int index = 0; index < properties.size(); index++) {
+            if (key.equals(properties.get(index).getKey())) return properties.get(index);
+        }
+        return null;
+    }
+
+    private void append(Object value) {
+        if (value == null) {
+            line.append(nullToken);
+        } else if (value instanceof Number) {
+            line.append(value);
+        } else if (value instanceof Boolean) {
+            line.append(((Boolean) value) ? '1' : '0');
+        } else if (value instanceof java.util.Date) {
+            //java.sql.Date/Time/Timestamp print in JDBC escape format; a plain Date as a timestamp.
+            Object date = (value.getClass() == java.util.Date.class) ? new Timestamp(((java.util.Date) value).getTime()) : value;
+            line.append(date);
+        } else if (value instanceof byte[] || value instanceof Blob) {
+            throw new IllegalArgumentException("Binary values can't be bulk loaded as CSV; use executeBulkInsert().");
+        } else {
+            quote(value.toString());
+        }
+    }
+
+    private void quote(String value) {
+        line.append('"');
+        for (int index = 0; index < value.length(); index++) {
+            char ch = value.charAt(index);
+            if (ch == '"') line.append('"');
+            line.append(ch);
+        }
+        line.append('"');
+    }
+
+}
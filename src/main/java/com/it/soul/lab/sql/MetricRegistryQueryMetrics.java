@@ -0,0 +1,128 @@
+package com.it.soul.lab.sql;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QueryMetrics backed by a metrics-core MetricRegistry. Metric names, with prefix p and query shape s:
+ * p.latency.s (Timer, per shape), p.rows-read.s / p.rows-written.s / p.batch-size.s (Histogram, per shape),
+ * p.prepare.cached / p.prepare.driver (Counter) and p.prepare.driver.s (Counter, per shape),
+ * p.result-cache.hit / p.result-cache.miss (Counter) and p.result-cache.hit-ratio (Gauge),
+ * p.connection.borrow-wait (Timer), p.bulk.flush-latency.s (Timer, per shape) and p.bulk.queue-depth.s
+ * (Histogram, per shape), p.errors (Meter) and p.errors.s (Meter, per shape).
+ */
+public class MetricRegistryQueryMetrics implements QueryMetrics {
+
+    private final MetricRegistry registry;
+    private final String prefix;
+    private final Counter cachedPrepares;
+    private final Counter driverPrepares;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Timer borrowWait;
+    private final Meter errors;
+
+    public MetricRegistryQueryMetrics(MetricRegistry registry) {
+        this(registry, "jsql");
+    }
+
+    public MetricRegistryQueryMetrics(MetricRegistry registry, String prefix) {
+        if (registry == null) throw new IllegalArgumentException("MetricRegistry must not be null!");
+        this.registry = registry;
+        this.prefix = (prefix == null) ? "" : prefix;
+        this.cachedPrepares = registry.counter(MetricRegistry.name(this.prefix, "prepare", "cached"));
+        this.driverPrepares = registry.counter(MetricRegistry.name(this.prefix, "prepare", "driver"));
+        this.cacheHits = registry.counter(MetricRegistry.name(this.prefix, "result-cache", "hit"));
+        this.cacheMisses = registry.counter(MetricRegistry.name(this.prefix, "result-cache", "miss"));
+        String hitRatio = MetricRegistry.name(this.prefix, "result-cache", "hit-ratio");
+        if (!registry.getGauges().containsKey(hitRatio)) {
+            registry.register(hitRatio, new RatioGauge() {
+                @Override
+                protected Ratio getRatio() {
+                    return Ratio.of(cacheHits.getCount(), cacheHits.getCount() + cacheMisses.getCount());
+                }
+            });
+        }
+        this.borrowWait = registry.timer(MetricRegistry.name(this.prefix, "connection", "borrow-wait"));
+        this.errors = registry.meter(MetricRegistry.name(this.prefix, "errors"));
+    }
+
+    public MetricRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public void recordRead(String query, long elapsedNanos, int rows) {
+        String shape = QueryMetrics.shapeOf(query);
+        latency(shape).update(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) histogram("rows-read", shape).update(rows);
+    }
+
+    @Override
+    public void recordWrite(String query, long elapsedNanos, int rows) {
+        String shape = QueryMetrics.shapeOf(query);
+        latency(shape).update(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) histogram("rows-written", shape).update(rows);
+    }
+
+    @Override
+    public void recordBatch(String query, long elapsedNanos, int batchSize, int rows) {
+        String shape = QueryMetrics.shapeOf(query);
+        latency(shape).update(elapsedNanos, TimeUnit.NANOSECONDS);
+        histogram("batch-size", shape).update(batchSize);
+        if (rows >= 0) histogram("rows-written", shape).update(rows);
+    }
+
+    @Override
+    public void recordPrepare(String query, boolean cached) {
+        if (cached) {
+            cachedPrepares.inc();
+        } else {
+            driverPrepares.inc();
+            registry.counter(MetricRegistry.name(prefix, "prepare", "driver", QueryMetrics.shapeOf(query))).inc();
+        }
+    }
+
+    @Override
+    public void recordCacheLookup(String query, boolean hit) {
+        if (hit) cacheHits.inc();
+        else cacheMisses.inc();
+    }
+
+    @Override
+    public void recordBorrowWait(long elapsedNanos) {
+        borrowWait.update(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordFlush(String query, long elapsedNanos, int rows, int queueDepth) {
+        String shape = QueryMetrics.shapeOf(query);
+        timer("bulk.flush-latency", shape).update(elapsedNanos, TimeUnit.NANOSECONDS);
+        histogram("bulk.queue-depth", shape).update(queueDepth);
+    }
+
+    @Override
+    public void recordError(String query, Throwable error) {
+        errors.mark();
+        registry.meter(MetricRegistry.name(prefix, "errors", QueryMetrics.shapeOf(query))).mark();
+    }
+
+    private Timer latency(String shape) {
+        return timer("latency", shape);
+    }
+
+    private Timer timer(String kind, String shape) {
+        return registry.timer(MetricRegistry.name(prefix, kind, shape));
+    }
+
+    private Histogram histogram(String kind, String shape) {
+        return registry.histogram(MetricRegistry.name(prefix, kind, shape));
+    }
+
+}
@@ -0,0 +1,386 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.query.SQLDeleteQuery;
+import com.it.soul.lab.sql.query.SQLInsertQuery;
+import com.it.soul.lab.sql.query.SQLUpdateQuery;
+import com.it.soul.lab.sql.query.models.Row;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Splits a batch write into shards of shardSize rows and writes them on parallelism threads, each with its
+ * own connection borrowed from the DataSource (e.g. ConnectionPool) for the whole call. Results are
+ * concatenated in input order. Rows of a Stream are read on the calling thread, at most 2 * parallelism
+ * shards ahead of the writers.
+ * PER_SHARD commits every shard on its own; when one fails, shards already written stay committed.
+ * ALL_OR_NOTHING keeps every connection in one transaction until all shards are written, then commits them
+ * all, or rolls them all back if any shard failed. Those commits are not atomic across connections
+ * (no two-phase commit): a failure while committing can still leave some of the shards written.
+ */
+public class ParallelBatchWriter {
+
+    public enum Commit {
+        PER_SHARD,
+        ALL_OR_NOTHING
+    }
+
+    /**
+     * Writes one shard through the worker's executor, e.g. with one of its batch methods.
+     */
+    @FunctionalInterface
+    public interface ShardWriter {
+        Integer[] write(SQLExecutor executor, List<Row> shard) throws SQLException;
+    }
+
+    public static class Builder {
+        private DataSource dataSource;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int shardSize = 10_000;
+        private int batchSize = 1000;
+        private Commit commit = Commit.PER_SHARD;
+        private QueryMetrics metrics;
+        private QueryResultCache resultCache;
+
+        public Builder(DataSource dataSource){
+            this.dataSource = dataSource;
+        }
+        /**
+         * Threads, and connections held at the same time.
+         * @param parallelism
+         * @return
+         */
+        public Builder parallelism(int parallelism){
+            this.parallelism = parallelism;
+            return this;
+        }
+        public Builder shardSize(int shardSize){
+            this.shardSize = shardSize;
+            return this;
+        }
+        /**
+         * Rows per JDBC executeBatch() within a shard.
+         * @param batchSize
+         * @return
+         */
+        public Builder batchSize(int batchSize){
+            this.batchSize = batchSize;
+            return this;
+        }
+        public Builder commit(Commit commit){
+            this.commit = commit;
+            return this;
+        }
+        public Builder metrics(QueryMetrics metrics){
+            this.metrics = metrics;
+            return this;
+        }
+        public Builder resultCache(QueryResultCache resultCache){
+            this.resultCache = resultCache;
+            return this;
+        }
+        public ParallelBatchWriter build(){
+            if (dataSource == null) throw new IllegalArgumentException("DataSource must not be null!");
+            if (parallelism <= 0 || shardSize <= 0 || batchSize <= 0)
+                throw new IllegalArgumentException("Parallelism, shardSize and batchSize must be greater than 0.");
+            if (commit == null) throw new IllegalArgumentException("Commit must not be null!");
+            return new ParallelBatchWriter(this);
+        }
+    }
+
+    private static Logger LOG = Logger.getLogger(ParallelBatchWriter.class.getSimpleName());
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    private final DataSource dataSource;
+    private final int parallelism;
+    private final int shardSize;
+    private final int batchSize;
+    private final Commit commit;
+    private final QueryMetrics metrics;
+    private final QueryResultCache resultCache;
+
+    private ParallelBatchWriter(Builder builder) {
+        this.dataSource = builder.dataSource;
+        this.parallelism = builder.parallelism;
+        this.shardSize = builder.shardSize;
+        this.batchSize = builder.batchSize;
+        this.commit = builder.commit;
+        this.metrics = builder.metrics;
+        this.resultCache = builder.resultCache;
+    }
+
+    /**
+     * @return per row update counts.
+     */
+    public Integer[] insert(boolean autoId, SQLInsertQuery query, List<Row> rows) throws SQLException {
+        return write(rows, (exe, shard) -> exe.executeInsert(autoId, batchSize, query, shard));
+    }
+
+    public Integer[] insert(boolean autoId, SQLInsertQuery query, Stream<Row> rows) throws SQLException {
+        return write(rows, (exe, shard) -> exe.executeInsert(autoId, batchSize, query, shard));
+    }
+
+    public Integer[] update(SQLUpdateQuery query, List<Row> rows) throws SQLException {
+        return write(rows, (exe, shard) -> exe.executeUpdate(batchSize, query, shard));
+    }
+
+    public Integer[] update(SQLUpdateQuery query, Stream<Row> rows) throws SQLException {
+        return write(rows, (exe, shard) -> exe.executeUpdate(batchSize, query, shard));
+    }
+
+    /**
+     * @return rows deleted.
+     */
+    public Integer delete(SQLDeleteQuery query, List<Row> where) throws SQLException {
+        return total(write(where, (exe, shard) -> new Integer[]{exe.executeDelete(batchSize, query, shard)}));
+    }
+
+    public Integer delete(SQLDeleteQuery query, Stream<Row> where) throws SQLException {
+        return total(write(where, (exe, shard) -> new Integer[]{exe.executeDelete(batchSize, query, shard)}));
+    }
+
+    private static Integer total(Integer[] counts) {
+        int sum = 0;
+        for (Integer count : counts) {
+            if (count != null && count > 0) sum += count;
+        }
+        return sum;
+    }
+
+    public Integer[] write(List<Row> rows, ShardWriter writer) throws SQLException {
+        if (rows == null || rows.isEmpty()) return new Integer[0];
+        return write(new Iterator<List<Row>>() {
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                return offset < rows.size();
+            }
+
+            @Override
+            public List<Row> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                int end = Math.min(rows.size(), offset + shardSize);
+                List<Row> shard = rows.subList(offset, end);
+                offset = end;
+                return shard;
+            }
+        }, writer);
+    }
+
+    public Integer[] write(Stream<Row> rows, ShardWriter writer) throws SQLException {
+        if (rows == null) return new Integer[0];
+        Iterator<Row> source = rows.iterator();
+        return write(new Iterator<List<Row>>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public List<Row> next() {
+                List<Row> shard = new ArrayList<>(shardSize);
+                while (shard.size() < shardSize && source.hasNext()) {
+                    shard.add(source.next());
+                }
+                return shard;
+            }
+        }, writer);
+    }
+
+    private Integer[] write(Iterator<List<Row>> shards, ShardWriter writer) throws SQLException {
+        if (writer == null) throw new IllegalArgumentException("ShardWriter must not be null!");
+        Run run = new Run(writer);
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ParallelBatchWriter-" + THREAD_SEQUENCE.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>(parallelism);
+        int sequence = 0;
+        try {
+            for (int index = 0; index < parallelism; index++) {
+                futures.add(workers.submit(() -> {
+                    run.work();
+                    return null;
+                }));
+            }
+            while (shards.hasNext()) {
+                List<Row> shard = shards.next();
+                if (shard.isEmpty()) continue;
+                //Blocks while the writers are behind; they drain the queue even after a failure.
+                run.queue.put(new Shard(sequence++, shard));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.fail(e);
+        } catch (RuntimeException e) {
+            run.fail(e);
+        } finally {
+            //Workers must see END and finish their transactions, even when this thread is interrupted:
+            boolean interrupted = Thread.interrupted();
+            for (int index = 0; index < futures.size(); index++) {
+                while (true) {
+                    try {
+                        run.queue.put(Shard.END);
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            for (Future<?> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        run.fail(e.getCause());
+                        break;
+                    }
+                }
+            }
+            workers.shutdown();
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+        Throwable error = run.error.get();
+        if (error instanceof SQLException) throw (SQLException) error;
+        if (error != null) throw new SQLException(error.getMessage(), error);
+        List<Integer> results = new ArrayList<>();
+        for (int index = 0; index < sequence; index++) {
+            Integer[] shardResults = run.results.get(index);
+            if (shardResults != null) Collections.addAll(results, shardResults);
+        }
+        return results.toArray(new Integer[0]);
+    }
+
+    private static final class Shard {
+        private static final Shard END = new Shard(-1, Collections.<Row>emptyList());
+
+        private final int sequence;
+        private final List<Row> rows;
+
+        private Shard(int sequence, List<Row> rows) {
+            this.sequence = sequence;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * State of one write() call, shared by its workers.
+     */
+    private final class Run {
+        private final ShardWriter writer;
+        private final BlockingQueue<Shard> queue = new LinkedBlockingQueue<>(parallelism);
+        private final Map<Integer, Integer[]> results = new ConcurrentHashMap<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final CountDownLatch written = new CountDownLatch(parallelism);
+
+        private Run(ShardWriter writer) {
+            this.writer = writer;
+        }
+
+        private void fail(Throwable e) {
+            if (error.compareAndSet(null, e)) LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+
+        private boolean failed() {
+            return error.get() != null;
+        }
+
+        private void work() throws InterruptedException {
+            Connection conn = null;
+            boolean autoCommit = true;
+            try {
+                conn = dataSource.getConnection();
+                autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+            } catch (SQLException | RuntimeException e) {
+                fail(e);
+            }
+            boolean counted = false;
+            AsyncSQLExecutor.TaskExecutor executor = (conn != null) ? new AsyncSQLExecutor.TaskExecutor(conn, metrics, resultCache) : null;
+            try {
+                Shard shard;
+                while ((shard = queue.take()) != Shard.END) {
+                    if (failed()) continue;
+                    try {
+                        Integer[] shardResults = writer.write(executor, shard.rows);
+                        if (commit == Commit.PER_SHARD) conn.commit();
+                        results.put(shard.sequence, (shardResults != null) ? shardResults : new Integer[0]);
+                    } catch (SQLException | RuntimeException e) {
+                        fail(e);
+                        rollback(conn);
+                    }
+                }
+                if (commit == Commit.ALL_OR_NOTHING) {
+                    //Every worker decides only once all shards are written (or one failed):
+                    written.countDown();
+                    counted = true;
+                    written.await();
+                    if (conn != null) {
+                        if (failed()) {
+                            rollback(conn);
+                        } else {
+                            try {
+                                conn.commit();
+                            } catch (SQLException e) {
+                                fail(e);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                if (commit == Commit.ALL_OR_NOTHING && !counted) written.countDown();
+                if (executor != null) executor.close();
+                close(conn, autoCommit);
+            }
+        }
+
+        private void rollback(Connection conn) {
+            if (conn == null) return;
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+            }
+        }
+
+        private void close(Connection conn, boolean autoCommit) {
+            if (conn == null) return;
+            try {
+                conn.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+            }
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.query.models.DataType;
+import com.it.soul.lab.sql.query.models.Property;
+import com.it.soul.lab.sql.query.models.Row;
+
+import java.sql.Blob;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positional binding of row values to ? parameters. The slot layout (column and setter per slot) is
+ * resolved once from a prototype row, e.g. the first row of a batch; binding a row then walks its
+ * properties in slot order and calls the slot's setter, without copying keys or properties.
+ * Rows are expected in the prototype's column order; a row in another order is matched by key,
+ * and a value of another DataType than the slot's uses the setter of its own type.
+ * Immutable; NULL_SKIP properties (IS NULL / IS NOT NULL) take no slot.
+ */
+final class ParameterBinder {
+
+    @FunctionalInterface
+    interface Setter {
+        void set(PreparedStatement stmt, int index, Object value) throws SQLException;
+    }
+
+    private static final Map<DataType, Setter> SETTERS = new EnumMap<>(DataType.class);
+    private static final Setter DEFAULT = (stmt, index, value) -> {
+        if (value != null) stmt.setObject(index, value);
+        else stmt.setNull(index, Types.NULL);
+    };
+
+    static {
+        SETTERS.put(DataType.STRING, (stmt, index, value) ->
+                stmt.setString(index, (value != null) ? value.toString().trim() : null));
+        SETTERS.put(DataType.INT, (stmt, index, value) -> {
+            if (value != null) stmt.setInt(index, (Integer) value);
+            else stmt.setNull(index, Types.INTEGER);
+        });
+        SETTERS.put(DataType.LONG, (stmt, index, value) -> {
+            if (value != null) stmt.setLong(index, (Long) value);
+            else stmt.setNull(index, Types.BIGINT);
+        });
+        SETTERS.put(DataType.BOOL, (stmt, index, value) -> {
+            if (value instanceof Boolean) stmt.setBoolean(index, (Boolean) value);
+            else stmt.setBoolean(index, value != null && Boolean.valueOf(value.toString()));
+        });
+        SETTERS.put(DataType.FLOAT, (stmt, index, value) -> {
+            if (value != null) stmt.setFloat(index, (Float) value);
+            else stmt.setNull(index, Types.FLOAT);
+        });
+        SETTERS.put(DataType.DOUBLE, (stmt, index, value) -> {
+            if (value != null) stmt.setDouble(index, (Double) value);
+            else stmt.setNull(index, Types.DOUBLE);
+        });
+        Setter date = (stmt, index, value) -> {
+            if (value instanceof Timestamp) stmt.setTimestamp(index, (Timestamp) value);
+            else if (value instanceof Time) stmt.setTime(index, (Time) value);
+            else if (value != null) stmt.setDate(index, (Date) value);
+            else stmt.setNull(index, Types.DATE);
+        };
+        SETTERS.put(DataType.SQLDATE, date);
+        SETTERS.put(DataType.SQLTIMESTAMP, date);
+        SETTERS.put(DataType.BLOB, (stmt, index, value) -> {
+            if (value instanceof Blob) {
+                stmt.setBlob(index, (Blob) value);
+            } else if (value instanceof String) {
+                Blob blob = stmt.getConnection().createBlob();
+                blob.setBytes(1, value.toString().getBytes());
+                stmt.setBlob(index, blob);
+            } else {
+                stmt.setNull(index, Types.BLOB);
+            }
+        });
+        SETTERS.put(DataType.BYTEARRAY, (stmt, index, value) -> {
+            if (value instanceof String) stmt.setBytes(index, ((String) value).getBytes());
+            else if (value != null) stmt.setBytes(index, (byte[]) value);
+            else stmt.setNull(index, Types.ARRAY);
+        });
+        SETTERS.put(DataType.LIST, (stmt, index, value) -> {
+            if (value == null) {
+                stmt.setNull(index, Types.ARRAY);
+                return;
+            }
+            List<?> items = (List<?>) value;
+            Object obj = (items.size() > 0) ? items.get(0) : "";
+            String typeName;
+            if (obj instanceof Integer) typeName = "integer";
+            else if (obj instanceof Double) typeName = "double";
+            else if (obj instanceof Float) typeName = "float";
+            else if (obj instanceof Long) typeName = "long";
+            else if (obj instanceof Timestamp || obj instanceof Time || obj instanceof Date) typeName = "timestamp";
+            else if (obj instanceof String) typeName = "string";
+            else typeName = "object";
+            stmt.setArray(index, stmt.getConnection().createArrayOf(typeName, items.toArray()));
+        });
+    }
+
+    /**
+     * @param type
+     * @return the setter for values of type; setObject/setNull for types without a dedicated one.
+     */
+    static Setter setterOf(DataType type) {
+        Setter setter = (type != null) ? SETTERS.get(type) : null;
+        return (setter != null) ? setter : DEFAULT;
+    }
+
+    private final String[] keys;
+    private final DataType[] types;
+    private final Setter[] setters;
+
+    private ParameterBinder(String[] keys, DataType[] types) {
+        this.keys = keys;
+        this.types = types;
+        this.setters = new Setter[types.length];
+        for (int slot = 0; slot < types.length; slot++) {
+            setters[slot] = setterOf(types[slot]);
+        }
+    }
+
+    /**
+     * @param prototype e.g. the first row of a batch; null has no slots.
+     * @return
+     */
+    static ParameterBinder of(Row prototype) {
+        List<Property> properties = (prototype != null) ? prototype.getProperties() : null;
+        int count = 0;
+        if (properties != null) {
+            for (Property property : properties) {
+                if (property.getType() != DataType.NULL_SKIP) count++;
+            }
+        }
+        String[] keys = new String[count];
+        DataType[] types = new DataType[count];
+        int slot = 0;
+        if (properties != null) {
+            for (Property property : properties) {
+                if (property.getType() == DataType.NULL_SKIP) continue;
+                keys[slot] = property.getKey();
+                types[slot++] = property.getType();
+            }
+        }
+        return new ParameterBinder(keys, types);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param stmt
+     * @param startIndex parameter index of the first slot.
+     * @param row
+     * @return parameter index after the last slot.
+     * @throws IllegalArgumentException when a slot's column is missing from row.
+     */
+    int bind(PreparedStatement stmt, int startIndex, Row row) throws SQLException, IllegalArgumentException {
+        List<Property> properties = row.getProperties();
+        int size = properties.size();
+        int position = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            while (position < size && properties.get(position).getType() == DataType.NULL_SKIP) position++;
+            Property property = (position < size) ? properties.get(position++) : null;
+            if (property == null || !keys[slot].equals(property.getKey())) property = find(properties, keys[slot]);
+            if (property == null) throw new IllegalArgumentException(keys[slot] + " is missing from row " + row);
+            Setter setter = (property.getType() == types[slot]) ? setters[slot] : setterOf(property.getType());
+            setter.set(stmt, startIndex + slot, property.getValue());
+        }
+        return startIndex + keys.length;
+    }
+
+    private static Property find(List<Property> properties, String key) {
+        for (int index = 0; index < properties.size(); index++) {
+            Property property = properties.get(index);
+            if (property.getType() != DataType.NULL_SKIP && key.equals(property.getKey())) return property;
+        }
+        return null;
+    }
+
+}
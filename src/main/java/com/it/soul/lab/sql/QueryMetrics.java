@@ -0,0 +1,83 @@
+package com.it.soul.lab.sql;
+
+/**
+ * Instrumentation callbacks invoked by the QueryExecutor implementations.
+ * The query passed in is the statement text as executed; implementations reduce it to a
+ * query shape (see shapeOf) before using it as a metric key.
+ * A rows value below zero means the count is not known, e.g. a ResultSet handed to the caller.
+ * Implementations must be thread safe and cheap, since they run on every call.
+ */
+public interface QueryMetrics {
+
+    QueryMetrics NO_OP = new QueryMetrics() {};
+
+    default void recordRead(String query, long elapsedNanos, int rows) {}
+    default void recordWrite(String query, long elapsedNanos, int rows) {}
+    default void recordBatch(String query, long elapsedNanos, int batchSize, int rows) {}
+    default void recordPrepare(String query, boolean cached) {}
+    default void recordCacheLookup(String query, boolean hit) {}
+    default void recordBorrowWait(long elapsedNanos) {}
+    /**
+     * One BulkWriter flush: the rows written and the rows still queued behind them.
+     */
+    default void recordFlush(String query, long elapsedNanos, int rows, int queueDepth) {}
+    default void recordError(String query, Throwable error) {}
+
+    /**
+     * Reduces a statement to its shape: string and numeric literals become ?, runs of
+     * whitespace collapse to one space (none inside parentheses) and lists of placeholders, like IN (?, ?, ?), collapse to one ?.
+     * So "SELECT * FROM Passenger WHERE id IN (1, 2, 3)" and the prepared form with three ?
+     * both become "SELECT * FROM Passenger WHERE id IN (?)".
+     * @param query
+     * @return
+     */
+    static String shapeOf(String query) {
+        if (query == null) return "";
+        StringBuilder shape = new StringBuilder(query.length());
+        int length = query.length();
+        int index = 0;
+        while (index < length) {
+            char ch = query.charAt(index);
+            char last = (shape.length() > 0) ? shape.charAt(shape.length() - 1) : ' ';
+            if (ch == '\'') {
+                index++;
+                while (index < length) {
+                    if (query.charAt(index) != '\'') index++;
+                    else if (index + 1 < length && query.charAt(index + 1) == '\'') index += 2;
+                    else break;
+                }
+                index++;
+            } else if (Character.isDigit(ch) && !(Character.isLetterOrDigit(last) || last == '_' || last == '$')) {
+                while (index < length && (Character.isLetterOrDigit(query.charAt(index)) || query.charAt(index) == '.')) index++;
+            } else if (ch == '?') {
+                index++;
+            } else if (Character.isWhitespace(ch)) {
+                while (index < length && Character.isWhitespace(query.charAt(index))) index++;
+                if (shape.length() > 0 && last != '(') shape.append(' ');
+                continue;
+            } else {
+                if ((ch == ')' || ch == ',') && last == ' ') shape.setLength(shape.length() - 1);
+                shape.append(ch);
+                index++;
+                continue;
+            }
+            //A literal or placeholder; "?, ?" keeps a single ? for the whole list:
+            int end = shape.length();
+            while (end > 0 && shape.charAt(end - 1) == ' ') end--;
+            if (end > 1 && shape.charAt(end - 1) == ',') {
+                int before = end - 1;
+                while (before > 0 && shape.charAt(before - 1) == ' ') before--;
+                if (before > 0 && shape.charAt(before - 1) == '?') {
+                    shape.setLength(before);
+                    continue;
+                }
+            }
+            shape.append('?');
+        }
+        int end = shape.length();
+        while (end > 0 && (shape.charAt(end - 1) == ' ' || shape.charAt(end - 1) == ';')) end--;
+        shape.setLength(end);
+        return shape.toString();
+    }
+
+}
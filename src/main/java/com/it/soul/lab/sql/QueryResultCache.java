@@ -0,0 +1,322 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.sql.query.QueryTemplate;
+import com.it.soul.lab.sql.query.SQLQuery;
+import com.it.soul.lab.sql.query.models.Property;
+import com.it.soul.lab.sql.query.models.Row;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of select results, keyed by the statement text (whitespace normalized), the bound
+ * where values, the result type and its column mapping. Entries expire after ttl, and the least recently
+ * used ones are evicted beyond maxEntries or maxRows (rows cached in total).
+ * A write through an executor that uses the cache drops every entry of the written table; writes made
+ * elsewhere (other applications, executors without this cache) are only seen once the entry expires.
+ * Cached objects are shared between callers, so treat them as read-only. Thread safe: one cache can back
+ * several executors, e.g. every task of an AsyncSQLExecutor.
+ */
+public class QueryResultCache {
+
+    public static class Builder {
+        private int maxEntries = 1000;
+        private long maxRows = 100_000;
+        private long ttlNanos = TimeUnit.MINUTES.toNanos(1);
+
+        public Builder maxEntries(int maxEntries){
+            this.maxEntries = maxEntries;
+            return this;
+        }
+        /**
+         * Bound on the sum of cached rows (an entry with no rows counts as one).
+         * @param maxRows
+         * @return
+         */
+        public Builder maxRows(long maxRows){
+            this.maxRows = maxRows;
+            return this;
+        }
+        /**
+         * @param ttl 0 keeps entries until they are evicted or invalidated.
+         * @param unit
+         * @return
+         */
+        public Builder ttl(long ttl, TimeUnit unit){
+            this.ttlNanos = unit.toNanos(ttl);
+            return this;
+        }
+        public QueryResultCache build(){
+            if (maxEntries <= 0 || maxRows <= 0)
+                throw new IllegalArgumentException("maxEntries and maxRows must be greater than 0.");
+            if (ttlNanos < 0) throw new IllegalArgumentException("ttl must not be negative.");
+            return new QueryResultCache(this);
+        }
+    }
+
+    public static final class Key {
+        private final String table;
+        private final String query;
+        private final Object[] values;
+        private final Class<?> type;
+        private final Map<String, String> mapping;
+        private final long generation;
+        private final int hash;
+
+        private Key(String table, String query, Object[] values, Class<?> type, Map<String, String> mapping, long generation) {
+            this.table = table;
+            this.generation = generation;
+            this.query = query;
+            this.values = values;
+            this.type = type;
+            this.mapping = mapping;
+            int result = query.hashCode();
+            result = 31 * result + Arrays.deepHashCode(values);
+            result = 31 * result + type.hashCode();
+            result = 31 * result + Objects.hashCode(mapping);
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash
+                    && type == key.type
+                    && query.equals(key.query)
+                    && Arrays.deepEquals(values, key.values)
+                    && Objects.equals(mapping, key.mapping);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final List<?> items;
+        private final long expiresAt;
+
+        private Entry(Key key, List<?> items, long expiresAt) {
+            this.key = key;
+            this.items = items;
+            this.expiresAt = expiresAt;
+        }
+
+        private long weight() {
+            return Math.max(1, items.size());
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxRows;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<Key>> keysByTable = new HashMap<>();
+    private long rows;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private final AtomicLong generation = new AtomicLong();
+
+    private QueryResultCache(Builder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.maxRows = builder.maxRows;
+        this.ttlNanos = builder.ttlNanos;
+    }
+
+    /**
+     * @param query
+     * @param type
+     * @param mapping Column:Name -> field name, may be null.
+     * @return null when the query has no table name (e.g. joins), since it could not be invalidated.
+     */
+    public Key keyOf(SQLQuery query, Class<?> type, Map<String, String> mapping) {
+        String table = normalizeTable(query.getTableName());
+        if (table == null || type == null) return null;
+        Row where = query.getWhereProperties();
+        List<Property> properties = (where != null) ? where.getProperties() : Collections.emptyList();
+        Object[] values = new Object[properties.size()];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = properties.get(index).getValue();
+        }
+        Map<String, String> copy = (mapping == null) ? null : new HashMap<>(mapping);
+        return new Key(table, normalize(query.toString()), values, type, copy, generation.get());
+    }
+
+    /**
+     * Key of a template select with its bound values.
+     * @param bound
+     * @param type
+     * @param mapping Column:Name -> field name, may be null.
+     * @return null when the template has no table name.
+     */
+    public Key keyOf(QueryTemplate.Bound bound, Class<?> type, Map<String, String> mapping) {
+        QueryTemplate template = bound.getTemplate();
+        String table = normalizeTable(template.getTableName());
+        if (table == null || type == null) return null;
+        Map<String, String> copy = (mapping == null) ? null : new HashMap<>(mapping);
+        return new Key(table, normalize(template.getSql()), bound.getValues(), type, copy, generation.get());
+    }
+
+    /**
+     * @param key
+     * @return a copy of the cached list, or null on a miss (also when the entry has expired).
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> List<T> get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.expiresAt > 0) {
+            remove(entry);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ArrayList<>((List<T>) entry.items);
+    }
+
+    /**
+     * Skipped when anything was invalidated since keyOf(): the result may have been read before that write.
+     * @param key
+     * @param items
+     */
+    public synchronized void put(Key key, List<?> items) {
+        if (key.generation != generation.get()) return;
+        Entry previous = entries.get(key);
+        if (previous != null) remove(previous);
+        Entry entry = new Entry(key, Collections.unmodifiableList(new ArrayList<>(items)), System.nanoTime() + ttlNanos);
+        if (entry.weight() > maxRows) return;
+        entries.put(key, entry);
+        keysByTable.computeIfAbsent(key.table, table -> new HashSet<>()).add(key);
+        rows += entry.weight();
+        Iterator<Entry> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || rows > maxRows) && eldest.hasNext()) {
+            Entry victim = eldest.next();
+            eldest.remove();
+            unlink(victim);
+            evictions++;
+        }
+    }
+
+    /**
+     * Drops every entry read from the table.
+     * @param table as written in the query; quotes and a schema/keyspace prefix are ignored.
+     */
+    public synchronized void invalidate(String table) {
+        String name = normalizeTable(table);
+        if (name == null) return;
+        generation.incrementAndGet();
+        Set<Key> keys = keysByTable.remove(name);
+        if (keys == null) return;
+        for (Key key : keys) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                rows -= entry.weight();
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations += entries.size();
+        entries.clear();
+        keysByTable.clear();
+        rows = 0;
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.key);
+        unlink(entry);
+    }
+
+    private void unlink(Entry entry) {
+        rows -= entry.weight();
+        Set<Key> keys = keysByTable.get(entry.key.table);
+        if (keys != null && keys.remove(entry.key) && keys.isEmpty()) keysByTable.remove(entry.key.table);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return hits / (hits + misses); 0 before the first lookup.
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return (lookups == 0) ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Collapses runs of whitespace outside quoted literals and drops a trailing ;.
+     */
+    static String normalize(String query) {
+        StringBuilder buffer = new StringBuilder(query.length());
+        boolean quoted = false;
+        for (int index = 0; index < query.length(); index++) {
+            char ch = query.charAt(index);
+            if (ch == '\'') quoted = !quoted;
+            if (!quoted && Character.isWhitespace(ch)) {
+                if (buffer.length() > 0 && buffer.charAt(buffer.length() - 1) != ' ') buffer.append(' ');
+                continue;
+            }
+            buffer.append(ch);
+        }
+        int end = buffer.length();
+        while (end > 0 && (buffer.charAt(end - 1) == ' ' || buffer.charAt(end - 1) == ';')) end--;
+        buffer.setLength(end);
+        return buffer.toString();
+    }
+
+    static String normalizeTable(String table) {
+        if (table == null) return null;
+        String name = table.trim();
+        //Drop an alias, e.g. "Passenger p":
+        int space = name.indexOf(' ');
+        if (space > 0) name = name.substring(0, space);
+        int dot = name.lastIndexOf('.');
+        if (dot >= 0) name = name.substring(dot + 1);
+        name = name.replace("\"", "").replace("`", "").replace("[", "").replace("]", "").trim();
+        return name.isEmpty() ? null : name.toLowerCase();
+    }
+
+}
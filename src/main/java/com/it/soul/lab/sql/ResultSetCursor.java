@@ -0,0 +1,97 @@
+package com.it.soul.lab.sql;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Forward-only cursor over an open ResultSet. Rows are read one at a time,
+ * so nothing but the current row is kept in memory.
+ * The owning statement is closed when the cursor is exhausted or closed.
+ */
+class ResultSetCursor<T> implements Iterator<T>, AutoCloseable {
+
+    interface RowReader<T> {
+        T read(ResultSet rst, ResultSetMetaData rsmd, int numCol) throws SQLException;
+    }
+
+    private static Logger LOG = Logger.getLogger(ResultSetCursor.class.getSimpleName());
+
+    private final Statement stmt;
+    private final ResultSet rst;
+    private final RowReader<T> reader;
+    private final Runnable onClose;
+    private ResultSetMetaData rsmd;
+    private int numCol;
+    private Boolean hasNext;
+    private boolean closed;
+
+    ResultSetCursor(Statement stmt, ResultSet rst, RowReader<T> reader, Runnable onClose) throws SQLException {
+        this.stmt = stmt;
+        this.rst = rst;
+        this.reader = reader;
+        this.onClose = onClose;
+        this.rsmd = rst.getMetaData();
+        this.numCol = rsmd.getColumnCount();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) return false;
+        if (hasNext == null){
+            try {
+                hasNext = rst.next();
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException(e.getMessage(), e);
+            }
+            if (!hasNext) close();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        hasNext = null;
+        try {
+            return reader.read(rst, rsmd, numCol);
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            rst.close();
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+        if (onClose != null) onClose.run();
+    }
+
+    Stream<T> stream(){
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this
+                , Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+}
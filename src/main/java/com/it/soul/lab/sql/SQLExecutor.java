@@ -3,24 +3,42 @@ package com.it.soul.lab.sql;
 import com.it.soul.lab.connect.DriverClass;
 import com.it.soul.lab.connect.JDBConnection;
 import com.it.soul.lab.sql.entity.Entity;
+import com.it.soul.lab.sql.entity.EntityMetadata;
 import com.it.soul.lab.sql.query.*;
+import com.it.soul.lab.sql.query.models.ColumnarTable;
 import com.it.soul.lab.sql.query.models.DataType;
 import com.it.soul.lab.sql.query.models.Property;
 import com.it.soul.lab.sql.query.models.Row;
+import com.it.soul.lab.sql.query.models.RowBinder;
 import com.it.soul.lab.sql.query.models.Table;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSelectQuery, SQLInsertQuery, SQLUpdateQuery, SQLDeleteQuery, SQLScalarQuery> {
 
 	public static class Builder {
 		private JDBConnection.Builder connectionBuilder;
+		private int statementCacheSize = 0;
+		private QueryMetrics metrics;
+		private QueryResultCache resultCache;
 		public Builder(DriverClass driver){
 			connectionBuilder = new JDBConnection.Builder(driver);
 		}
@@ -40,15 +58,48 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 			connectionBuilder.query(query);
 			return this;
 		}
+		/**
+		 * Number of PreparedStatements kept open per connection; 0 (default) disables caching.
+		 * @param size
+		 * @return
+		 */
+		public Builder statementCacheSize(int size){
+			this.statementCacheSize = size;
+			return this;
+		}
+		public Builder metrics(QueryMetrics metrics){
+			this.metrics = metrics;
+			return this;
+		}
+		public Builder resultCache(QueryResultCache resultCache){
+			this.resultCache = resultCache;
+			return this;
+		}
 		public SQLExecutor build() throws Exception {
 			Connection conn = connectionBuilder.build();
-			return new SQLExecutor(conn);
+			SQLExecutor executor = new SQLExecutor(conn);
+			executor.setStatementCacheSize(statementCacheSize);
+			executor.setMetrics(metrics);
+			executor.setResultCache(resultCache);
+			return executor;
 		}
 	}
 
+	/**
+	 * Fetch size that makes MySQL Connector/J stream rows instead of buffering the whole result.
+	 */
+	public static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
 	private Logger LOG = Logger.getLogger(this.getClass().getSimpleName());
 	private Connection conn = null;
 
+	private final StatementCache statementCache = new StatementCache(0);
+	private volatile String databaseUrl;
+	/**
+	 * Tables written since begin(); null stands for an unknown table.
+	 */
+	private final Set<String> writtenInTransaction = new HashSet<>();
+
 	public SQLExecutor(Connection conn){ this.conn = conn; }
 	
 	@Override
@@ -72,17 +123,7 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 	public void close(){
 		try {
 			int count = getStatementHolder().size();
-			Boolean isAllClosed = true;
-			if(count > 0){
-				for (Statement iterable_element : getStatementHolder()) {
-					try{
-						iterable_element.close();
-					}catch (SQLException e){
-						isAllClosed = false;
-					}
-				}
-			}
-			getStatementHolder().clear();
+			Boolean isAllClosed = closeStatements();
 			LOG.info("Retained Statements count was " + count
                     + ". \n All statements has been Closed : " + (isAllClosed ? "YES":"NO"));
 			closeConnections(conn);
@@ -91,6 +132,25 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 		}
 	}
 	
+	/**
+	 * Closes the statements this executor still holds (unread cursors and streams, the statement cache);
+	 * unlike close(), the connection stays open.
+	 * @return false when any statement failed to close.
+	 */
+	protected boolean closeStatements(){
+		boolean isAllClosed = true;
+		for (Statement iterable_element : getStatementHolder()) {
+			try{
+				iterable_element.close();
+			}catch (SQLException e){
+				isAllClosed = false;
+			}
+		}
+		getStatementHolder().clear();
+		statementCache.invalidate();
+		return isAllClosed;
+	}
+	
 	private void closeConnections(Connection conn) 
 			throws SQLException{
 		if(conn != null && !conn.isClosed()){
@@ -124,18 +184,120 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 	}
 	
 	public void end() throws SQLException{
-		if(conn != null && conn.isClosed() == false) {
-			conn.commit();
-			conn.setAutoCommit(true);
+		try {
+			if(conn != null && conn.isClosed() == false) {
+				conn.commit();
+				conn.setAutoCommit(true);
+			}
+		} finally {
+			invalidateWrittenInTransaction();
 		}
 	}
 	
 	public void abort() throws SQLException{
-		if(conn != null && conn.isClosed() == false) {
-			conn.rollback();
-			conn.setAutoCommit(true);
+		statementCache.invalidate();
+		try {
+			if(conn != null && conn.isClosed() == false) {
+				conn.rollback();
+				conn.setAutoCommit(true);
+			}
+		} finally {
+			invalidateWrittenInTransaction();
+		}
+	}
+
+	/**
+	 * A write inside begin()...end() invalidates when it runs, but another executor may read and cache the
+	 * old rows before the commit; so the tables are invalidated again once the transaction ends.
+	 * @param table
+	 */
+	@Override
+	protected void invalidateResultCache(String table) {
+		super.invalidateResultCache(table);
+		if(getResultCache() != null && isTransactionOpen()) writtenInTransaction.add(table);
+	}
+
+	private void invalidateWrittenInTransaction() {
+		if(writtenInTransaction.isEmpty()) return;
+		List<String> tables = new ArrayList<>(writtenInTransaction);
+		writtenInTransaction.clear();
+		for (String table : tables) {
+			super.invalidateResultCache(table);
+		}
+	}
+
+	/**
+	 * Reads inside an open transaction may see uncommitted rows, so they bypass the shared result cache.
+	 * @return true as well when auto-commit can't be read, so nothing is cached from an unknown state.
+	 */
+	@Override
+	public boolean isTransactionOpen() {
+		try {
+			return conn != null && !conn.getAutoCommit();
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, e.getMessage(), e);
+			return true;
+		}
+	}
+
+	/**
+	 * @return URL, user and current catalog of the connection.
+	 */
+	@Override
+	public String getDatabaseId() {
+		if(conn == null) return super.getDatabaseId();
+		try {
+			if(databaseUrl == null) {
+				DatabaseMetaData meta = conn.getMetaData();
+				databaseUrl = meta.getURL() + ";user=" + meta.getUserName();
+			}
+			return databaseUrl + ";catalog=" + conn.getCatalog();
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, e.getMessage(), e);
+			return super.getDatabaseId();
 		}
 	}
+
+	public void setStatementCacheSize(int size){
+		statementCache.setCapacity(size);
+	}
+
+	public int getStatementCacheSize(){
+		return statementCache.getCapacity();
+	}
+
+	public long getStatementCacheHits(){
+		return statementCache.getHits();
+	}
+
+	public long getStatementCacheMisses(){
+		return statementCache.getMisses();
+	}
+
+	public long getStatementCacheEvictions(){
+		return statementCache.getEvictions();
+	}
+
+	/**
+	 * Cached statements must be handed back with releaseStatement(), never closed directly.
+	 */
+	protected PreparedStatement prepareStatement(String query) throws SQLException {
+		long hits = statementCache.getHits();
+		PreparedStatement stmt = statementCache.prepare(conn, query);
+		getMetrics().recordPrepare(query, statementCache.getHits() != hits);
+		return stmt;
+	}
+
+	protected PreparedStatement prepareStatement(String query, int autoGeneratedKeys) throws SQLException {
+		long hits = statementCache.getHits();
+		PreparedStatement stmt = statementCache.prepare(conn, query, autoGeneratedKeys);
+		getMetrics().recordPrepare(query, statementCache.getHits() != hits);
+		return stmt;
+	}
+
+	protected void releaseStatement(Statement stmt) {
+		statementCache.release(stmt);
+	}
 	
 	/**
 	 * 
@@ -175,22 +337,26 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 		int rowUpdated = 0;
 		PreparedStatement stmt=null;
 		String queryStr = query.toString();
-		String [] whereKeySet = query.getWhereProperties().getKeys();
-
+		Row whereProperties = query.getWhereProperties();
+		long start = System.nanoTime();
 		try{
 			if(conn != null){
-				stmt = conn.prepareStatement(queryStr);
+				stmt = prepareStatement(queryStr);
 				int length = setProperties.size();
-				stmt = bindValueToStatement(stmt, 1, setProperties.getKeys(), setProperties.keyValueMap());
-				if(whereKeySet != null)
-					stmt = bindValueToStatement(stmt, length+1, whereKeySet, query.getWhereProperties().keyValueMap());
+				stmt = bindValueToStatement(stmt, 1, setProperties);
+				if(whereProperties != null)
+					stmt = bindValueToStatement(stmt, length+1, whereProperties);
 				rowUpdated = stmt.executeUpdate();
+				getMetrics().recordWrite(queryStr, System.nanoTime() - start, rowUpdated);
 			}
 		}
-		catch(SQLException exp) { throw exp;}
-		catch (IllegalArgumentException e) { throw e;}
+		catch(SQLException | IllegalArgumentException exp) {
+			getMetrics().recordError(queryStr, exp);
+			throw exp;
+		}
 		finally{
-			if(stmt != null) stmt.close();
+			releaseStatement(stmt);
+			invalidateResultCache(query.getTableName());
 		}
 		return rowUpdated;
 	}
@@ -207,16 +373,22 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 
     private int getRowUpdated(PreparedStatement stmt, String queryStr) throws SQLException {
         int rowUpdated = 0;
+        long start = System.nanoTime();
         try{
             if(conn != null){
-                stmt = conn.prepareStatement(queryStr);
+                stmt = prepareStatement(queryStr);
                 rowUpdated = stmt.executeUpdate();
+                getMetrics().recordWrite(queryStr, System.nanoTime() - start, rowUpdated);
             }
         }
-        catch(SQLException exp) { throw exp;}
-        catch (IllegalArgumentException e) { throw e;}
+        catch(SQLException | IllegalArgumentException exp) {
+            getMetrics().recordError(queryStr, exp);
+            throw exp;
+        }
         finally{
-            if(stmt != null) stmt.close();
+            releaseStatement(stmt);
+            //Table unknown for plain statements:
+            invalidateResultCache(null);
         }
         return rowUpdated;
     }
@@ -232,7 +404,7 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
         List<Integer> affectedRows = new ArrayList<Integer>();
         PreparedStatement stmt = null;
         String query = updateQuery.toString();
-
+        long start = System.nanoTime();
         boolean notBegin = conn.getAutoCommit();
         try{
             size = (size < 100) ? 100 : size;//Least should be 100
@@ -240,21 +412,15 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
                 //
                 List<int[]> batchUpdatedRowsCount = new ArrayList<int[]>();
                 if(notBegin) begin();
-                stmt = conn.prepareStatement(query);
-                int batchCount = 1;
+                stmt = prepareStatement(query);
+                //Slot layouts are resolved once; the where clause is the same for every row:
+                ParameterBinder setBinder = ParameterBinder.of(rows.get(0));
+                Row whereProperties = updateQuery.getWhereProperties();
+                ParameterBinder whereBinder = ParameterBinder.of(whereProperties);
+                int batchCount = 0;
                 for (int index = 0; index < rows.size(); index++) {
-
-                    String[] keySet = rows.get(index).getKeys();
-                    Map<String, Property> row = rows.get(index).keyValueMap();
-                    stmt = bindValueToStatement(stmt, 1, keySet, row);
-
-                    int length = keySet.length;
-                    //Row whereProperties = getLeastAppropriateProperties(whereClause, index);
-                    Row whereProperties = updateQuery.getWhereProperties();
-                    String[] whereKeySet = whereProperties.getKeys();
-                    Map<String, Property> whereRow = whereProperties.keyValueMap();
-                    stmt = bindValueToStatement(stmt, length + 1, whereKeySet, whereRow);
-
+                    int next = setBinder.bind(stmt, 1, rows.get(index));
+                    whereBinder.bind(stmt, next, whereProperties);
                     stmt.addBatch();
                     if ((++batchCount % size) == 0) {
                         batchUpdatedRowsCount.add(stmt.executeBatch());
@@ -265,18 +431,22 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
                 //
                 if(notBegin) end();
                 //
+                int written = 0;
                 for (int[] rr  : batchUpdatedRowsCount) {
                     for(int i = 0; i < rr.length ; i++){
                         affectedRows.add(rr[i]);
+                        if (rr[i] > 0) written += rr[i];
                     }
                 }
-
+                getMetrics().recordBatch(query, System.nanoTime() - start, rows.size(), written);
             }
         }catch(SQLException | IllegalArgumentException exp){
+            getMetrics().recordError(query, exp);
             if(notBegin) abort();
             throw exp;
         }finally{
             clearBatch(stmt);
+            invalidateResultCache(updateQuery.getTableName());
         }
         return affectedRows.toArray(new Integer[]{});
     }
@@ -294,6 +464,8 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 
         List<Integer> affectedRows = new ArrayList<Integer>();
         Statement stmt = null;
+        String query = (queries.get(0) == null) ? "" : queries.get(0).toString();
+        long start = System.nanoTime();
         boolean notBegin = conn.getAutoCommit();
         try{
             size = (size < 100) ? 100 : size;//Least should be 100
@@ -302,7 +474,7 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
                 List<int[]> batchUpdatedRowsCount = new ArrayList<int[]>();
                 if(notBegin) begin();
                 stmt = conn.createStatement();
-                int batchCount = 1;
+                int batchCount = 0;
                 for (int index = 0; index < queries.size(); index++) {
                     SQLUpdateQuery upQuery = queries.get(index);
                     String queryAfter = bindValueToQuery(upQuery);
@@ -316,18 +488,24 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
                 //
                 if(notBegin) end();
                 //
+                int written = 0;
                 for (int[] rr  : batchUpdatedRowsCount) {
                     for(int i = 0; i < rr.length ; i++){
                         affectedRows.add(rr[i]);
+                        if (rr[i] > 0) written += rr[i];
                     }
                 }
-
+                getMetrics().recordBatch(query, System.nanoTime() - start, queries.size(), written);
             }
         }catch(SQLException | IllegalArgumentException exp){
+            getMetrics().recordError(query, exp);
             if(notBegin) abort();
             throw exp;
         }finally{
             clearBatch(stmt);
+            for (SQLUpdateQuery upQuery : queries) {
+                if (upQuery != null) invalidateResultCache(upQuery.getTableName());
+            }
         }
         return affectedRows.toArray(new Integer[]{});
     }
@@ -342,18 +520,20 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 		int rowUpdated = 0;
 		PreparedStatement stmt=null;
 		String query = deleteQuery.toString();
+		long start = System.nanoTime();
 		try{
 			if(conn != null){
-				stmt = conn.prepareStatement(query);
-				stmt = bindValueToStatement(stmt, 1, deleteQuery.getWhereParams(), deleteQuery.getWhereProperties().keyValueMap());
+				stmt = prepareStatement(query);
+				stmt = bindValueToStatement(stmt, 1, deleteQuery.getWhereProperties());
 				rowUpdated = stmt.executeUpdate();
+				getMetrics().recordWrite(query, System.nanoTime() - start, rowUpdated);
 			}
-		}catch(SQLException exp){
+		}catch(SQLException | IllegalArgumentException exp){
+			getMetrics().recordError(query, exp);
 			throw exp;
-		}catch (IllegalArgumentException e) {
-			throw e;
 		}finally{
-			if(stmt != null) stmt.close();
+			releaseStatement(stmt);
+			invalidateResultCache(deleteQuery.getTableName());
 		}
 		return rowUpdated;
 	}
@@ -379,31 +559,35 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
         int rowUpdated = 0;
         PreparedStatement stmt=null;
         String query = deleteQuery.toString();
-        String[] whereKeySet = where.get(0).getKeys();
+        ParameterBinder binder = ParameterBinder.of(where.get(0));
+        long start = System.nanoTime();
         boolean notBegin = conn.getAutoCommit();
         try{
             size = (size < 100) ? 100 : size;//Least should be 100
             if(conn != null){
                 if(notBegin) begin();
-                int batchCount = 1;
-                stmt = conn.prepareStatement(query);
+                int batchCount = 0;
+                stmt = prepareStatement(query);
                 for (Row paramValue: where) {
-                    stmt = bindValueToStatement(stmt, 1, whereKeySet, paramValue.keyValueMap());
+                    binder.bind(stmt, 1, paramValue);
                     stmt.addBatch();
                     if ((++batchCount % size) == 0) {
-                        stmt.executeBatch();
+                        rowUpdated += sumOf(stmt.executeBatch());
                     }
                 }
                 if(where.size() % size != 0)
-                    stmt.executeBatch();
+                    rowUpdated += sumOf(stmt.executeBatch());
                 //
                 if(notBegin) end();
+                getMetrics().recordBatch(query, System.nanoTime() - start, where.size(), rowUpdated);
             }
         }catch(SQLException | IllegalArgumentException exp){
+            getMetrics().recordError(query, exp);
             if(notBegin) abort();
             throw exp;
         }finally{
             clearBatch(stmt);
+            invalidateResultCache(deleteQuery.getTableName());
         }
         return rowUpdated;
     }
@@ -413,6 +597,7 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 
 		int lastIncrementedID = 0;
 		PreparedStatement stmt=null;
+		long start = System.nanoTime();
 		try{
 			if(query != null
 					&& query.length() > 0
@@ -421,22 +606,26 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 			}
 			if(conn != null){
 				if (autoId) {
-					stmt = conn.prepareStatement(query,Statement.RETURN_GENERATED_KEYS);
+					stmt = prepareStatement(query,Statement.RETURN_GENERATED_KEYS);
 					stmt.executeUpdate();
-					ResultSet rs = stmt.getGeneratedKeys();
-					if (rs != null && rs.next())
-						lastIncrementedID = rs.getInt(1);
+					try(ResultSet rs = stmt.getGeneratedKeys()){
+						if (rs != null && rs.next())
+							lastIncrementedID = rs.getInt(1);
+					}
 				}else{
-					stmt = conn.prepareStatement(query);
+					stmt = prepareStatement(query);
 					lastIncrementedID = stmt.executeUpdate();
 				}
+				getMetrics().recordWrite(query, System.nanoTime() - start, 1);
 			}
 		}catch(SQLException exp){
+			getMetrics().recordError(query, exp);
 			throw exp;
 		}catch(IllegalArgumentException iel){
 			throw iel;
 		}finally{
-			if(stmt != null) stmt.close();
+			releaseStatement(stmt);
+			invalidateResultCache(null);
 		}
 		return lastIncrementedID;
 	}
@@ -451,29 +640,31 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 		int affectedRows = 0;
 		PreparedStatement stmt=null;
 		String query = insertQuery.toString();
-
+		long start = System.nanoTime();
 		try{
 			if(conn != null){
 				if(autoId){
-					stmt = conn.prepareStatement(query,	Statement.RETURN_GENERATED_KEYS);
-					stmt = bindValueToStatement(stmt, 1,insertQuery.getRow().getKeys(), insertQuery.getRow().keyValueMap());
+					stmt = prepareStatement(query,	Statement.RETURN_GENERATED_KEYS);
+					stmt = bindValueToStatement(stmt, 1, insertQuery.getRow());
 					stmt.executeUpdate();
-					ResultSet set = stmt.getGeneratedKeys();
-					if(set != null && set.next()){
-						affectedRows = set.getInt(1);
+					try(ResultSet set = stmt.getGeneratedKeys()){
+						if(set != null && set.next()){
+							affectedRows = set.getInt(1);
+						}
 					}
 				}else{
-					stmt = conn.prepareStatement(query);
-					stmt = bindValueToStatement(stmt, 1, insertQuery.getRow().getKeys(), insertQuery.getRow().keyValueMap());
+					stmt = prepareStatement(query);
+					stmt = bindValueToStatement(stmt, 1, insertQuery.getRow());
 					affectedRows = stmt.executeUpdate();
 				}
+				getMetrics().recordWrite(query, System.nanoTime() - start, 1);
 			}
-		}catch(SQLException exp){
+		}catch(SQLException | IllegalArgumentException exp){
+			getMetrics().recordError(query, exp);
 			throw exp;
-		}catch(IllegalArgumentException iel){
-			throw iel;
 		}finally{
-			if(stmt != null) stmt.close();
+			releaseStatement(stmt);
+			invalidateResultCache(insertQuery.getTableName());
 		}
 		return affectedRows;
 	}
@@ -486,8 +677,9 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
         List<Integer> affectedRows = new ArrayList<Integer>();
         PreparedStatement stmt=null;
         //
-        Object[] keySet = rows.get(0).getKeys();
+        ParameterBinder binder = ParameterBinder.of(rows.get(0));
         String query = insertQuery.toString();
+        long start = System.nanoTime();
         boolean notBegin = conn.getAutoCommit();
         //
         try{
@@ -495,12 +687,12 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
             if(conn != null){
                 if(notBegin) begin();
                 stmt = autoId
-                        ? conn.prepareStatement(query,Statement.RETURN_GENERATED_KEYS)
-                        : conn.prepareStatement(query);
-                int batchCount = 1;
+                        ? prepareStatement(query,Statement.RETURN_GENERATED_KEYS)
+                        : prepareStatement(query);
+                int batchCount = 0;
                 List<int[]> batchUpdatedRowsCount = new ArrayList<int[]>();
-                for (Row row : rows) {
-                    stmt = bindValueToStatement(stmt, 1, keySet, row.keyValueMap());
+                for (int index = 0; index < rows.size(); index++) {
+                    binder.bind(stmt, 1, rows.get(index));
                     stmt.addBatch();
                     if((++batchCount % size) == 0){
                         batchUpdatedRowsCount.add(stmt.executeBatch());
@@ -510,22 +702,120 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
                     batchUpdatedRowsCount.add(stmt.executeBatch());
                 //
                 if(notBegin) end();
+                int written = 0;
                 for (int[] rr  : batchUpdatedRowsCount) {
                     for(int i = 0; i < rr.length ; i++){
                         affectedRows.add(rr[i]);
+                        if (rr[i] > 0) written += rr[i];
                     }
                 }
-                //
+                getMetrics().recordBatch(query, System.nanoTime() - start, rows.size(), written);
             }
         }catch(SQLException | IllegalArgumentException exp){
+            getMetrics().recordError(query, exp);
             if(notBegin) abort();
             throw exp;
         }finally{
             clearBatch(stmt);
+            invalidateResultCache(insertQuery.getTableName());
         }
         return affectedRows.toArray(new Integer[]{});
     }
 
+    /**
+     * Bulk insert with multi-row INSERT ... VALUES (...),(...) statements, one round-trip per chunk.
+     * Chunks hold at most size rows and stay under the driver's parameter and row limits (see DriverClass).
+     * Dialects without multi-row VALUES, or without per-row generated keys when autoId is true,
+     * fall back to a JDBC batch. All rows go in one transaction unless one is already open.
+     * @param autoId
+     * @param size rows per statement.
+     * @param insertQuery
+     * @param rows
+     * @return per row: the generated key when autoId (null if the driver gave none), else the update count.
+     * @throws SQLException
+     * @throws IllegalArgumentException
+     */
+    public Integer[] executeBulkInsert(boolean autoId, int size, SQLInsertQuery insertQuery, List<Row> rows) throws SQLException, IllegalArgumentException {
+        if(rows == null || rows.size() <= 0){
+            throw new SQLException("Parameter should not be null or empty!!!");
+        }
+        if(conn == null) return new Integer[0];
+        ParameterBinder binder = ParameterBinder.of(rows.get(0));
+        DriverClass driver = DriverClass.getMatchedDriver(conn.getMetaData().getURL());
+        int chunk = Math.min(Math.max(1, size), driver.maxRowsPerInsert());
+        chunk = Math.min(chunk, Math.max(1, driver.maxParameters() / Math.max(1, binder.size())));
+        boolean multiRow = chunk > 1 && (!autoId || driver.multiRowGeneratedKeys());
+        if (!multiRow) chunk = Math.max(1, size);
+        //
+        Integer[] results = new Integer[rows.size()];
+        String query = insertQuery.toString();
+        int autoGeneratedKeys = autoId ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS;
+        long start = System.nanoTime();
+        int written = 0;
+        boolean notBegin = conn.getAutoCommit();
+        PreparedStatement stmt = null;
+        try{
+            if(notBegin) begin();
+            if (multiRow){
+                for (int offset = 0; offset < rows.size(); offset += chunk) {
+                    int count = Math.min(chunk, rows.size() - offset);
+                    stmt = prepareStatement(insertQuery.toMultiRowString(count), autoGeneratedKeys);
+                    for (int index = 0; index < count; index++) {
+                        binder.bind(stmt, 1 + index * binder.size(), rows.get(offset + index));
+                    }
+                    int updated = stmt.executeUpdate();
+                    written += updated;
+                    if (autoId) readGeneratedKeys(stmt, results, offset, count);
+                    else Arrays.fill(results, offset, offset + count, (updated == count) ? 1 : Statement.SUCCESS_NO_INFO);
+                    releaseStatement(stmt);
+                    stmt = null;
+                }
+            }else {
+                stmt = prepareStatement(query, autoGeneratedKeys);
+                for (int offset = 0; offset < rows.size(); offset += chunk) {
+                    int count = Math.min(chunk, rows.size() - offset);
+                    for (int index = 0; index < count; index++) {
+                        binder.bind(stmt, 1, rows.get(offset + index));
+                        stmt.addBatch();
+                    }
+                    int[] updated = stmt.executeBatch();
+                    for (int index = 0; index < updated.length; index++) {
+                        if (updated[index] > 0) written += updated[index];
+                        if (!autoId) results[offset + index] = updated[index];
+                    }
+                    if (autoId) readGeneratedKeys(stmt, results, offset, count);
+                }
+            }
+            if(notBegin) end();
+            getMetrics().recordBatch(query, System.nanoTime() - start, rows.size(), written);
+        }catch(SQLException | IllegalArgumentException exp){
+            getMetrics().recordError(query, exp);
+            if(notBegin) abort();
+            throw exp;
+        }finally{
+            clearBatch(stmt);
+            invalidateResultCache(insertQuery.getTableName());
+        }
+        return results;
+    }
+
+    private static int sumOf(int[] counts) {
+        int sum = 0;
+        for (int count : counts) {
+            if (count > 0) sum += count;
+        }
+        return sum;
+    }
+
+    private void readGeneratedKeys(Statement stmt, Integer[] results, int offset, int count) throws SQLException {
+        try(ResultSet keys = stmt.getGeneratedKeys()){
+            int index = offset;
+            while (keys != null && index < offset + count && keys.next()){
+                results[index++] = keys.getInt(1);
+            }
+        }
+    }
+
     private void clearBatch(Statement stmt) throws SQLException {
         if(stmt != null){
             try {
@@ -533,8 +823,297 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
             } catch (Exception e) {
                 LOG.log(Level.WARNING, e.getMessage(), e);
             }
-            stmt.close();
+            releaseStatement(stmt);
+        }
+    }
+
+    /**
+     * Loads rows through the fastest path the driver has: COPY ... FROM STDIN (PostgreSQL),
+     * LOAD DATA LOCAL INFILE (MySQL; Connector/J 8 needs allowLoadLocalInfile=true) or CSVREAD (H2 embedded/file).
+     * Rows are encoded to CSV lazily while the driver reads; H2 reads a file, so its CSV is staged in H2's
+     * in-memory file system (memFS:), never on disk. Other drivers, or a driver whose classes can't be reached,
+     * fall back to executeBulkInsert in chunks of 1000 rows, in one transaction unless one is already open.
+     * The path is chosen before the first row is read, so a failing native load is thrown, never retried.
+     * Binary values (byte[], Blob) can't be loaded as CSV; use executeBulkInsert for those.
+     * @param table
+     * @param columns values are taken by these keys; a column missing from a row loads NULL.
+     * @param rows
+     * @return rows loaded.
+     * @throws SQLException
+     * @throws IllegalArgumentException
+     */
+    public long bulkLoad(String table, String[] columns, Iterator<Row> rows) throws SQLException, IllegalArgumentException {
+        if(table == null || columns == null || columns.length == 0 || rows == null){
+            throw new IllegalArgumentException("Table, columns and rows must not be null or empty!");
+        }
+        if(conn == null || !rows.hasNext()) return 0;
+        String columnList = String.join(", ", columns);
+        DriverClass driver = DriverClass.getMatchedDriver(conn.getMetaData().getURL());
+        String query;
+        NativeLoader loader;
+        String nullToken = "";
+        boolean header = false;
+        switch (driver){
+            case PostgresQLv7:
+                query = "COPY " + table + " (" + columnList + ") FROM STDIN WITH (FORMAT csv)";
+                loader = copyIn(query);
+                break;
+            case MYSQL:
+                query = "LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + table
+                        + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY ''"
+                        + " LINES TERMINATED BY '\\n' (" + columnList + ")";
+                loader = loadLocalInfile(query);
+                nullToken = "NULL";
+                break;
+            case H2_EMBEDDED:
+            case H2_FILE:
+                String file = "memFS:bulk-load-" + UUID.randomUUID() + ".csv";
+                query = "INSERT INTO " + table + " (" + columnList + ") SELECT * FROM CSVREAD('" + file + "', NULL, 'charset=UTF-8')";
+                loader = csvRead(query, file);
+                header = true;
+                break;
+            default:
+                query = null;
+                loader = null;
+        }
+        if (loader == null) return insertInChunks(table, columns, rows);
+        long start = System.nanoTime();
+        try{
+            CsvRowStream csv = new CsvRowStream(columns, rows, nullToken, header);
+            long loaded = loader.load(csv);
+            getMetrics().recordBatch(query, System.nanoTime() - start, (int) csv.getCount(), (int) loaded);
+            return loaded;
+        }catch(SQLException | IllegalArgumentException exp){
+            getMetrics().recordError(query, exp);
+            throw exp;
+        }finally{
+            invalidateResultCache(table);
+        }
+    }
+
+    public long bulkLoad(String table, String[] columns, Stream<Row> rows) throws SQLException, IllegalArgumentException {
+        if(rows == null) throw new IllegalArgumentException("Rows must not be null!");
+        return bulkLoad(table, columns, rows.iterator());
+    }
+
+    /**
+     * @param table
+     * @param data columns are the keys of its first row.
+     * @return rows loaded.
+     */
+    public long bulkLoad(String table, Table data) throws SQLException, IllegalArgumentException {
+        if(data == null || data.getRows().isEmpty()) return 0;
+        return bulkLoad(table, data.getRows().get(0).getKeys(), data.getRows().iterator());
+    }
+
+    /**
+     * Loads entities into their table; auto-increment keys are left to the database.
+     * @param type
+     * @param items
+     * @return rows loaded.
+     */
+    public <T extends Entity> long bulkLoad(Class<T> type, Iterator<T> items) throws SQLException, IllegalArgumentException {
+        if(type == null || items == null) throw new IllegalArgumentException("Type and items must not be null!");
+        List<EntityMetadata.FieldMetadata> fields = new ArrayList<>();
+        for (EntityMetadata.FieldMetadata field : EntityMetadata.of(type).getProperties()) {
+            if (!field.isAutoIncrement()) fields.add(field);
+        }
+        String[] columns = new String[fields.size()];
+        for (int index = 0; index < columns.length; index++) {
+            columns[index] = fields.get(index).getColumnName();
+        }
+        Iterator<Row> rows = new Iterator<Row>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+            @Override
+            public Row next() {
+                return rowOf(columns, fields, items.next());
+            }
+        };
+        return bulkLoad(EntityMetadata.tableName(type), columns, rows);
+    }
+
+    private static Row rowOf(String[] columns, List<EntityMetadata.FieldMetadata> fields, Object item) {
+        Row row = new Row();
+        try {
+            for (int index = 0; index < columns.length; index++) {
+                //Row.add() drops a property equal in value to one already added; every column is needed:
+                row.getProperties().add(new Property(columns[index], fields.get(index).get(item)));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return row;
+    }
+
+    /**
+     * A native load, resolved before any row is read.
+     */
+    @FunctionalInterface
+    private interface NativeLoader {
+        long load(InputStream csv) throws SQLException;
+    }
+
+    /**
+     * @return null when the PostgreSQL driver's CopyManager can't be reached.
+     */
+    private NativeLoader copyIn(String query) throws SQLException {
+        Object api;
+        Method copyIn;
+        try {
+            ClassLoader loader = conn.getClass().getClassLoader();
+            Class<?> pgConnection = Class.forName("org.postgresql.PGConnection", false, loader);
+            Class<?> copyManager = Class.forName("org.postgresql.copy.CopyManager", false, loader);
+            if (!conn.isWrapperFor(pgConnection)) return null;
+            api = pgConnection.getMethod("getCopyAPI").invoke(conn.unwrap(pgConnection));
+            copyIn = copyManager.getMethod("copyIn", String.class, InputStream.class);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+            return null;
+        } catch (InvocationTargetException e) {
+            throw nativeLoadFailure(e);
+        }
+        return csv -> {
+            try {
+                return (Long) copyIn.invoke(api, query, csv);
+            } catch (IllegalAccessException e) {
+                throw new SQLException(e.getMessage(), e);
+            } catch (InvocationTargetException e) {
+                throw nativeLoadFailure(e);
+            }
+        };
+    }
+
+    /**
+     * @return null when no Connector/J statement with setLocalInfileInputStream can be reached.
+     */
+    private NativeLoader loadLocalInfile(String query) throws SQLException {
+        ClassLoader loader = conn.getClass().getClassLoader();
+        //Connector/J 8 (cj) first, then 5.x:
+        for (String name : new String[]{"com.mysql.cj.jdbc.JdbcStatement", "com.mysql.jdbc.Statement"}) {
+            Class<?> type;
+            Method setStream;
+            try {
+                type = Class.forName(name, false, loader);
+                setStream = type.getMethod("setLocalInfileInputStream", InputStream.class);
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                continue;
+            }
+            return csv -> {
+                try(Statement stmt = conn.createStatement()) {
+                    if (!stmt.isWrapperFor(type)) throw new SQLException(stmt.getClass().getName() + " is not a " + type.getName());
+                    setStream.invoke(stmt.unwrap(type), csv);
+                    return stmt.executeUpdate(query);
+                } catch (IllegalAccessException e) {
+                    throw new SQLException(e.getMessage(), e);
+                } catch (InvocationTargetException e) {
+                    throw nativeLoadFailure(e);
+                }
+            };
+        }
+        return null;
+    }
+
+    /**
+     * CSVREAD only reads files; they are written to H2's in-memory file system (FileUtils accepts memFS: paths).
+     * @return null when H2's FileUtils can't be reached.
+     */
+    private NativeLoader csvRead(String query, String file) {
+        Method newOutputStream;
+        Method delete;
+        try {
+            Class<?> fileUtils = Class.forName("org.h2.store.fs.FileUtils", false, conn.getClass().getClassLoader());
+            newOutputStream = fileUtils.getMethod("newOutputStream", String.class, boolean.class);
+            delete = fileUtils.getMethod("delete", String.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+            return null;
+        }
+        return csv -> {
+            try {
+                try(OutputStream out = (OutputStream) newOutputStream.invoke(null, file, false)) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = csv.read(buffer)) != -1) out.write(buffer, 0, read);
+                }
+                try(Statement stmt = conn.createStatement()) {
+                    return stmt.executeUpdate(query);
+                }
+            } catch (IOException | IllegalAccessException e) {
+                throw new SQLException(e.getMessage(), e);
+            } catch (InvocationTargetException e) {
+                throw nativeLoadFailure(e);
+            } finally {
+                try {
+                    delete.invoke(null, file);
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    LOG.log(Level.WARNING, e.getMessage(), e);
+                }
+            }
+        };
+    }
+
+    private static SQLException nativeLoadFailure(InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof SQLException) return (SQLException) cause;
+        if (cause instanceof IllegalArgumentException) throw (IllegalArgumentException) cause;
+        return new SQLException((cause != null) ? cause.getMessage() : e.getMessage(), cause);
+    }
+
+    private long insertInChunks(String table, String[] columns, Iterator<Row> rows) throws SQLException, IllegalArgumentException {
+        final int chunkSize = 1000;
+        Property[] properties = new Property[columns.length];
+        for (int index = 0; index < columns.length; index++) {
+            properties[index] = new Property(columns[index]);
+        }
+        SQLInsertQuery insertQuery = new SQLQuery.Builder(QueryType.INSERT)
+                .into(table)
+                .values(properties)
+                .build();
+        long loaded = 0;
+        boolean notBegin = conn.getAutoCommit();
+        try{
+            if(notBegin) begin();
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            while (rows.hasNext()){
+                chunk.add(columnsOf(columns, rows.next()));
+                if (chunk.size() == chunkSize || !rows.hasNext()){
+                    for (Integer count : executeBulkInsert(false, chunkSize, insertQuery, chunk)) {
+                        if (count != null && count > 0) loaded += count;
+                    }
+                    chunk.clear();
+                }
+            }
+            if(notBegin) end();
+        }catch(SQLException | IllegalArgumentException exp){
+            if(notBegin) abort();
+            throw exp;
+        }
+        return loaded;
+    }
+
+    /**
+     * Same as the CSV paths: values in column order, NULL for a column missing from the row.
+     */
+    private static Row columnsOf(String[] columns, Row row) {
+        List<Property> properties = row.getProperties();
+        Row result = new Row();
+        for (int index = 0; index < columns.length; index++) {
+            Property property = (index < properties.size()) ? properties.get(index) : null;
+            if (property == null || !columns[index].equals(property.getKey())) {
+                property = null;
+                for (Property candidate : properties) {
+                    if (columns[index].equals(candidate.getKey())) {
+                        property = candidate;
+                        break;
+                    }
+                }
+            }
+            result.getProperties().add((property != null) ? property : new Property(columns[index]));
         }
+        return result;
     }
 
 	public Integer getScalerValue(String query)
@@ -543,21 +1122,24 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 		ResultSet rs = null;
 		PreparedStatement pstmt = null;
 		int rowCount = 0;
+		long start = System.nanoTime();
 		try{
 			if(conn != null){
-				pstmt = conn.prepareStatement(query);
+				pstmt = prepareStatement(query);
 				rs = pstmt.executeQuery();
 				if (rs.next()) {
 					rowCount = rs.getInt(1);
 				} else {
 					rowCount=0;
 				}
+				getMetrics().recordRead(query, System.nanoTime() - start, 1);
 			}
 		}catch(SQLException e){
+			getMetrics().recordError(query, e);
 			throw e;
 		}finally{
-			if(pstmt != null)
-				pstmt.close();
+			if(rs != null) rs.close();
+			releaseStatement(pstmt);
 		}
 		return rowCount;
 	}
@@ -570,25 +1152,25 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 		int rowCount = 0;
 		String query = scalerQuery.toString();
 		Row whereClause = scalerQuery.getWhereProperties();
+		long start = System.nanoTime();
 		try{
 			if(conn != null){
-				pstmt = conn.prepareStatement(query);
-				pstmt = bindValueToStatement(pstmt
-						, 1
-						, whereClause.getKeys()
-						, whereClause.keyValueMap());
+				pstmt = prepareStatement(query);
+				pstmt = bindValueToStatement(pstmt, 1, whereClause);
 				rs = pstmt.executeQuery();
 				if (rs.next()) {
 					rowCount = rs.getInt(1);
 				} else {
 					rowCount=0;
 				}
+				getMetrics().recordRead(query, System.nanoTime() - start, 1);
 			}
 		}catch(SQLException e){
+			getMetrics().recordError(query, e);
 			throw e;
 		}finally{
-			if(pstmt != null)
-				pstmt.close();
+			if(rs != null) rs.close();
+			releaseStatement(pstmt);
 		}
 		return rowCount;
 	}
@@ -599,9 +1181,28 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 
 	@Override
 	public <T> List<T> executeSelect(String query, Class<T> type, Map<String, String> mappingKeys) throws SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException {
-		ResultSet set = executeSelect(query);
-		Table table = collection(set);
-		List result = table.inflate(type, mappingKeys);
+		if(query != null
+				&& query.length() > 0
+				&& !query.toUpperCase().startsWith("SELECT")){
+			throw new IllegalArgumentException("Query string must be a Select query!");
+		}
+		List<T> result = new ArrayList<>();
+		PreparedStatement stmt = null;
+		long start = System.nanoTime();
+		try{
+			if(conn != null){
+				stmt = prepareStatement(query);
+				try(ResultSet set = stmt.executeQuery()){
+					result = inflate(set, type, mappingKeys);
+				}
+				getMetrics().recordRead(query, System.nanoTime() - start, result.size());
+			}
+		}catch(SQLException | RuntimeException exp){
+			getMetrics().recordError(query, exp);
+			throw exp;
+		}finally{
+			releaseStatement(stmt);
+		}
 		return result;
 	}
 
@@ -611,12 +1212,181 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 
 	@Override
 	public <T> List<T> executeSelect(SQLSelectQuery query, Class<T> type, Map<String, String> mappingKeys) throws SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException {
-		ResultSet set = executeSelect(query);
-		Table table = collection(set);
-		List result = table.inflate(type, mappingKeys);
+		List<T> result = new ArrayList<>();
+		Row whereClause = query.getWhereProperties();
+		PreparedStatement stmt = null;
+		String queryStr = query.toString();
+		QueryResultCache.Key cacheKey = isTransactionOpen() ? null : resultCacheKey(query, type, mappingKeys);
+		List<T> cached = getCachedResult(cacheKey, queryStr);
+		if (cached != null) return cached;
+		long start = System.nanoTime();
+		try{
+			if(conn != null && !conn.isClosed()){
+				//Rows are fully read here, so the statement can go back to the cache.
+				stmt = prepareStatement(queryStr);
+				stmt = bindValueToStatement(stmt, 1, whereClause);
+				try(ResultSet set = stmt.executeQuery()){
+					result = inflate(set, type, mappingKeys);
+				}
+				getMetrics().recordRead(queryStr, System.nanoTime() - start, result.size());
+				cacheResult(cacheKey, result);
+			}
+		}catch(SQLException | RuntimeException exp){
+			getMetrics().recordError(queryStr, exp);
+			throw exp;
+		}finally{
+			releaseStatement(stmt);
+		}
+		return result;
+	}
+
+	/**
+	 * Select from a template: the SQL was built once, only the values are bound here.
+	 * @param bound
+	 * @param type
+	 * @param mappingKeys Column:Name -> field name, may be null.
+	 * @return
+	 */
+	public <T> List<T> executeSelect(QueryTemplate.Bound bound, Class<T> type, Map<String, String> mappingKeys) throws SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException {
+		QueryTemplate template = bound.getTemplate();
+		if (template.isWrite()) throw new IllegalArgumentException("Template must be a Select query!");
+		List<T> result = new ArrayList<>();
+		PreparedStatement stmt = null;
+		String queryStr = template.getSql();
+		QueryResultCache.Key cacheKey = isTransactionOpen() ? null : resultCacheKey(bound, type, mappingKeys);
+		List<T> cached = getCachedResult(cacheKey, queryStr);
+		if (cached != null) return cached;
+		long start = System.nanoTime();
+		try{
+			if(conn != null && !conn.isClosed()){
+				stmt = prepareStatement(queryStr);
+				stmt = bindValueToStatement(stmt, 1, bound);
+				try(ResultSet set = stmt.executeQuery()){
+					result = inflate(set, type, mappingKeys);
+				}
+				getMetrics().recordRead(queryStr, System.nanoTime() - start, result.size());
+				cacheResult(cacheKey, result);
+			}
+		}catch(SQLException | RuntimeException exp){
+			getMetrics().recordError(queryStr, exp);
+			throw exp;
+		}finally{
+			releaseStatement(stmt);
+		}
 		return result;
 	}
 
+	/**
+	 * Insert, update or delete from a template.
+	 * @param bound
+	 * @return affected rows.
+	 * @throws SQLException
+	 */
+	public Integer executeUpdate(QueryTemplate.Bound bound) throws SQLException, IllegalArgumentException {
+		QueryTemplate template = bound.getTemplate();
+		if (!template.isWrite()) throw new IllegalArgumentException("Template must be an Insert, Update or Delete query!");
+		int rowUpdated = 0;
+		PreparedStatement stmt = null;
+		String queryStr = template.getSql();
+		long start = System.nanoTime();
+		try{
+			if(conn != null){
+				stmt = prepareStatement(queryStr);
+				stmt = bindValueToStatement(stmt, 1, bound);
+				rowUpdated = stmt.executeUpdate();
+				getMetrics().recordWrite(queryStr, System.nanoTime() - start, rowUpdated);
+			}
+		}catch(SQLException | IllegalArgumentException exp){
+			getMetrics().recordError(queryStr, exp);
+			throw exp;
+		}finally{
+			releaseStatement(stmt);
+			invalidateResultCache(template.getTableName());
+		}
+		return rowUpdated;
+	}
+
+	public Integer getScalarValue(QueryTemplate.Bound bound) throws SQLException {
+		QueryTemplate template = bound.getTemplate();
+		if (template.isWrite()) throw new IllegalArgumentException("Template must be a Select query!");
+		ResultSet rs = null;
+		PreparedStatement pstmt = null;
+		int rowCount = 0;
+		String query = template.getSql();
+		long start = System.nanoTime();
+		try{
+			if(conn != null){
+				pstmt = prepareStatement(query);
+				pstmt = bindValueToStatement(pstmt, 1, bound);
+				rs = pstmt.executeQuery();
+				if (rs.next()) {
+					rowCount = rs.getInt(1);
+				}
+				getMetrics().recordRead(query, System.nanoTime() - start, 1);
+			}
+		}catch(SQLException e){
+			getMetrics().recordError(query, e);
+			throw e;
+		}finally{
+			if(rs != null) rs.close();
+			releaseStatement(pstmt);
+		}
+		return rowCount;
+	}
+
+	/**
+	 * Fills objects straight from the ResultSet columns, without intermediate Row/Property.
+	 * Only columns that map to a field of type are read.
+	 * @param rst
+	 * @param type
+	 * @param mappingKeys Column:Name -> field name, may be null.
+	 * @return
+	 * @throws SQLException
+	 */
+	public <T> List<T> inflate(ResultSet rst, Class<T> type, Map<String, String> mappingKeys) throws SQLException, InstantiationException, IllegalAccessException {
+		List<T> result = new ArrayList<>();
+		ResultSetCursor.RowReader<T> reader = createBinderReader(type, mappingKeys);
+		ResultSetMetaData rsmd = rst.getMetaData();
+		int numCol = rsmd.getColumnCount();
+		try {
+			while (rst.next()){
+				result.add(reader.read(rst, rsmd, numCol));
+			}
+		} catch (SQLException e) {
+			if (e.getCause() instanceof InstantiationException) throw (InstantiationException) e.getCause();
+			if (e.getCause() instanceof IllegalAccessException) throw (IllegalAccessException) e.getCause();
+			throw e;
+		}
+		return result;
+	}
+
+	protected <T> ResultSetCursor.RowReader<T> createBinderReader(Class<T> type, Map<String, String> mappingKeys) {
+		return new ResultSetCursor.RowReader<T>() {
+			private RowBinder<T> binder;
+			private DataType[] types;
+			private ResultSet source;
+			private final RowBinder.ColumnValues values = index -> getValueFromResultSet(types[index], source, index + 1);
+			@Override
+			public T read(ResultSet rst, ResultSetMetaData rsmd, int numCol) throws SQLException {
+				try {
+					if (binder == null){
+						String[] columns = new String[numCol];
+						types = new DataType[numCol];
+						for (int x = 1; x <= numCol; x++) {
+							columns[x - 1] = rsmd.getColumnName(x);
+							types[x - 1] = convertDataType(rsmd.getColumnTypeName(x));
+						}
+						binder = RowBinder.of(type, columns, mappingKeys);
+					}
+					source = rst;
+					return binder.bind(values);
+				} catch (InstantiationException | IllegalAccessException e) {
+					throw new SQLException(e.getMessage(), e);
+				}
+			}
+		};
+	}
+
 	public Boolean executeDDLQuery(String query) throws SQLException{
 
 		if(query == null
@@ -643,6 +1413,7 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 			throw exp;
 		}finally{
 			if(stmt != null) stmt.close();
+			invalidateResultCache(null);
 		}
 		return isCreated;
 	}
@@ -728,17 +1499,20 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 				|| query.trim().toLowerCase().startsWith("update")
 				|| query.trim().toLowerCase().startsWith("delete")) {    		
             PreparedStatement stmt = null;
+            long start = System.nanoTime();
             try{ 
                 if(conn != null){
-                    stmt = conn.prepareStatement(query);
+                    stmt = prepareStatement(query);
                     int rowUpdate = stmt.executeUpdate();
+                    getMetrics().recordWrite(query, System.nanoTime() - start, rowUpdate);
                     LOG.info("rows effected " + (rowUpdate == 0 ? "NO" : "YES"));
                 }            
             }catch(SQLException exp){
+                getMetrics().recordError(query, exp);
                 throw exp;
             }finally{
-            	if(stmt != null)
-            		stmt.close();
+            	releaseStatement(stmt);
+            	invalidateResultCache(null);
             }
             return null;
     	}else {
@@ -776,10 +1550,13 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 	    		throw new IllegalArgumentException("Query string must be a Select query!");
 	    	}
             if(conn != null){
+            	long start = System.nanoTime();
             	stmt = conn.prepareStatement(query, ResultSet.TYPE_SCROLL_SENSITIVE, ResultSet.CONCUR_READ_ONLY);
                 rst = stmt.executeQuery();                 
+                getMetrics().recordRead(query, System.nanoTime() - start, -1);
             }            
         }catch(SQLException exp){            
+            getMetrics().recordError(query, exp);
             throw exp;
         }catch(IllegalArgumentException iel){
         	throw iel;
@@ -806,20 +1583,116 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
         Row whereClause = query.getWhereProperties();
         try{
             if(conn != null && !conn.isClosed()){
+            	long start = System.nanoTime();
             	stmt = conn.prepareStatement(queryStr,ResultSet.TYPE_SCROLL_SENSITIVE,ResultSet.CONCUR_READ_ONLY);
-            	stmt = bindValueToStatement(stmt, 1, whereClause.getKeys(), whereClause.keyValueMap());
+            	stmt = bindValueToStatement(stmt, 1, whereClause);
         		rst = stmt.executeQuery();
+        		getMetrics().recordRead(queryStr, System.nanoTime() - start, -1);
             }            
         }catch(SQLException exp){            
+            getMetrics().recordError(queryStr, exp);
             throw exp;
         }catch(IllegalArgumentException iel){
         	throw iel;
         }finally{
         	getStatementHolder().add(stmt);
         }
-        return rst;           
+        return rst;
     }
 
+	/**
+	 * Executes the query with a TYPE_FORWARD_ONLY, CONCUR_READ_ONLY cursor.
+	 * Caller owns the returned ResultSet and must close its Statement.
+	 * @param query
+	 * @param fetchSize driver fetch size; 0 keeps driver default,
+	 *                  STREAMING_FETCH_SIZE enables MySQL row-by-row streaming.
+	 *                  (PostgreSQL only honours fetch size when auto-commit is off.)
+	 * @return
+	 * @throws SQLException
+	 */
+	public ResultSet executeSelect(SQLSelectQuery query, int fetchSize)
+			throws SQLException, IllegalArgumentException{
+
+		PreparedStatement stmt = null;
+		ResultSet rst = null;
+		String queryStr = query.toString();
+		Row whereClause = query.getWhereProperties();
+		try{
+			if(conn != null && !conn.isClosed()){
+				long start = System.nanoTime();
+				stmt = conn.prepareStatement(queryStr, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+				applyFetchSize(stmt, fetchSize);
+				stmt = bindValueToStatement(stmt, 1, whereClause);
+				rst = stmt.executeQuery();
+				getMetrics().recordRead(queryStr, System.nanoTime() - start, -1);
+			}
+		}catch(SQLException | IllegalArgumentException exp){
+			getMetrics().recordError(queryStr, exp);
+			if(stmt != null) stmt.close();
+			throw exp;
+		}
+		return rst;
+	}
+
+	/**
+	 * Lazily streams rows of the query, one row in memory at a time.
+	 * Must be closed (e.g. try-with-resource) unless it is fully consumed.
+	 * @param query
+	 * @param fetchSize
+	 * @return
+	 * @throws SQLException
+	 */
+	public Stream<Row> stream(SQLSelectQuery query, int fetchSize) throws SQLException {
+		return openCursor(query, fetchSize, this::createRowFrom).stream();
+	}
+
+	public <T> Stream<T> stream(SQLSelectQuery query, int fetchSize, Class<T> type, Map<String, String> mappingKeys) throws SQLException {
+		return openCursor(query, fetchSize, createBinderReader(type, mappingKeys)).stream();
+	}
+
+	/**
+	 * Per-row callback variant of stream(); statement is closed before return.
+	 * @param query
+	 * @param fetchSize
+	 * @param type
+	 * @param mappingKeys
+	 * @param consumer
+	 * @throws SQLException
+	 */
+	public <T> void executeSelect(SQLSelectQuery query, int fetchSize, Class<T> type, Map<String, String> mappingKeys, Consumer<T> consumer) throws SQLException {
+		if (consumer == null) return;
+		try(Stream<T> items = stream(query, fetchSize, type, mappingKeys)) {
+			items.forEach(consumer);
+		}catch (RuntimeException e){
+			if (e.getCause() instanceof SQLException) throw (SQLException) e.getCause();
+			throw e;
+		}
+	}
+
+	protected <T> ResultSetCursor<T> openCursor(SQLSelectQuery query, int fetchSize, ResultSetCursor.RowReader<T> reader) throws SQLException {
+		ResultSet rst = executeSelect(query, fetchSize);
+		if (rst == null) throw new SQLException("Executor-Connection is not available.");
+		Statement stmt = rst.getStatement();
+		getStatementHolder().add(stmt);
+		try {
+			return new ResultSetCursor<>(stmt, rst, reader, () -> getStatementHolder().remove(stmt));
+		} catch (SQLException e) {
+			stmt.close();
+			getStatementHolder().remove(stmt);
+			throw e;
+		}
+	}
+
+	protected void applyFetchSize(Statement stmt, int fetchSize) throws SQLException {
+		if (fetchSize == 0) return;
+		if (fetchSize == STREAMING_FETCH_SIZE){
+			//Integer.MIN_VALUE is a MySQL only convention, others reject negative values.
+			DriverClass driver = DriverClass.getMatchedDriver(conn.getMetaData().getURL());
+			if (driver != DriverClass.MYSQL) return;
+		}
+		stmt.setFetchSize(fetchSize);
+	}
+
 	public Table collection(ResultSet rst, String...columns){
     	if(columns.length == 0) {
     		return collection(rst);
@@ -850,6 +1723,135 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 		return result;
 	}
 
+	/**
+	 * Like collection(), but into a ColumnarTable: numeric and boolean columns are kept in
+	 * primitive arrays, so no Row, Property or boxed value is created per cell.
+	 * @param rst
+	 * @param columns optional subset of columns, in the wanted order.
+	 * @return null if reading the ResultSet failed.
+	 */
+	public ColumnarTable columnarCollection(ResultSet rst, String...columns){
+		try {
+			return createColumnarTableFrom(rst, columns);
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, e.getMessage(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Runs the query forward-only and reads it straight into a ColumnarTable; the statement is closed before return.
+	 * @param query
+	 * @param fetchSize see executeSelect(SQLSelectQuery, int).
+	 * @return
+	 * @throws SQLException
+	 */
+	public ColumnarTable executeSelectColumnar(SQLSelectQuery query, int fetchSize) throws SQLException {
+		ResultSet rst = executeSelect(query, fetchSize);
+		if (rst == null) throw new SQLException("Executor-Connection is not available.");
+		Statement stmt = rst.getStatement();
+		try {
+			ColumnarTable table = createColumnarTableFrom(rst);
+			table.trimToSize();
+			return table;
+		} finally {
+			stmt.close();
+		}
+	}
+
+	protected ColumnarTable createColumnarTableFrom(ResultSet rst, String...columns) throws SQLException {
+		//IF cursor is moved till last row. Then set to the above first row.
+		if(rst.getType() == ResultSet.TYPE_SCROLL_SENSITIVE && rst.isAfterLast()){
+			rst.beforeFirst();
+		}
+		ResultSetMetaData rsmd = rst.getMetaData();
+		int[] indices;
+		if (columns == null || columns.length == 0){
+			indices = new int[rsmd.getColumnCount()];
+			for (int x = 0; x < indices.length; x++) indices[x] = x + 1;
+		}else {
+			indices = new int[columns.length];
+			for (int x = 0; x < indices.length; x++) indices[x] = rst.findColumn(columns[x]);
+		}
+		String[] names = new String[indices.length];
+		DataType[] types = new DataType[indices.length];
+		DataType[] readAs = new DataType[indices.length];
+		for (int column = 0; column < indices.length; column++) {
+			names[column] = rsmd.getColumnName(indices[column]);
+			types[column] = getColumnarType(rsmd.getColumnType(indices[column]));
+			readAs[column] = convertDataType(rsmd.getColumnTypeName(indices[column]));
+		}
+		ColumnarTable table = new ColumnarTable(names, types);
+		while (rst.next()){
+			int row = table.addRow();
+			for (int column = 0; column < indices.length; column++) {
+				int x = indices[column];
+				switch (table.getType(column)){
+					case INT:
+						int intValue = rst.getInt(x);
+						if (rst.wasNull()) table.setNull(row, column); else table.setInt(row, column, intValue);
+						break;
+					case LONG:
+						long longValue = rst.getLong(x);
+						if (rst.wasNull()) table.setNull(row, column); else table.setLong(row, column, longValue);
+						break;
+					case FLOAT:
+						float floatValue = rst.getFloat(x);
+						if (rst.wasNull()) table.setNull(row, column); else table.setFloat(row, column, floatValue);
+						break;
+					case DOUBLE:
+						double doubleValue = rst.getDouble(x);
+						if (rst.wasNull()) table.setNull(row, column); else table.setDouble(row, column, doubleValue);
+						break;
+					case BOOL:
+						boolean boolValue = rst.getBoolean(x);
+						if (rst.wasNull()) table.setNull(row, column); else table.setBoolean(row, column, boolValue);
+						break;
+					case STRING:
+						table.setObject(row, column, rst.getString(x));
+						break;
+					default:
+						table.setObject(row, column, getValueFromResultSet(readAs[column], rst, x));
+						break;
+				}
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Storage type of a ColumnarTable column for a java.sql.Types code.
+	 * @param sqlType
+	 * @return
+	 */
+	protected DataType getColumnarType(int sqlType){
+		switch (sqlType){
+			case Types.INTEGER:
+			case Types.SMALLINT:
+			case Types.TINYINT:
+				return DataType.INT;
+			case Types.BIGINT:
+				return DataType.LONG;
+			case Types.REAL:
+				return DataType.FLOAT;
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				return DataType.DOUBLE;
+			case Types.BIT:
+			case Types.BOOLEAN:
+				return DataType.BOOL;
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+				return DataType.STRING;
+			default:
+				return DataType.OBJECT;
+		}
+	}
+
 	public List<Row> convertToLists(ResultSet rst){
 		List<Row> result = createRowsFrom(rst);
 		return result;
@@ -1316,155 +2318,54 @@ public class SQLExecutor extends AbstractExecutor implements QueryExecutor<SQLSe
 	
 	/*>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>Private Methods>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>*/
 	
-	private PreparedStatement bindValueToStatement(PreparedStatement stmt
+	/**
+	 * Binds the row's values in slot order, so a where clause may use one column more than once (e.g. a range).
+	 */
+	protected PreparedStatement bindValueToStatement(PreparedStatement stmt, int startIndex, Row row)
+	throws SQLException, IllegalArgumentException{
+		int index = startIndex;
+		List<Property> properties = row.getProperties();
+		for (int position = 0; position < properties.size(); position++) {
+			Property property = properties.get(position);
+			if (property.getType() == DataType.NULL_SKIP) continue;
+			ParameterBinder.setterOf(property.getType()).set(stmt, index++, property.getValue());
+		}
+		return stmt;
+	}
+
+	/**
+	 * Binds a template's values with the setters of its slot types.
+	 */
+	protected PreparedStatement bindValueToStatement(PreparedStatement stmt, int startIndex, QueryTemplate.Bound bound)
+	throws SQLException, IllegalArgumentException{
+		QueryTemplate template = bound.getTemplate();
+		for (int slot = 0; slot < bound.size(); slot++) {
+			ParameterBinder.setterOf(template.getSlotType(slot)).set(stmt, startIndex + slot, bound.getValue(slot));
+		}
+		return stmt;
+	}
+
+	protected PreparedStatement bindValueToStatement(PreparedStatement stmt
 			, int startIndex
 			, Object[] params
 			, Map<String, Property> paramValues)
     throws SQLException,IllegalArgumentException{
-    	
-    	try{
-    		if(params.length == paramValues.size()){
-            	
-            	if(stmt != null){
-            		int index = 1;
-            		if(startIndex > 0){
-            			index = startIndex;
-            		}else{
-            			throw new IllegalArgumentException("Index Out Of Bound!!!");
-            		}
-            		for (Object param : params) {
-            			
-            			Property property = paramValues.get(param.toString());
-            			if (property.getType() == DataType.NULL_SKIP)
-            			    continue;
-
-            			switch (property.getType()) {
-	            			case STRING:
-	            				stmt.setString(index++, (property.getValue() != null)
-                                        ? property.getValue().toString().trim()
-                                        : null);
-	            				break;
-	            			case INT:
-	            				if(property.getValue() != null){
-	            					stmt.setInt(index++, (Integer)property.getValue());
-	            				}else{
-	            					stmt.setNull(index++, java.sql.Types.INTEGER);
-	            				}
-	            				break;
-                            case LONG:
-                                if(property.getValue() != null){
-                                    stmt.setLong(index++, (Long)property.getValue());
-                                }else{
-                                    stmt.setNull(index++, Types.BIGINT);
-                                }
-                                break;
-	            			case BOOL:
-	            				if(property.getValue() != null){
-	            					boolean res = Boolean.valueOf(property.getValue().toString()) ? true : false;
-                                    stmt.setBoolean(index++, res);
-                                }else{
-                                    stmt.setBoolean(index++, false);
-                                }
-	            				break;
-	            			case FLOAT:
-	            				if(property.getValue() != null){
-	            					stmt.setFloat(index++, (Float)property.getValue());
-	            				}else{
-	            					stmt.setNull(index++, java.sql.Types.FLOAT);
-	            				}
-	            				break;
-	            			case DOUBLE:
-	            				if(property.getValue() != null){
-	            					stmt.setDouble(index++, (Double)property.getValue());
-	            				}else{
-	            					stmt.setNull(index++, java.sql.Types.DOUBLE);
-	            				}
-	            				break;
-	            			case SQLDATE:
-	            			case SQLTIMESTAMP:
-	            				if(property.getValue() != null) {
-	            					if(property.getValue() instanceof java.sql.Timestamp) {
-	            						stmt.setTimestamp(index++, (Timestamp)property.getValue());
-	            					}else if(property.getValue() instanceof java.sql.Time) {
-	            						stmt.setTime(index++, (Time)property.getValue());
-	            					}else {
-	            						stmt.setDate(index++, (Date)property.getValue());
-	            					}
-	            				}else {
-	            					stmt.setNull(index++, java.sql.Types.DATE);
-	            				}
-	            				break;
-	            			case BLOB:
-	            				if(property.getValue() != null && property.getValue() instanceof Blob){
-	            					stmt.setBlob(index++, (Blob)property.getValue());
-	            				}else if(property.getValue() != null && property.getValue() instanceof String){
-	            					byte[] bytes = property.getValue().toString().getBytes();
-	            					Blob blob = conn.createBlob();
-	            					blob.setBytes(1, bytes);
-	            					stmt.setBlob(index++, blob);
-	            				}
-	            				else{
-	            					stmt.setNull(index++, java.sql.Types.BLOB);
-	            				}
-	            				break;
-	            			case BYTEARRAY:
-	            				if(property.getValue() != null && property.getValue() instanceof Byte){
-                                    stmt.setBytes(index++, (byte[])property.getValue());
-                                }else if(property.getValue() != null && property.getValue() instanceof String){
-                                    stmt.setBytes(index++, ((String)property.getValue()).getBytes());
-                                }else if(property.getValue() != null){
-                                    stmt.setBytes(index++, (byte[])property.getValue());
-                                }else{
-                                    stmt.setNull(index++, java.sql.Types.ARRAY);
-                                }
-	            				break;
-                            case LIST:
-                                if (property.getValue() != null){
-                                    List items = (List) property.getValue();
-                                    Object obj = (items.size() > 0) ? items.get(0) : "";
-                                    if (obj instanceof Integer){
-                                        stmt.setArray(index++, conn.createArrayOf("integer", items.toArray(new Integer[0])));
-                                    }
-                                    else if (obj instanceof Double){
-                                        stmt.setArray(index++, conn.createArrayOf("double", items.toArray(new Double[0])));
-                                    }
-                                    else if (obj instanceof Float){
-                                        stmt.setArray(index++, conn.createArrayOf("float", items.toArray(new Float[0])));
-                                    }
-                                    else if (obj instanceof Long){
-                                        stmt.setArray(index++, conn.createArrayOf("long", items.toArray(new Long[0])));
-                                    }
-                                    else if((obj instanceof Timestamp)
-                                            || (obj instanceof Time)
-                                            || obj instanceof Date){
-                                        stmt.setArray(index++, conn.createArrayOf("timestamp", items.toArray()));
-                                    }
-                                    else if(obj instanceof String) {
-                                        stmt.setArray(index++, conn.createArrayOf("string", items.toArray(new String[0])));
-                                    }
-                                    else {
-                                        stmt.setArray(index++, conn.createArrayOf("object", items.toArray()));
-                                    }
-                                }else{
-                                    stmt.setNull(index++, Types.ARRAY);
-                                }
-                                break;
-	            			default:
-	            				if(property.getValue() != null)
-	            				    stmt.setObject(index++, property.getValue());
-	            				else
-	            				    stmt.setNull(index++, Types.NULL);
-	            				break;
-            			}
-            		}
-            	}
-            }else{
-            	throw new IllegalArgumentException("Parameter length mismatch");
-            }
-    	}catch(SQLException exp){
-    		throw exp;
-    	}
-    	return stmt;
+		if(params.length != paramValues.size()){
+			throw new IllegalArgumentException("Parameter length mismatch");
+		}
+		if(stmt != null){
+			if(startIndex <= 0){
+				throw new IllegalArgumentException("Index Out Of Bound!!!");
+			}
+			int index = startIndex;
+			for (Object param : params) {
+				Property property = paramValues.get(param.toString());
+				if (property.getType() == DataType.NULL_SKIP)
+					continue;
+				ParameterBinder.setterOf(property.getType()).set(stmt, index++, property.getValue());
+			}
+		}
+		return stmt;
     }
 	
 	protected Object getValueFromResultSet(DataType type, ResultSet rst, int index)
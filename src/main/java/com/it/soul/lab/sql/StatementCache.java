@@ -0,0 +1,192 @@
+package com.it.soul.lab.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-connection LRU cache of PreparedStatements, keyed by SQL text, result-set type/concurrency
+ * and generated-keys mode. A cached statement is checked out while in use, so the same SQL
+ * executed re-entrantly gets its own statement. Like the owning SQLExecutor it is not thread safe.
+ * Capacity 0 disables caching: every prepare goes to the driver and every release closes.
+ */
+class StatementCache {
+
+    private static final class Key {
+        private final String sql;
+        private final int resultSetType;
+        private final int resultSetConcurrency;
+        private final int autoGeneratedKeys;
+        private final int hash;
+
+        Key(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            int result = sql.hashCode();
+            result = 31 * result + resultSetType;
+            result = 31 * result + resultSetConcurrency;
+            result = 31 * result + autoGeneratedKeys;
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return resultSetType == key.resultSetType
+                    && resultSetConcurrency == key.resultSetConcurrency
+                    && autoGeneratedKeys == key.autoGeneratedKeys
+                    && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static Logger LOG = Logger.getLogger(StatementCache.class.getSimpleName());
+
+    private int capacity;
+    private final LinkedHashMap<Key, PreparedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<PreparedStatement, Key> checkedOut = new IdentityHashMap<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    StatementCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        return prepare(conn, new Key(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS));
+    }
+
+    PreparedStatement prepare(Connection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        return prepare(conn, new Key(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, autoGeneratedKeys));
+    }
+
+    PreparedStatement prepare(Connection conn, String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return prepare(conn, new Key(sql, resultSetType, resultSetConcurrency, Statement.NO_GENERATED_KEYS));
+    }
+
+    private PreparedStatement prepare(Connection conn, Key key) throws SQLException {
+        if (capacity > 0){
+            PreparedStatement stmt = idle.remove(key);
+            if (stmt != null && !stmt.isClosed()){
+                hits++;
+                checkedOut.put(stmt, key);
+                return stmt;
+            }
+            misses++;
+        }
+        PreparedStatement stmt = create(conn, key);
+        if (capacity > 0) checkedOut.put(stmt, key);
+        return stmt;
+    }
+
+    private PreparedStatement create(Connection conn, Key key) throws SQLException {
+        if (key.autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS){
+            return conn.prepareStatement(key.sql, Statement.RETURN_GENERATED_KEYS);
+        }
+        if (key.resultSetType == ResultSet.TYPE_FORWARD_ONLY
+                && key.resultSetConcurrency == ResultSet.CONCUR_READ_ONLY){
+            return conn.prepareStatement(key.sql);
+        }
+        return conn.prepareStatement(key.sql, key.resultSetType, key.resultSetConcurrency);
+    }
+
+    /**
+     * Hands a statement back. Statements the cache did not hand out (or handed out before
+     * the last invalidate) are closed.
+     * @param stmt
+     */
+    void release(Statement stmt) {
+        if (stmt == null) return;
+        Key key = (stmt instanceof PreparedStatement) ? checkedOut.remove(stmt) : null;
+        try {
+            if (key == null || stmt.isClosed()){
+                stmt.close();
+                return;
+            }
+            PreparedStatement pstmt = (PreparedStatement) stmt;
+            pstmt.clearParameters();
+            PreparedStatement previous = idle.put(key, pstmt);
+            if (previous != null && previous != pstmt) previous.close();
+            evictOverflow();
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+            closeQuietly(stmt);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<PreparedStatement> iterator = idle.values().iterator();
+        while (idle.size() > capacity && iterator.hasNext()){
+            PreparedStatement eldest = iterator.next();
+            iterator.remove();
+            evictions++;
+            closeQuietly(eldest);
+        }
+    }
+
+    /**
+     * Closes every idle statement and forgets checked-out ones, which get closed on release.
+     */
+    void invalidate() {
+        for (PreparedStatement stmt : idle.values()) {
+            closeQuietly(stmt);
+        }
+        idle.clear();
+        checkedOut.clear();
+    }
+
+    private void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        if (this.capacity == 0){
+            invalidate();
+        }else {
+            evictOverflow();
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int size() {
+        return idle.size();
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+
+    long getEvictions() {
+        return evictions;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.it.soul.lab.sql.entity;
+
+import com.it.soul.lab.data.base.DataSource;
+import com.it.soul.lab.data.simple.SimpleDataSource;
+
+import java.lang.annotation.*;
+
+/**
+ * Keeps entities of the annotated type in an EntityCache, keyed by primary key:
+ * Entity.read(type, exe, Property...) matching exactly the primary key columns is served from it,
+ * and insert/update/delete write through.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface EnableCache {
+    int maxSize() default 1000;
+    /**
+     * Seconds an entry stays valid; 0 keeps it until evicted.
+     */
+    long timeToLive() default 60 * 5;
+    /**
+     * Storage backend; needs a public no-arg constructor.
+     */
+    Class<? extends DataSource> storage() default SimpleDataSource.class;
+}
@@ -1,11 +1,10 @@
 package com.it.soul.lab.sql.entity;
 
+import com.it.soul.lab.sql.AbstractExecutor;
 import com.it.soul.lab.sql.QueryExecutor;
 import com.it.soul.lab.sql.query.*;
 import com.it.soul.lab.sql.query.models.*;
 
-import javax.persistence.GeneratedValue;
-import javax.persistence.Table;
 import java.lang.reflect.Field;
 import java.sql.*;
 import java.sql.Date;
@@ -18,16 +17,23 @@ public abstract class Entity implements EntityInterface{
 		super();
 	}
 
+	private transient EntityMetadata _metadata;
+
+	/**
+	 * Per-class metadata, built once (from this instance if it is the first one) and shared.
+	 * @return
+	 */
+	protected final EntityMetadata getMetadata() {
+		if (_metadata == null){
+			_metadata = EntityMetadata.of(this);
+		}
+		return _metadata;
+	}
+
 	protected List<Property> getProperties(QueryExecutor exe, boolean skipPrimary) {
-		List<Property> result = new ArrayList<>();
-		boolean acceptAll = shouldAcceptAllAsProperty();
-		Field[] fields = getDeclaredFields(true);
-		for (Field field : fields) {
-			if(acceptAll == false && hasColumnAnnotationPresent(field) == false) {
-				continue;
-			}
-			if (field.isAnnotationPresent(Ignore.class))
-				continue;
+		List<EntityMetadata.FieldMetadata> fields = getMetadata().getProperties();
+		List<Property> result = new ArrayList<>(fields.size());
+		for (EntityMetadata.FieldMetadata field : fields) {
 			Property prop = getProperty(field.getName(), exe, skipPrimary);
 			if(prop == null) {continue;}
 			result.add(prop);
@@ -45,19 +51,15 @@ public abstract class Entity implements EntityInterface{
 	protected Property getProperty(String fieldName, QueryExecutor exe, boolean skipPrimary) {
 		Property result = null;
 		try {
-			Field field = getDeclaredField(fieldName, true);
-			if(field.isAnnotationPresent(PrimaryKey.class)) {
+			EntityMetadata.FieldMetadata field = getMetadata().getField(fieldName, true);
+			if (field == null) throw new NoSuchFieldException( fieldName + " does't exist!");
+			if(field.isPrimaryKey() || field.isClusteringKey()) {
 				if (skipPrimary) {return null;}
-				if ((field.getAnnotation(PrimaryKey.class)).auto() == true
-						 && skipPrimary != false) {return null;}
 			}
-			field.setAccessible(true);
 			Object value = getFieldValue(field, exe);
 			//Here, we are skipping null value too.
 			if (value == null) return null;
-			String actualKey = getPropertyKey(field);
-			result = new Property(actualKey, value);
-			field.setAccessible(false);
+			result = new Property(field.getColumnName(), value);
 		} catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException | SQLException e) {
 			e.printStackTrace();
 		}
@@ -65,6 +67,8 @@ public abstract class Entity implements EntityInterface{
 	}
 
 	public final Field getDeclaredField(String fieldName, boolean inherit) throws NoSuchFieldException{
+		EntityMetadata.FieldMetadata meta = getMetadata().getField(fieldName, inherit);
+		if (meta != null) return meta.getField();
         //Search for the field, until get found any of the super class.
         //But not infinite round: MAX=8
         int maxLoopCount = 8;
@@ -84,11 +88,13 @@ public abstract class Entity implements EntityInterface{
         return field;
     }
 
-    private Object getFieldValue(Field field, QueryExecutor exe) throws IllegalArgumentException, IllegalAccessException, SQLException {
+    private Object getFieldValue(EntityMetadata.FieldMetadata field, QueryExecutor exe) throws IllegalArgumentException, IllegalAccessException, SQLException {
         Object value = field.get(this);
         //
-        if(value == null && field.isAnnotationPresent(Column.class) == true) {
-            Column annotation = field.getAnnotation(Column.class);
+        if(value == null && field.getDefaultValue() != null) {
+            value = field.getDefaultValue();
+        }else if(value == null && field.getColumnAnnotation() != null) {
+            Column annotation = field.getColumnAnnotation();
             String defaultVal = annotation.defaultValue();
             DataType type = annotation.type();
             switch (type) {
@@ -180,21 +186,30 @@ public abstract class Entity implements EntityInterface{
         return isAnnotated;
     }
 
+    /**
+     * Fields are cached per class and already accessible, so callers must not toggle setAccessible(false).
+     * @param inherit
+     * @return
+     */
     public final Field[] getDeclaredFields(boolean inherit){
-        List<Field> fields = new ArrayList<>();
-        fields.addAll(Arrays.asList(getClass().getDeclaredFields()));
-        if (inherit){
-            //Inherit properties from one immediate parent which is not Entity.class.
-            /*if (!getClass().getSuperclass().getSimpleName().equalsIgnoreCase(Entity.class.getSimpleName())){
-                fields.addAll(Arrays.asList(getClass().getSuperclass().getDeclaredFields()));
-            }*/
-            Class mySuperClass = getClass().getSuperclass();
-            while(!mySuperClass.getSimpleName().equalsIgnoreCase(Entity.class.getSimpleName())){
-                fields.addAll(Arrays.asList(mySuperClass.getDeclaredFields()));
-                mySuperClass = mySuperClass.getSuperclass();
-            }
-        }
-        return fields.toArray(new Field[0]);
+        return getMetadata().getDeclaredFields(inherit);
+    }
+
+    /**
+     * CQLEntity treats @ClusteringKey fields as part of the primary key.
+     * @param field
+     * @return
+     */
+    protected boolean isClusteringKeyField(Field field) {
+        return false;
+    }
+
+    /**
+     * Read once per class while building EntityMetadata.
+     * @return
+     */
+    protected long readTTLValue() {
+        return 0L;
     }
 
 	protected String getPropertyKey(Field field) {
@@ -219,64 +234,15 @@ public abstract class Entity implements EntityInterface{
 		return Entity.shouldAcceptAllAsProperty(this.getClass());
 	}
 
-	private Boolean _isAutoIncremented = null;
 	private boolean isAutoIncrement() {
-		if(_isAutoIncremented == null) {
-            _isAutoIncremented = false;
-			PrimaryKey primAnno = getPrimaryKey();
-			if(primAnno != null) {
-				_isAutoIncremented = primAnno.auto();
-			}
-			Field genField = getGeneratedValueField();
-			if (!_isAutoIncremented && genField != null){
-                _isAutoIncremented = true;
-            }
-		}
-		return _isAutoIncremented;
-	}
-
-	private Field getGeneratedValueField(){
-	    Field[] fields = getDeclaredFields(true);
-	    Field fl = null;
-        for (Field field: fields) {
-            if (field.isAnnotationPresent(GeneratedValue.class)){
-                fl = field;
-                break;
-            }
-        }
-        return fl;
-    }
-
-    private List<PrimaryKey> getPrimaryKeys() {
-        List<PrimaryKey> keys = new ArrayList<>();
-        List<Field> fields = getPrimaryFields();
-        for (Field field : fields) {
-            if(field.isAnnotationPresent(PrimaryKey.class)) {
-                keys.add(field.getAnnotation(PrimaryKey.class));
-            }
-        }
-        return keys;
-    }
-
-	private PrimaryKey getPrimaryKey() {
-		PrimaryKey key = null;
-		List<Field> fields = getPrimaryFields();
-		for (Field field : fields) {
-			if(field.isAnnotationPresent(PrimaryKey.class)) {
-				key = field.getAnnotation(PrimaryKey.class);
-				break;
-			}
-		}
-		return key;
+		return getMetadata().isAutoIncrement();
 	}
 
     protected List<Field> getPrimaryFields() {
-        List<Field> keys = new ArrayList<>();
-        Field[] fields = getDeclaredFields(true);
-        for (Field field : fields) {
-            if(field.isAnnotationPresent(PrimaryKey.class)) {
-                keys.add(field);
-            }
+        List<EntityMetadata.FieldMetadata> primaryFields = getMetadata().getPrimaryFields();
+        List<Field> keys = new ArrayList<>(primaryFields.size());
+        for (EntityMetadata.FieldMetadata field : primaryFields) {
+            keys.add(field.getField());
         }
         return keys;
     }
@@ -284,10 +250,10 @@ public abstract class Entity implements EntityInterface{
 	protected List<Property> getPrimaryProperties(QueryExecutor exe) {
 		List<Property> results = new ArrayList<>();
 		try {
-			List<Field> primaryFields = getPrimaryFields();
+			List<EntityMetadata.FieldMetadata> primaryFields = getMetadata().getPrimaryFields();
 			if (primaryFields.isEmpty()) return results;
 			//
-			for (Field pmKeyField : primaryFields){
+			for (EntityMetadata.FieldMetadata pmKeyField : primaryFields){
 				String key = pmKeyField.getName();
 				results.add(getProperty(key, exe, false));
 			}
@@ -305,51 +271,43 @@ public abstract class Entity implements EntityInterface{
 
     public Map<String, Object> marshallingToMap(boolean inherit) {
         Map<String, Object> result = new HashMap<>();
-        for (Field field : getDeclaredFields(inherit)) {
-			if (field.isAnnotationPresent(Ignore.class))
+        for (EntityMetadata.FieldMetadata field : getMetadata().getFields(inherit)) {
+			if (field.isIgnored())
 				continue;
+			//Notice:We are interested into reading just the filed name:value into a map.
 			try {
-				field.setAccessible(true);
-				//Notice:We are interested into reading just the filed name:value into a map.
-				try {
-					Object fieldValue = field.get(this);
-					if (fieldValue != null && EntityInterface.class.isAssignableFrom(fieldValue.getClass())){
-						EntityInterface enIf = (EntityInterface) fieldValue;
-						result.put(field.getName(), enIf.marshallingToMap(inherit));
-					}else {
-						result.put(field.getName(), fieldValue);
-					}
-				} catch (IllegalAccessException | IllegalArgumentException e) {}
-				field.setAccessible(false);
-			} catch (SecurityException e) {}
+				Object fieldValue = field.get(this);
+				if (fieldValue != null && EntityInterface.class.isAssignableFrom(fieldValue.getClass())){
+					EntityInterface enIf = (EntityInterface) fieldValue;
+					result.put(field.getName(), enIf.marshallingToMap(inherit));
+				}else {
+					result.put(field.getName(), fieldValue);
+				}
+			} catch (IllegalAccessException | IllegalArgumentException e) {}
 		}
         return result;
     }
 
 	public void unmarshallingFromMap(Map<String, Object> data, boolean inherit){
 		if (data != null) {
-			Field[] fields = getDeclaredFields(inherit);
-			for (Field field : fields) {
-                if (field.isAnnotationPresent(Ignore.class))
+			for (EntityMetadata.FieldMetadata field : getMetadata().getFields(inherit)) {
+                if (field.isIgnored())
                     continue;
-				try {
-					field.setAccessible(true);
-					Object entry = data.get(field.getName());
-					if(entry != null) {
-						try {
-							if (EntityInterface.class.isAssignableFrom(field.getType())){
-								//Now we can say this might-be a marshaled object that confirm to EntityInterface,
-								EntityInterface enIf = (EntityInterface) field.getType().newInstance();
-								if(entry instanceof Map)
-									enIf.unmarshallingFromMap((Map<String, Object>) entry, true);
-								field.set(this, enIf);
-							}else{
-								field.set(this, entry);
-							}
-						} catch (Exception e) {}
-					}
-					field.setAccessible(false);
-				} catch (SecurityException e) {}
+				Object entry = data.get(field.getName());
+				if(entry != null) {
+					try {
+						Class<?> fieldType = field.getField().getType();
+						if (EntityInterface.class.isAssignableFrom(fieldType)){
+							//Now we can say this might-be a marshaled object that confirm to EntityInterface,
+							EntityInterface enIf = (EntityInterface) fieldType.newInstance();
+							if(entry instanceof Map)
+								enIf.unmarshallingFromMap((Map<String, Object>) entry, true);
+							field.set(this, enIf);
+						}else{
+							field.set(this, entry);
+						}
+					} catch (Exception e) {}
+				}
 			}
 		}
 	}
@@ -370,7 +328,9 @@ public abstract class Entity implements EntityInterface{
 														.set(properties.toArray(new Property[0]))
 														.from(tableName)
 														.where(primaryKeysInWhereExpression(exe)).build();
+		customize(query);
 		int isUpdate = exe.executeUpdate(query);
+		if (isUpdate == 1) writeThroughCache(exe);
 		return isUpdate == 1;
 	}
 	protected ExpressionInterpreter primaryKeysInWhereExpression(QueryExecutor exe) {
@@ -405,7 +365,7 @@ public abstract class Entity implements EntityInterface{
 		SQLInsertQuery query = exe.createQueryBuilder(QueryType.INSERT)
 															.into(Entity.tableName(getClass()))
 															.values(properties.toArray(new Property[0])).build();
-		
+		customize(query);
 		int result = exe.executeInsert(isAutoIncrement(), query);
 		if( result > 1 || isAutoIncrement()) {
 			//update primary key to insert
@@ -415,6 +375,7 @@ public abstract class Entity implements EntityInterface{
 				e.printStackTrace();
 			}
 		}
+		if (result >= 1) writeThroughCache(exe);
 		return result >= 1; //0=failed to insert, 1=successful to insert, >1=the auto incremented id which means inserted.
 	}
 
@@ -436,19 +397,12 @@ public abstract class Entity implements EntityInterface{
 	}
 
 	private void updateAutoID(int insert) throws IllegalAccessException {
-		List<Field> primaryFields = getPrimaryFields();
-		if (primaryFields.isEmpty()) return;
+		//Update the first primary field that has auto = yes
+		EntityMetadata.FieldMetadata primaryField = getMetadata().getAutoIdField();
+		if (primaryField == null) return;
 
 		try {
-			//Update any primary field that has auto = yes
-			for (Field primaryField : primaryFields) {
-				if (primaryField.isAnnotationPresent(PrimaryKey.class) == false) continue;
-				if (primaryField.getAnnotation(PrimaryKey.class).auto() == false) continue;
-				primaryField.setAccessible(true);
-				primaryField.set(this, insert);
-				primaryField.setAccessible(false);
-				break;
-			}
+			primaryField.set(this, insert);
 		} catch (SecurityException | IllegalArgumentException e) {
 			e.printStackTrace();
 		}
@@ -468,10 +422,63 @@ public abstract class Entity implements EntityInterface{
 		SQLDeleteQuery query = exe.createQueryBuilder(QueryType.DELETE)
 														.rowsFrom(Entity.tableName(getClass()))
 														.where(exp).build();
+		customize(query);
 		int deletedId = exe.executeDelete(query);
+		evictFromCache(exe);
 		return deletedId == 1;
 	}
 
+	/**
+	 * Called by insert, update and delete with the built query, just before it is executed;
+	 * e.g. to attach per-type options. Does nothing by default.
+	 * @param query
+	 */
+	protected void customize(SQLQuery query) {}
+
+	/**
+	 * Stores this entity's state in its EntityCache, if the type has @EnableCache.
+	 * Inside an open transaction the write may still roll back, so the entry is evicted instead.
+	 */
+	protected final void writeThroughCache(QueryExecutor exe) {
+		EntityCache cache = EntityCache.of(getClass());
+		if (cache == null) return;
+		if (isTransactionOpen(exe)) cache.remove(exe, this);
+		else cache.put(exe, this);
+	}
+
+	protected final void evictFromCache(QueryExecutor exe) {
+		EntityCache cache = EntityCache.of(getClass());
+		if (cache != null) cache.remove(exe, this);
+	}
+
+	/**
+	 * @return the cached entity when type has @EnableCache and match is exactly its primary key; else null.
+	 */
+	protected static <T extends Entity> List<T> readFromCache(Class<T> type, QueryExecutor exe, Property... match) {
+		EntityCache cache = EntityCache.of(type);
+		if (cache == null) return null;
+		Object[] keyValues = cache.keyValuesOf(match);
+		if (keyValues == null) return null;
+		T item = cache.get(exe, keyValues);
+		if (item == null) return null;
+		List<T> items = new ArrayList<>(1);
+		items.add(item);
+		return items;
+	}
+
+	/**
+	 * Caches the result of a primary key lookup, see readFromCache().
+	 */
+	protected static <T extends Entity> void cacheRead(Class<T> type, QueryExecutor exe, List<T> items, Property... match) {
+		EntityCache cache = EntityCache.of(type);
+		if (cache == null || items == null || items.size() != 1 || isTransactionOpen(exe)) return;
+		if (cache.keyValuesOf(match) != null) cache.put(exe, items.get(0));
+	}
+
+	private static boolean isTransactionOpen(QueryExecutor exe) {
+		return (exe instanceof AbstractExecutor) && ((AbstractExecutor) exe).isTransactionOpen();
+	}
+
     @Override
     public String tableName() {
         return Entity.tableName(this.getClass());
@@ -492,66 +499,36 @@ public abstract class Entity implements EntityInterface{
     protected final static <T extends Entity> Field[] getDeclaredFields(Class<T> type, boolean inherit){
         Field[] fields = new Field[0];
         try {
-            T newInstance = type.newInstance();
-            fields = newInstance.getDeclaredFields(inherit);
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
+            fields = EntityMetadata.of(type).getDeclaredFields(inherit);
+        } catch (IllegalArgumentException e) {
             e.printStackTrace();
         }
         return fields;
     }
 
+	/**
+	 * @param type
+	 * @return Column:Name -> field name, cached per class (read-only); null when the type accepts all fields.
+	 */
 	public static <T extends Entity> Map<String, String> mapColumnsToProperties(Class<T> type) {
-
-		boolean acceptAll = Entity.shouldAcceptAllAsProperty(type);
-		if (acceptAll) {return null;}
-		
-		Map<String, String> result = new HashMap<>();
-		for (Field field : Entity.getDeclaredFields(type, true)) {
-			if(acceptAll == false
-					&& field.isAnnotationPresent(Column.class) == false
-					&& field.isAnnotationPresent(javax.persistence.Column.class) == false
-					&& field.isAnnotationPresent(PrimaryKey.class) == false) {
-				continue;
-			}
-            if (field.isAnnotationPresent(Ignore.class))
-                continue;
-			if (field.isAnnotationPresent(Column.class)){
-				Column column = field.getAnnotation(Column.class);
-				String columnName = (column.name().trim().isEmpty() == false) ? column.name().trim() : field.getName();
-				result.put(columnName, field.getName());
-			}else if(field.isAnnotationPresent(PrimaryKey.class)){
-				PrimaryKey primaryKey = field.getAnnotation(PrimaryKey.class);
-				String columnName = (primaryKey.name().trim().isEmpty() == false) ? primaryKey.name().trim() : field.getName();
-				result.put(columnName, field.getName());
-			}else if (field.isAnnotationPresent(javax.persistence.Column.class)){
-                javax.persistence.Column column = field.getAnnotation(javax.persistence.Column.class);
-                String columnName = (column.name().trim().isEmpty() == false) ? column.name().trim() : field.getName();
-                result.put(columnName, field.getName());
-            }
+		try {
+			return EntityMetadata.of(type).getColumnsToProperties();
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
 		}
-		return result;
+		return Entity.shouldAcceptAllAsProperty(type) ? null : new HashMap<>();
 	}
 
 	public static <T extends Entity> String tableName(Class<T> type) {
-		if (type.isAnnotationPresent(TableName.class)){
-			TableName tableName = type.getAnnotation(TableName.class);
-			String name = (tableName.value().trim().isEmpty()) ? type.getSimpleName() : tableName.value().trim();
-			return name;
-		}else if (type.isAnnotationPresent(Table.class)){
-			Table tableName = type.getAnnotation(Table.class);
-			String name = (tableName.name().trim().isEmpty()) ? type.getSimpleName() : tableName.name().trim();
-			return name;
-		}else {
-			return type.getSimpleName();
-		}
+		return EntityMetadata.tableName(type);
 	}
 
 	public static <T extends Entity> List<T> read(Class<T>  type
 			, QueryExecutor exe
 			, Property...match)
 			throws Exception{
+		List<T> cached = readFromCache(type, exe, match);
+		if (cached != null) return cached;
 		ExpressionInterpreter and = null;
 		ExpressionInterpreter lhr = null;
 		for (int i = 0; i < match.length; i++) {
@@ -564,7 +541,9 @@ public abstract class Entity implements EntityInterface{
 				lhr = and;
 			}
 		}
-		return T.read(type, exe, and);
+		List<T> items = T.read(type, exe, and);
+		cacheRead(type, exe, items, match);
+		return items;
 	}
 
 	public static <T extends Entity> List<T> read(Class<T>  type
@@ -620,6 +599,111 @@ public abstract class Entity implements EntityInterface{
 		}
 	}
 
+	/**
+	 * Keyset (seek) paging ordered by the entity's single @PrimaryKey column: each page is fetched with
+	 * WHERE key > lastSeen ORDER BY key LIMIT pageSize, so no COUNT is issued, every page costs the same
+	 * and rows inserted during the scan do not shift page boundaries.
+	 * @param aClass
+	 * @param executor
+	 * @param pageSize
+	 * @param expression optional filter, and-ed with the key predicate.
+	 * @param consumer
+	 * @throws SQLException when a page can't be read; the pages before it have been consumed.
+	 */
+	public static <T extends Entity> void readKeyset(Class<T> aClass
+			, QueryExecutor executor
+			, int pageSize
+			, ExpressionInterpreter expression
+			, Consumer<List<T>> consumer)
+			throws SQLException, IllegalAccessException, InstantiationException {
+		//
+		readKeyset(aClass, executor, pageSize, null, expression, consumer);
+	}
+
+	/**
+	 * @param keyColumn unique, non-null column to order and seek by; null for the @PrimaryKey column.
+	 */
+	public static <T extends Entity> void readKeyset(Class<T> aClass
+			, QueryExecutor executor
+			, int pageSize
+			, String keyColumn
+			, ExpressionInterpreter expression
+			, Consumer<List<T>> consumer)
+			throws SQLException, IllegalAccessException, InstantiationException {
+		//
+		if (consumer == null) return;
+		seek(aClass, executor, pageSize, keysetField(aClass, keyColumn), expression, consumer);
+	}
+
+	static <T extends Entity> void seek(Class<T> aClass
+			, QueryExecutor executor
+			, int pageSize
+			, EntityMetadata.FieldMetadata keyField
+			, ExpressionInterpreter expression
+			, Consumer<List<T>> consumer)
+			throws SQLException, IllegalAccessException, InstantiationException {
+		//
+		if (pageSize <= 0) throw new IllegalArgumentException("PageSize must be greater than 0.");
+		Map<String, String> mappingKeys = Entity.mapColumnsToProperties(aClass);
+		Object lastSeen = null;
+		while (true){
+			SQLSelectQuery query = createKeysetQuery(aClass, executor, pageSize, keyField.getColumnName(), lastSeen, expression);
+			List<T> items = executor.executeSelect(query, aClass, mappingKeys);
+			if (items == null || items.isEmpty()) break;
+			consumer.accept(items);
+			if (items.size() < pageSize) break;
+			lastSeen = keyField.get(items.get(items.size() - 1));
+			if (lastSeen == null) throw new IllegalArgumentException(keyField.getColumnName() + " must not be null for keyset paging.");
+		}
+	}
+
+	static EntityMetadata.FieldMetadata keysetField(Class<? extends Entity> aClass, String keyColumn)
+			throws IllegalArgumentException {
+		EntityMetadata metadata = EntityMetadata.of(aClass);
+		if (keyColumn == null || keyColumn.trim().isEmpty()){
+			EntityMetadata.FieldMetadata primary = null;
+			for (EntityMetadata.FieldMetadata field : metadata.getPrimaryFields()) {
+				if (!field.isPrimaryKey()) continue;
+				if (primary != null) throw new IllegalArgumentException(aClass.getSimpleName() + " has a composite @PrimaryKey; name the keyset column.");
+				primary = field;
+			}
+			if (primary == null) throw new IllegalArgumentException(aClass.getSimpleName() + " has no @PrimaryKey; name the keyset column.");
+			return primary;
+		}
+		for (EntityMetadata.FieldMetadata field : metadata.getProperties()) {
+			if (field.getColumnName().equalsIgnoreCase(keyColumn)
+					|| field.getName().equals(keyColumn)) return field;
+		}
+		throw new IllegalArgumentException(keyColumn + " is not a column of " + aClass.getSimpleName());
+	}
+
+	private static SQLSelectQuery createKeysetQuery(Class<? extends Entity> aClass
+			, QueryExecutor executor
+			, int pageSize
+			, String keyColumn
+			, Object lastSeen
+			, ExpressionInterpreter expression) {
+		//
+		ExpressionInterpreter where = expression;
+		if (lastSeen != null){
+			ExpressionInterpreter seek = new Expression(new Property(keyColumn, lastSeen), Operator.GREATER_THAN);
+			where = (expression != null) ? new AndExpression(expression, seek) : seek;
+		}
+		if (where != null){
+			return executor.createQueryBuilder(QueryType.SELECT)
+					.columns()
+					.from(Entity.tableName(aClass))
+					.where(where)
+					.orderBy(Operator.ASC, keyColumn)
+					.addLimit(pageSize, 0).build();
+		}
+		return executor.createQueryBuilder(QueryType.SELECT)
+				.columns()
+				.from(Entity.tableName(aClass))
+				.orderBy(Operator.ASC, keyColumn)
+				.addLimit(pageSize, 0).build();
+	}
+
 	private static List<SQLSelectQuery> createSelectQueries(Class<? extends Entity> aClass
 			, QueryExecutor executor
 			, int pageSize
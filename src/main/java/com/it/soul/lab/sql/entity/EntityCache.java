@@ -0,0 +1,218 @@
+package com.it.soul.lab.sql.entity;
+
+import com.it.soul.lab.data.base.DataSource;
+import com.it.soul.lab.sql.AbstractExecutor;
+import com.it.soul.lab.sql.QueryExecutor;
+import com.it.soul.lab.sql.query.models.Property;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Second-level cache of one @EnableCache entity type, keyed by the executor's database
+ * (AbstractExecutor.getDatabaseId()) and the primary key values (@PrimaryKey fields, then clustering keys),
+ * so the same table in two databases never shares entries. Entities are stored as their marshallingToMap() state
+ * in the type's DataSource, so every hit returns a new instance. The least recently used key is evicted
+ * beyond maxSize and entries expire after timeToLive.
+ * Only writes made through Entity.insert/update/delete reach the cache; rows changed by other statements
+ * stay stale until they expire. While the executor has a transaction open, writes evict their entry
+ * instead of storing it and reads are not cached, so rolled back state is never served.
+ */
+public final class EntityCache {
+
+    public static final class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Map<String, Object> data;
+        private final long expiresAt;
+
+        private Entry(Map<String, Object> data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+
+        public Map<String, Object> getData() {
+            return data;
+        }
+
+        /**
+         * @return epoch millis; 0 never expires.
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    private static final ClassValue<EntityCache> CACHES = new ClassValue<EntityCache>() {
+        @Override
+        protected EntityCache computeValue(Class<?> type) {
+            if (!Entity.class.isAssignableFrom(type) || !type.isAnnotationPresent(EnableCache.class)) return null;
+            return new EntityCache(type, type.getAnnotation(EnableCache.class));
+        }
+    };
+
+    /**
+     * @param type
+     * @return the type's cache, or null when it is not annotated with @EnableCache.
+     */
+    public static EntityCache of(Class<?> type) {
+        return CACHES.get(type);
+    }
+
+    private final Class<?> type;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final DataSource<String, Entry> storage;
+    private final LinkedHashMap<String, Boolean> keys = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    private EntityCache(Class<?> type, EnableCache config) {
+        if (config.maxSize() <= 0) throw new IllegalArgumentException(type.getSimpleName() + " @EnableCache maxSize must be greater than 0.");
+        this.type = type;
+        this.maxSize = config.maxSize();
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, config.timeToLive()));
+        try {
+            this.storage = config.storage().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(type.getSimpleName() + " @EnableCache storage: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Primary key values in the order of getPrimaryFields(), taken from match.
+     * @param match
+     * @return null unless match is exactly one non-null value per primary key column.
+     */
+    Object[] keyValuesOf(Property... match) {
+        List<EntityMetadata.FieldMetadata> primaryFields = EntityMetadata.of(type.asSubclass(Entity.class)).getPrimaryFields();
+        if (match == null || primaryFields.isEmpty() || match.length != primaryFields.size()) return null;
+        Object[] values = new Object[primaryFields.size()];
+        for (int index = 0; index < values.length; index++) {
+            EntityMetadata.FieldMetadata field = primaryFields.get(index);
+            for (Property prop : match) {
+                if (prop == null || prop.getKey() == null) continue;
+                if (prop.getKey().equalsIgnoreCase(field.getColumnName()) || prop.getKey().equals(field.getName())) {
+                    values[index] = prop.getValue();
+                    break;
+                }
+            }
+            if (values[index] == null) return null;
+        }
+        return values;
+    }
+
+    /**
+     * @param entity
+     * @return the entity's primary key values; null when one of them is not set.
+     */
+    Object[] keyValuesOf(Entity entity) {
+        List<EntityMetadata.FieldMetadata> primaryFields = entity.getMetadata().getPrimaryFields();
+        if (primaryFields.isEmpty()) return null;
+        Object[] values = new Object[primaryFields.size()];
+        try {
+            for (int index = 0; index < values.length; index++) {
+                values[index] = primaryFields.get(index).get(entity);
+                if (values[index] == null) return null;
+            }
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        return values;
+    }
+
+    private String keyOf(QueryExecutor<?, ?, ?, ?, ?> exe, Object[] values) {
+        String database = (exe instanceof AbstractExecutor)
+                ? ((AbstractExecutor) exe).getDatabaseId()
+                : exe.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(exe));
+        return database + "/" + type.getName() + Arrays.deepToString(values);
+    }
+
+    /**
+     * @param exe the executor the entity is read through.
+     * @param keyValues
+     * @return a new instance filled from the cached state; null on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Entity> T get(QueryExecutor<?, ?, ?, ?, ?> exe, Object... keyValues) {
+        String key = keyOf(exe, keyValues);
+        Entry entry = storage.read(key);
+        if (entry != null && entry.expiresAt > 0 && entry.expiresAt < System.currentTimeMillis()) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        synchronized (keys) {
+            keys.get(key);
+        }
+        hits.incrementAndGet();
+        try {
+            T item = (T) type.getDeclaredConstructor().newInstance();
+            item.unmarshallingFromMap(entry.data, true);
+            return item;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    public void put(QueryExecutor<?, ?, ?, ?, ?> exe, Entity entity) {
+        Object[] keyValues = keyValuesOf(entity);
+        if (keyValues == null) return;
+        String key = keyOf(exe, keyValues);
+        long expiresAt = (ttlMillis > 0) ? System.currentTimeMillis() + ttlMillis : 0;
+        storage.put(key, new Entry(Collections.unmodifiableMap(entity.marshallingToMap(true)), expiresAt));
+        synchronized (keys) {
+            keys.put(key, Boolean.TRUE);
+            Iterator<String> eldest = keys.keySet().iterator();
+            while (keys.size() > maxSize && eldest.hasNext()) {
+                String victim = eldest.next();
+                eldest.remove();
+                storage.remove(victim);
+            }
+        }
+    }
+
+    public void remove(QueryExecutor<?, ?, ?, ?, ?> exe, Entity entity) {
+        Object[] keyValues = keyValuesOf(entity);
+        if (keyValues != null) remove(keyOf(exe, keyValues));
+    }
+
+    private void remove(String key) {
+        storage.remove(key);
+        synchronized (keys) {
+            keys.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (keys) {
+            for (String key : keys.keySet()) storage.remove(key);
+            keys.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (keys) {
+            return keys.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+}
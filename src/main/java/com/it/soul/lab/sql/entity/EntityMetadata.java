@@ -0,0 +1,347 @@
+package com.it.soul.lab.sql.entity;
+
+import com.it.soul.lab.sql.query.models.DataType;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Table;
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Immutable per-class view of an Entity: fields, column names, keys and defaults.
+ * Built once per class from a prototype instance, so the Entity/CQLEntity hooks
+ * (hasColumnAnnotationPresent, getPropertyKey, ...) still decide the mapping.
+ */
+public final class EntityMetadata {
+
+    public static final class FieldMetadata {
+        private final Field field;
+        private final String name;
+        private final String columnName;
+        private final boolean column;
+        private final boolean ignored;
+        private final boolean primaryKey;
+        private final boolean autoIncrement;
+        private final boolean clusteringKey;
+        private final boolean generatedValue;
+        private final Column columnAnnotation;
+        private final Object defaultValue;
+
+        private FieldMetadata(Entity prototype, Field field) {
+            try {
+                field.setAccessible(true);
+            } catch (SecurityException e) {}
+            this.field = field;
+            this.name = field.getName();
+            this.columnName = prototype.getPropertyKey(field);
+            this.column = prototype.hasColumnAnnotationPresent(field);
+            this.ignored = field.isAnnotationPresent(Ignore.class);
+            this.primaryKey = field.isAnnotationPresent(PrimaryKey.class);
+            this.autoIncrement = primaryKey && field.getAnnotation(PrimaryKey.class).auto();
+            this.clusteringKey = prototype.isClusteringKeyField(field);
+            this.generatedValue = field.isAnnotationPresent(GeneratedValue.class);
+            this.columnAnnotation = field.getAnnotation(Column.class);
+            this.defaultValue = immutableDefault(columnAnnotation);
+        }
+
+        private static Object immutableDefault(Column annotation) {
+            //Only immutable defaults are parsed up-front, the rest is produced per read.
+            if (annotation == null) return null;
+            String defaultVal = annotation.defaultValue();
+            try {
+                switch (annotation.type()) {
+                    case INT:
+                        return Integer.valueOf(defaultVal);
+                    case FLOAT:
+                        return Float.valueOf(defaultVal);
+                    case DOUBLE:
+                        return Double.valueOf(defaultVal);
+                    case BOOL:
+                        return Boolean.valueOf(defaultVal);
+                    case SQLDATE:
+                    case SQLTIMESTAMP:
+                    case BLOB:
+                    case BYTEARRAY:
+                        return null;
+                    default:
+                        return defaultVal;
+                }
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getColumnName() {
+            return columnName;
+        }
+
+        public boolean isColumn() {
+            return column;
+        }
+
+        public boolean isIgnored() {
+            return ignored;
+        }
+
+        public boolean isPrimaryKey() {
+            return primaryKey;
+        }
+
+        public boolean isAutoIncrement() {
+            return autoIncrement;
+        }
+
+        public boolean isClusteringKey() {
+            return clusteringKey;
+        }
+
+        public boolean isGeneratedValue() {
+            return generatedValue;
+        }
+
+        public Column getColumnAnnotation() {
+            return columnAnnotation;
+        }
+
+        public DataType getColumnType() {
+            return (columnAnnotation != null) ? columnAnnotation.type() : null;
+        }
+
+        /**
+         * @return parsed @Column default when it is immutable (numbers, bool, string), otherwise null.
+         */
+        public Object getDefaultValue() {
+            return defaultValue;
+        }
+
+        public Object get(Object target) throws IllegalAccessException {
+            return field.get(target);
+        }
+
+        public void set(Object target, Object value) throws IllegalAccessException {
+            field.set(target, value);
+        }
+    }
+
+    private static final ThreadLocal<Entity> PROTOTYPE = new ThreadLocal<>();
+
+    private static final ClassValue<EntityMetadata> CACHE = new ClassValue<EntityMetadata>() {
+        @Override
+        protected EntityMetadata computeValue(Class<?> type) {
+            Entity prototype = PROTOTYPE.get();
+            if (prototype == null || prototype.getClass() != type){
+                try {
+                    prototype = (Entity) type.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    throw new IllegalArgumentException("Can't create metadata for " + type.getName(), e);
+                }
+            }
+            return new EntityMetadata(prototype);
+        }
+    };
+
+    private static final ClassValue<String> TABLE_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            if (type.isAnnotationPresent(TableName.class)){
+                TableName tableName = type.getAnnotation(TableName.class);
+                return (tableName.value().trim().isEmpty()) ? type.getSimpleName() : tableName.value().trim();
+            }else if (type.isAnnotationPresent(Table.class)){
+                Table tableName = type.getAnnotation(Table.class);
+                return (tableName.name().trim().isEmpty()) ? type.getSimpleName() : tableName.name().trim();
+            }else {
+                return type.getSimpleName();
+            }
+        }
+    };
+
+    /**
+     * @param type
+     * @return
+     * @throws IllegalArgumentException when the type can't be instantiated with its no-arg constructor.
+     */
+    public static EntityMetadata of(Class<? extends Entity> type) throws IllegalArgumentException {
+        return CACHE.get(type);
+    }
+
+    static EntityMetadata of(Entity prototype) {
+        PROTOTYPE.set(prototype);
+        try {
+            return CACHE.get(prototype.getClass());
+        } finally {
+            PROTOTYPE.remove();
+        }
+    }
+
+    public static String tableName(Class<?> type) {
+        return TABLE_NAMES.get(type);
+    }
+
+    private final Class<?> type;
+    private final boolean acceptAll;
+    private final Field[] declaredFields;
+    private final Field[] inheritedFields;
+    private final List<FieldMetadata> fields;
+    private final List<FieldMetadata> ownFields;
+    private final Map<String, FieldMetadata> ownFieldsByName;
+    private final Map<String, FieldMetadata> fieldsByName;
+    private final List<FieldMetadata> properties;
+    private final List<FieldMetadata> primaryFields;
+    private final FieldMetadata autoIdField;
+    private final boolean autoIncrement;
+    private final Map<String, String> columnsToProperties;
+    private final long timeToLive;
+
+    private EntityMetadata(Entity prototype) {
+        this.type = prototype.getClass();
+        this.acceptAll = prototype.shouldAcceptAllAsProperty();
+        this.inheritedFields = collectFields(type);
+
+        List<FieldMetadata> fields = new ArrayList<>(inheritedFields.length);
+        Map<String, FieldMetadata> fieldsByName = new HashMap<>();
+        Map<String, FieldMetadata> ownFieldsByName = new HashMap<>();
+        List<FieldMetadata> ownFields = new ArrayList<>();
+        for (Field field : inheritedFields) {
+            FieldMetadata meta = new FieldMetadata(prototype, field);
+            fields.add(meta);
+            //Nearest declaration wins, same as getDeclaredField(name, true):
+            fieldsByName.putIfAbsent(meta.getName(), meta);
+            if (field.getDeclaringClass() == type){
+                ownFields.add(meta);
+                ownFieldsByName.put(meta.getName(), meta);
+            }
+        }
+        this.fields = Collections.unmodifiableList(fields);
+        this.ownFields = Collections.unmodifiableList(ownFields);
+        this.declaredFields = new Field[ownFields.size()];
+        for (int index = 0; index < declaredFields.length; index++) {
+            declaredFields[index] = ownFields.get(index).getField();
+        }
+        this.fieldsByName = Collections.unmodifiableMap(fieldsByName);
+        this.ownFieldsByName = Collections.unmodifiableMap(ownFieldsByName);
+
+        List<FieldMetadata> properties = new ArrayList<>();
+        List<FieldMetadata> primaryFields = new ArrayList<>();
+        List<FieldMetadata> clusteringFields = new ArrayList<>();
+        FieldMetadata autoIdField = null;
+        boolean hasGeneratedValue = false;
+        Map<String, String> columnsToProperties = new HashMap<>();
+        for (FieldMetadata meta : fields) {
+            if (meta.isPrimaryKey()) primaryFields.add(meta);
+            if (meta.isClusteringKey()) clusteringFields.add(meta);
+            if (autoIdField == null && meta.isAutoIncrement()) autoIdField = meta;
+            hasGeneratedValue |= meta.isGeneratedValue();
+            if (meta.isIgnored()) continue;
+            if (acceptAll || meta.isColumn()) properties.add(meta);
+            String mappedName = mappedColumnName(meta.getField());
+            if (mappedName != null) columnsToProperties.put(mappedName, meta.getName());
+        }
+        //Primary keys first, then clustering keys (CQL):
+        primaryFields.addAll(clusteringFields);
+        this.properties = Collections.unmodifiableList(properties);
+        this.primaryFields = Collections.unmodifiableList(primaryFields);
+        this.autoIdField = autoIdField;
+        PrimaryKey firstKey = primaryFields.isEmpty() || !primaryFields.get(0).isPrimaryKey()
+                ? null : primaryFields.get(0).getField().getAnnotation(PrimaryKey.class);
+        this.autoIncrement = (firstKey != null && firstKey.auto()) || hasGeneratedValue;
+        //mapColumnsToProperties() returns null when all fields are accepted:
+        this.columnsToProperties = acceptAll ? null : Collections.unmodifiableMap(columnsToProperties);
+        this.timeToLive = prototype.readTTLValue();
+    }
+
+    private static Field[] collectFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>(Arrays.asList(type.getDeclaredFields()));
+        //Inherit properties from all parents until Entity.class.
+        Class<?> mySuperClass = type.getSuperclass();
+        while(mySuperClass != null
+                && !mySuperClass.getSimpleName().equalsIgnoreCase(Entity.class.getSimpleName())){
+            fields.addAll(Arrays.asList(mySuperClass.getDeclaredFields()));
+            mySuperClass = mySuperClass.getSuperclass();
+        }
+        return fields.toArray(new Field[0]);
+    }
+
+    private static String mappedColumnName(Field field) {
+        if (field.isAnnotationPresent(Column.class)){
+            Column column = field.getAnnotation(Column.class);
+            return (column.name().trim().isEmpty() == false) ? column.name().trim() : field.getName();
+        }else if(field.isAnnotationPresent(PrimaryKey.class)){
+            PrimaryKey primaryKey = field.getAnnotation(PrimaryKey.class);
+            return (primaryKey.name().trim().isEmpty() == false) ? primaryKey.name().trim() : field.getName();
+        }else if (field.isAnnotationPresent(javax.persistence.Column.class)){
+            javax.persistence.Column column = field.getAnnotation(javax.persistence.Column.class);
+            return (column.name().trim().isEmpty() == false) ? column.name().trim() : field.getName();
+        }
+        return null;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String getTableName() {
+        return tableName(type);
+    }
+
+    public boolean isAcceptAll() {
+        return acceptAll;
+    }
+
+    /**
+     * @param inherit
+     * @return a copy; the Field objects are shared and already accessible.
+     */
+    public Field[] getDeclaredFields(boolean inherit) {
+        return (inherit ? inheritedFields : declaredFields).clone();
+    }
+
+    public List<FieldMetadata> getFields() {
+        return fields;
+    }
+
+    public List<FieldMetadata> getFields(boolean inherit) {
+        return inherit ? fields : ownFields;
+    }
+
+    public FieldMetadata getField(String fieldName, boolean inherit) {
+        return inherit ? fieldsByName.get(fieldName) : ownFieldsByName.get(fieldName);
+    }
+
+    /**
+     * @return non-ignored fields that map to a column, in declaration order.
+     */
+    public List<FieldMetadata> getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return @PrimaryKey fields followed by clustering-key fields.
+     */
+    public List<FieldMetadata> getPrimaryFields() {
+        return primaryFields;
+    }
+
+    public FieldMetadata getAutoIdField() {
+        return autoIdField;
+    }
+
+    public boolean isAutoIncrement() {
+        return autoIncrement;
+    }
+
+    public Map<String, String> getColumnsToProperties() {
+        return columnsToProperties;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+}
@@ -0,0 +1,272 @@
+package com.it.soul.lab.sql.entity;
+
+import com.it.soul.lab.sql.AsyncSQLExecutor;
+import com.it.soul.lab.sql.query.QueryType;
+import com.it.soul.lab.sql.query.SQLScalarQuery;
+import com.it.soul.lab.sql.query.models.AndExpression;
+import com.it.soul.lab.sql.query.models.Expression;
+import com.it.soul.lab.sql.query.models.ExpressionInterpreter;
+import com.it.soul.lab.sql.query.models.Operator;
+import com.it.soul.lab.sql.query.models.Property;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Splits a table into key ranges over an integer column (the @PrimaryKey by default) using MIN/MAX,
+ * and reads every range with keyset paging as its own task on an AsyncSQLExecutor, i.e. on its own
+ * pooled connection. Pages are handed to the consumer on the calling thread, one at a time, so the
+ * consumer need not be thread safe; each range buffers at most prefetch pages ahead of the consumer.
+ */
+public class ParallelScan<T extends Entity> {
+
+    public enum Ordering {
+        /**
+         * Pages in arrival order, ranges interleaved.
+         */
+        NONE,
+        /**
+         * All pages of the lowest range first, each range in key order; so the whole scan is in key order
+         * when the partition column is also the paging key.
+         */
+        PARTITION
+    }
+
+    public static class Builder<T extends Entity> {
+        private final Class<T> type;
+        private final AsyncSQLExecutor executor;
+        private int partitions = Runtime.getRuntime().availableProcessors();
+        private int pageSize = 500;
+        private int prefetch = 4;
+        private String partitionColumn;
+        private ExpressionInterpreter expression;
+        private Ordering ordering = Ordering.NONE;
+
+        public Builder(Class<T> type, AsyncSQLExecutor executor){
+            this.type = type;
+            this.executor = executor;
+        }
+        /**
+         * Number of key ranges; keep it at or below the pool's maxSize.
+         * @param partitions
+         * @return
+         */
+        public Builder<T> partitions(int partitions){
+            this.partitions = partitions;
+            return this;
+        }
+        public Builder<T> pageSize(int pageSize){
+            this.pageSize = pageSize;
+            return this;
+        }
+        public Builder<T> prefetch(int pages){
+            this.prefetch = pages;
+            return this;
+        }
+        /**
+         * Integer column to split on; null for the @PrimaryKey column.
+         * Ranges are still paged by the @PrimaryKey when the entity has a single one.
+         * @param column
+         * @return
+         */
+        public Builder<T> partitionColumn(String column){
+            this.partitionColumn = column;
+            return this;
+        }
+        public Builder<T> where(ExpressionInterpreter expression){
+            this.expression = expression;
+            return this;
+        }
+        public Builder<T> ordering(Ordering ordering){
+            this.ordering = ordering;
+            return this;
+        }
+        public ParallelScan<T> build(){
+            if (type == null) throw new IllegalArgumentException("Entity type must not be null!");
+            if (executor == null) throw new IllegalArgumentException("AsyncSQLExecutor must not be null!");
+            if (partitions <= 0 || pageSize <= 0 || prefetch <= 0)
+                throw new IllegalArgumentException("Partitions, pageSize and prefetch must be greater than 0.");
+            return new ParallelScan<>(this);
+        }
+    }
+
+    private final Class<T> type;
+    private final AsyncSQLExecutor executor;
+    private final int partitions;
+    private final int pageSize;
+    private final int prefetch;
+    private final String partitionColumn;
+    private final ExpressionInterpreter expression;
+    private final Ordering ordering;
+
+    private ParallelScan(Builder<T> builder) {
+        this.type = builder.type;
+        this.executor = builder.executor;
+        this.partitions = builder.partitions;
+        this.pageSize = builder.pageSize;
+        this.prefetch = builder.prefetch;
+        this.partitionColumn = builder.partitionColumn;
+        this.expression = builder.expression;
+        this.ordering = builder.ordering;
+    }
+
+    /**
+     * Blocks until every range is read or one fails; on failure the remaining ranges are cancelled.
+     * @param consumer
+     * @throws SQLException
+     */
+    public void read(Consumer<List<T>> consumer) throws SQLException {
+        if (consumer == null) return;
+        EntityMetadata.FieldMetadata splitField = Entity.keysetField(type, partitionColumn);
+        EntityMetadata.FieldMetadata pageField;
+        try {
+            pageField = Entity.keysetField(type, null);
+        } catch (IllegalArgumentException e) {
+            pageField = splitField;
+        }
+        int[] bounds = minMax(splitField.getColumnName());
+        long span = (long) bounds[1] - bounds[0] + 1;
+        int count = (int) Math.min(partitions, span);
+        //
+        int queueCount = (ordering == Ordering.PARTITION) ? count : 1;
+        Channel<T>[] channels = createChannels(queueCount);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        try {
+            for (int index = 0; index < count; index++) {
+                int low = (int) (bounds[0] + span * index / count);
+                int high = (int) (bounds[0] + span * (index + 1) / count - 1);
+                submit(range(splitField.getColumnName(), low, high), pageField
+                        , channels[index % queueCount], cancelled);
+            }
+            if (ordering == Ordering.PARTITION) {
+                for (Channel<T> channel : channels) {
+                    drain(channel, 1, consumer);
+                }
+            } else {
+                drain(channels[0], count, consumer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while scanning " + Entity.tableName(type), e);
+        } finally {
+            cancelled.set(true);
+        }
+    }
+
+    private int[] minMax(String column) throws SQLException {
+        String table = Entity.tableName(type);
+        try {
+            return executor.submit(exe -> {
+                SQLScalarQuery min = exe.createQueryBuilder(QueryType.MIN).columns(column).on(table).build();
+                SQLScalarQuery max = exe.createQueryBuilder(QueryType.MAX).columns(column).on(table).build();
+                return new int[]{exe.getScalarValue(min), exe.getScalarValue(max)};
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while scanning " + table, e);
+        } catch (ExecutionException e) {
+            throw asSQLException(e.getCause());
+        }
+    }
+
+    private ExpressionInterpreter range(String column, int low, int high) {
+        ExpressionInterpreter range = new AndExpression(
+                new Expression(new Property(column, low), Operator.GREATER_THAN_OR_EQUAL)
+                , new Expression(new Property(column, high), Operator.LESS_THAN_OR_EQUAL));
+        return (expression != null) ? new AndExpression(expression, range) : range;
+    }
+
+    private void submit(ExpressionInterpreter where
+            , EntityMetadata.FieldMetadata pageField
+            , Channel<T> channel
+            , AtomicBoolean cancelled) {
+        //
+        executor.submit(exe -> {
+            Entity.seek(type, exe, pageSize, pageField, where, items -> channel.put(items, cancelled));
+            return null;
+        }).whenComplete((result, error) -> channel.finish(error));
+    }
+
+    private void drain(Channel<T> channel, int producers, Consumer<List<T>> consumer)
+            throws SQLException, InterruptedException {
+        //
+        while (producers > 0) {
+            Page<T> page = channel.take();
+            if (page.items != null) {
+                consumer.accept(page.items);
+                continue;
+            }
+            if (page.error != null) throw asSQLException(page.error);
+            producers--;
+        }
+    }
+
+    private static SQLException asSQLException(Throwable error) {
+        if (error instanceof SQLException) return (SQLException) error;
+        return new SQLException(error.getMessage(), error);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Channel<T>[] createChannels(int count) {
+        Channel<T>[] channels = (Channel<T>[]) new Channel<?>[count];
+        for (int index = 0; index < count; index++) {
+            channels[index] = new Channel<>(prefetch * ((ordering == Ordering.PARTITION) ? 1 : partitions));
+        }
+        return channels;
+    }
+
+    private static class Page<T> {
+        private final List<T> items;
+        private final Throwable error;
+        private Page(List<T> items, Throwable error) {
+            this.items = items;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Pages are bounded by permits; end-of-range markers are not, so finishing never blocks.
+     */
+    private static class Channel<T> {
+        private final BlockingQueue<Page<T>> queue = new LinkedBlockingQueue<>();
+        private final Semaphore permits;
+
+        private Channel(int capacity) {
+            this.permits = new Semaphore(capacity);
+        }
+
+        private void put(List<T> items, AtomicBoolean cancelled) {
+            try {
+                do {
+                    if (cancelled.get()) throw new CancellationException("Scan cancelled.");
+                } while (!permits.tryAcquire(100, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Scan interrupted.");
+            }
+            queue.add(new Page<>(items, null));
+        }
+
+        private void finish(Throwable error) {
+            if (error instanceof CompletionException && error.getCause() != null)
+                error = error.getCause();
+            queue.add(new Page<>(null, error));
+        }
+
+        private Page<T> take() throws InterruptedException {
+            Page<T> page = queue.take();
+            if (page.items != null) permits.release();
+            return page;
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.it.soul.lab.sql.query;
+
+import com.it.soul.lab.sql.query.models.DataType;
+import com.it.soul.lab.sql.query.models.Property;
+import com.it.soul.lab.sql.query.models.Row;
+import com.it.soul.lab.sql.query.models.WhereProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A query shape built once: the final SQL text plus the layout of its ? slots (column and DataType, in
+ * statement order), taken from a prototype query. Per call only the values are bound:
+ * template.bind(values...) and pass the result to the executor. Slot types come from the prototype's
+ * values, so build it with values of the same types that will be bound later.
+ * Immutable and thread safe.
+ */
+public final class QueryTemplate {
+
+    /**
+     * Values for every slot of a template; immutable.
+     */
+    public static final class Bound {
+        private final QueryTemplate template;
+        private final Object[] values;
+
+        private Bound(QueryTemplate template, Object[] values) {
+            this.template = template;
+            this.values = values;
+        }
+
+        public QueryTemplate getTemplate() {
+            return template;
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        public Object getValue(int slot) {
+            return values[slot];
+        }
+
+        public Object[] getValues() {
+            return values.clone();
+        }
+
+        /**
+         * @return one property per slot, in statement order (keys may repeat, e.g. a range).
+         */
+        public Row toRow() {
+            //Row.add() drops a property equal in value to one it holds; WhereProperties keeps every slot:
+            Row row = new WhereProperties();
+            for (int slot = 0; slot < values.length; slot++) {
+                row.add(new Property(template.keys[slot], values[slot], template.types[slot]));
+            }
+            return row;
+        }
+
+        @Override
+        public String toString() {
+            return template.sql + " " + Arrays.toString(values);
+        }
+    }
+
+    private final QueryType type;
+    private final String sql;
+    private final String tableName;
+    private final String[] keys;
+    private final DataType[] types;
+
+    private QueryTemplate(QueryType type, String sql, String tableName, List<Property> slots) {
+        this.type = type;
+        this.sql = sql;
+        this.tableName = tableName;
+        this.keys = new String[slots.size()];
+        this.types = new DataType[slots.size()];
+        for (int slot = 0; slot < keys.length; slot++) {
+            keys[slot] = slots.get(slot).getKey();
+            types[slot] = slots.get(slot).getType();
+        }
+    }
+
+    /**
+     * @param query prototype; only its shape is kept, later changes to it do not affect the template.
+     * @return
+     * @throws IllegalArgumentException when the query has no SQL text (e.g. a missing table name).
+     */
+    public static QueryTemplate of(SQLQuery query) throws IllegalArgumentException {
+        if (query == null) throw new IllegalArgumentException("Query must not be null!");
+        String sql = query.toString();
+        if (sql == null || sql.trim().isEmpty()) throw new IllegalArgumentException("Query must not be empty!");
+        List<Property> slots = new ArrayList<>();
+        QueryType type;
+        if (query instanceof SQLInsertQuery) {
+            type = QueryType.INSERT;
+            addSlots(slots, ((SQLInsertQuery) query).getRow());
+        } else if (query instanceof SQLUpdateQuery) {
+            type = QueryType.UPDATE;
+            addSlots(slots, ((SQLUpdateQuery) query).getRow());
+            addSlots(slots, query.getWhereProperties());
+        } else if (query instanceof SQLDeleteQuery) {
+            type = QueryType.DELETE;
+            addSlots(slots, query.getWhereProperties());
+        } else {
+            type = QueryType.SELECT;
+            addSlots(slots, query.getWhereProperties());
+        }
+        return new QueryTemplate(type, sql, query.getTableName(), slots);
+    }
+
+    private static void addSlots(List<Property> slots, Row row) {
+        if (row == null) return;
+        for (Property property : row.getProperties()) {
+            //IS NULL / IS NOT NULL have no ? in the statement:
+            if (property.getType() == DataType.NULL_SKIP) continue;
+            slots.add(property);
+        }
+    }
+
+    /**
+     * @param values one per slot, in statement order; the array is copied.
+     * @return
+     * @throws IllegalArgumentException when the count does not match getSlotCount().
+     */
+    public Bound bind(Object... values) throws IllegalArgumentException {
+        if (values == null) values = new Object[]{null};
+        if (values.length != keys.length)
+            throw new IllegalArgumentException("Template expects " + keys.length + " values, got " + values.length + ".");
+        return new Bound(this, values.clone());
+    }
+
+    /**
+     * @return INSERT, UPDATE, DELETE or SELECT (every other read: scalar, distinct, join).
+     */
+    public QueryType getType() {
+        return type;
+    }
+
+    public boolean isWrite() {
+        return type != QueryType.SELECT;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public int getSlotCount() {
+        return keys.length;
+    }
+
+    public String getSlotKey(int slot) {
+        return keys[slot];
+    }
+
+    public DataType getSlotType(int slot) {
+        return types[slot];
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
@@ -129,6 +129,23 @@ public class SQLInsertQuery extends SQLQuery{
 		return row;
 	}
 
+	/**
+	 * Same insert with rowCount VALUES groups: INSERT INTO T ( a, b) VALUES ( ?, ?), ( ?, ?), ...
+	 * @param rowCount
+	 * @return
+	 */
+	public String toMultiRowString(int rowCount) {
+		String single = toString();
+		if (rowCount <= 1) return single;
+		String group = valueBuffer.substring(" VALUES ".length()).trim();
+		StringBuilder buffer = new StringBuilder(single.length() + (group.length() + 2) * (rowCount - 1));
+		buffer.append(single);
+		for (int index = 1; index < rowCount; index++) {
+			buffer.append(", ").append(group);
+		}
+		return buffer.toString();
+	}
+
     @Override
     public String bindValueToString() {
         StringBuffer buffer = new StringBuffer(toString());
@@ -0,0 +1,336 @@
+package com.it.soul.lab.sql.query.models;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column oriented alternative to Table for large results: the schema (names, types) is stored once and
+ * every column is one array. INT, LONG, FLOAT and DOUBLE columns are primitive arrays and BOOL a bit set,
+ * each with a null bitmap; all other types share an Object array per column.
+ * A 1M x 10 result is then ten arrays instead of 10M Property objects with boxed values.
+ * Not thread safe while being filled.
+ */
+public final class ColumnarTable {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final String[] columns;
+    private final DataType[] types;
+    private final Object[] data;
+    private final BitSet[] nulls;
+    private int size;
+    private int capacity;
+
+    public ColumnarTable(String[] columns, DataType[] types) {
+        this(columns, types, DEFAULT_CAPACITY);
+    }
+
+    public ColumnarTable(String[] columns, DataType[] types, int initialCapacity) {
+        if (columns == null || types == null || columns.length != types.length) {
+            throw new IllegalArgumentException("Columns and types must be non-null and of same length.");
+        }
+        this.columns = columns.clone();
+        this.types = new DataType[types.length];
+        this.data = new Object[columns.length];
+        this.nulls = new BitSet[columns.length];
+        this.capacity = Math.max(1, initialCapacity);
+        for (int column = 0; column < columns.length; column++) {
+            this.types[column] = storageOf(types[column]);
+            this.data[column] = allocate(this.types[column], capacity);
+            if (isPrimitive(this.types[column])) nulls[column] = new BitSet();
+        }
+    }
+
+    /**
+     * Column types that get primitive storage keep their type, everything else is stored as OBJECT
+     * except STRING, which is kept so callers can tell text columns apart.
+     */
+    private static DataType storageOf(DataType type) {
+        if (type == null) return DataType.OBJECT;
+        switch (type) {
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+            case BOOL:
+            case STRING:
+                return type;
+            default:
+                return DataType.OBJECT;
+        }
+    }
+
+    private static boolean isPrimitive(DataType type) {
+        return type != DataType.STRING && type != DataType.OBJECT;
+    }
+
+    private static Object allocate(DataType type, int capacity) {
+        switch (type) {
+            case INT: return new int[capacity];
+            case LONG: return new long[capacity];
+            case FLOAT: return new float[capacity];
+            case DOUBLE: return new double[capacity];
+            case BOOL: return new BitSet(capacity);
+            default: return new Object[capacity];
+        }
+    }
+
+    private static Object resize(Object array, int capacity) {
+        if (array instanceof int[]) return Arrays.copyOf((int[]) array, capacity);
+        if (array instanceof long[]) return Arrays.copyOf((long[]) array, capacity);
+        if (array instanceof float[]) return Arrays.copyOf((float[]) array, capacity);
+        if (array instanceof double[]) return Arrays.copyOf((double[]) array, capacity);
+        if (array instanceof Object[]) return Arrays.copyOf((Object[]) array, capacity);
+        return array; //BitSet grows by itself.
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    public DataType getType(int column) {
+        return types[column];
+    }
+
+    /**
+     * @param name
+     * @return index of the column, matched exactly first and then ignoring case; -1 if absent.
+     */
+    public int getColumnIndex(String name) {
+        for (int column = 0; column < columns.length; column++) {
+            if (columns[column].equals(name)) return column;
+        }
+        for (int column = 0; column < columns.length; column++) {
+            if (columns[column].equalsIgnoreCase(name)) return column;
+        }
+        return -1;
+    }
+
+    /**
+     * Appends an empty row (primitive cells 0/false, object cells null) and returns its index.
+     * @return
+     */
+    public int addRow() {
+        if (size == capacity) {
+            capacity = capacity + (capacity >> 1) + 1;
+            for (int column = 0; column < data.length; column++) {
+                data[column] = resize(data[column], capacity);
+            }
+        }
+        return size++;
+    }
+
+    /**
+     * Shrinks the column arrays to size(), once the table is complete.
+     */
+    public void trimToSize() {
+        if (size == capacity) return;
+        capacity = Math.max(1, size);
+        for (int column = 0; column < data.length; column++) {
+            data[column] = resize(data[column], capacity);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+    }
+
+    public void setInt(int row, int column, int value) {
+        checkRow(row);
+        ((int[]) data[column])[row] = value;
+        nulls[column].clear(row);
+    }
+
+    public void setLong(int row, int column, long value) {
+        checkRow(row);
+        ((long[]) data[column])[row] = value;
+        nulls[column].clear(row);
+    }
+
+    public void setFloat(int row, int column, float value) {
+        checkRow(row);
+        ((float[]) data[column])[row] = value;
+        nulls[column].clear(row);
+    }
+
+    public void setDouble(int row, int column, double value) {
+        checkRow(row);
+        ((double[]) data[column])[row] = value;
+        nulls[column].clear(row);
+    }
+
+    public void setBoolean(int row, int column, boolean value) {
+        checkRow(row);
+        ((BitSet) data[column]).set(row, value);
+        nulls[column].clear(row);
+    }
+
+    public void setNull(int row, int column) {
+        checkRow(row);
+        if (nulls[column] != null) nulls[column].set(row);
+        else ((Object[]) data[column])[row] = null;
+    }
+
+    /**
+     * Stores any value, unboxing it for primitive columns; null marks the cell null.
+     * @param row
+     * @param column
+     * @param value
+     */
+    public void setObject(int row, int column, Object value) {
+        checkRow(row);
+        if (value == null) {
+            setNull(row, column);
+            return;
+        }
+        switch (types[column]) {
+            case INT: ((int[]) data[column])[row] = ((Number) value).intValue(); break;
+            case LONG: ((long[]) data[column])[row] = ((Number) value).longValue(); break;
+            case FLOAT: ((float[]) data[column])[row] = ((Number) value).floatValue(); break;
+            case DOUBLE: ((double[]) data[column])[row] = ((Number) value).doubleValue(); break;
+            case BOOL: ((BitSet) data[column]).set(row, (Boolean) value); break;
+            default: ((Object[]) data[column])[row] = value; break;
+        }
+        if (nulls[column] != null) nulls[column].clear(row);
+    }
+
+    public boolean isNull(int row, int column) {
+        checkRow(row);
+        if (nulls[column] != null) return nulls[column].get(row);
+        return ((Object[]) data[column])[row] == null;
+    }
+
+    public int getInt(int row, int column) {
+        checkRow(row);
+        return ((int[]) data[column])[row];
+    }
+
+    public long getLong(int row, int column) {
+        checkRow(row);
+        return ((long[]) data[column])[row];
+    }
+
+    public float getFloat(int row, int column) {
+        checkRow(row);
+        return ((float[]) data[column])[row];
+    }
+
+    public double getDouble(int row, int column) {
+        checkRow(row);
+        return ((double[]) data[column])[row];
+    }
+
+    public boolean getBoolean(int row, int column) {
+        checkRow(row);
+        return ((BitSet) data[column]).get(row);
+    }
+
+    /**
+     * @param row
+     * @param column
+     * @return the cell value, boxed for primitive columns; null for null cells.
+     */
+    public Object getObject(int row, int column) {
+        if (isNull(row, column)) return null;
+        switch (types[column]) {
+            case INT: return ((int[]) data[column])[row];
+            case LONG: return ((long[]) data[column])[row];
+            case FLOAT: return ((float[]) data[column])[row];
+            case DOUBLE: return ((double[]) data[column])[row];
+            case BOOL: return ((BitSet) data[column]).get(row);
+            default: return ((Object[]) data[column])[row];
+        }
+    }
+
+    /**
+     * Backing arrays for scans without boxing; only the first size() entries are valid
+     * and the array is replaced when the table grows or is trimmed.
+     * @param column
+     * @return
+     */
+    public int[] getIntColumn(int column) {
+        return (int[]) data[column];
+    }
+
+    public long[] getLongColumn(int column) {
+        return (long[]) data[column];
+    }
+
+    public float[] getFloatColumn(int column) {
+        return (float[]) data[column];
+    }
+
+    public double[] getDoubleColumn(int column) {
+        return (double[]) data[column];
+    }
+
+    public Object[] getObjectColumn(int column) {
+        return (Object[]) data[column];
+    }
+
+    /**
+     * @param column
+     * @return a copy of the column's null bitmap (empty for STRING/OBJECT columns, see isNull).
+     */
+    public BitSet getNulls(int column) {
+        return (nulls[column] != null) ? (BitSet) nulls[column].clone() : new BitSet();
+    }
+
+    public Row getRow(int row) {
+        checkRow(row);
+        Row result = new Row();
+        for (int column = 0; column < columns.length; column++) {
+            //Row.add() drops a property equal in value to one already added; every column is kept:
+            result.getProperties().add(new Property(columns[column], getObject(row, column)));
+        }
+        return result;
+    }
+
+    /**
+     * Materializes every row, for code that needs the row oriented Table.
+     * @return
+     */
+    public Table toTable() {
+        List<Row> rows = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            rows.add(getRow(row));
+        }
+        Table table = new Table();
+        table.setRows(rows);
+        return table;
+    }
+
+    public <T> List<T> inflate(Class<T> type) throws InstantiationException, IllegalAccessException {
+        return inflate(type, null);
+    }
+
+    public <T> List<T> inflate(Class<T> type, Map<String, String> mappingKeys) throws InstantiationException, IllegalAccessException {
+        List<T> items = new ArrayList<>(size);
+        RowBinder<T> binder = RowBinder.of(type, columns, mappingKeys);
+        int[] cursor = new int[1];
+        RowBinder.ColumnValues values = index -> getObject(cursor[0], index);
+        try {
+            for (int row = 0; row < size; row++) {
+                cursor[0] = row;
+                items.add(binder.bind(values));
+            }
+        } catch (SQLException e) {
+            //Cells never throw.
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return items;
+    }
+
+}
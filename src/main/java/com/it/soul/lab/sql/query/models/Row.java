@@ -1,8 +1,5 @@
 package com.it.soul.lab.sql.query.models;
 
-import com.it.soul.lab.sql.entity.EntityInterface;
-
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -89,24 +86,7 @@ public class Row {
 		return inflate(type, null);
 	}
     public <T> T inflate(Class<T> type, Map<String, String> mappingKeys) throws InstantiationException, IllegalAccessException {
-		Class<T> cls = type;
-		T newInstance = cls.newInstance();
-		Field[] fields;
-		if (EntityInterface.class.isAssignableFrom(cls)){
-		    fields = ((EntityInterface)newInstance).getDeclaredFields(true);
-        }else{
-            fields = cls.getDeclaredFields();
-        }
-		Map<String, Property> data = this.keyValueMapToNames(mappingKeys);
-        for (Field field : fields) {
-            field.setAccessible(true);
-            Property entry = data.get(field.getName());
-            if(entry != null) {
-            	field.set(newInstance, entry.getValue());
-            }
-            field.setAccessible(false);
-        }
-		return newInstance;
+		return RowBinder.of(type, RowBinder.columnsOf(this), mappingKeys).bind(this);
 	}
     @Override
     public String toString() {
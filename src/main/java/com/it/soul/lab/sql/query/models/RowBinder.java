@@ -0,0 +1,235 @@
+package com.it.soul.lab.sql.query.models;
+
+import com.it.soul.lab.sql.entity.EntityInterface;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Fills new instances of a class from positional column values.
+ * The column-to-field resolution and the MethodHandle setters are built once per
+ * (class, column layout, mapping) and cached, so binding a row needs no Row, Property or Map.
+ * Column values are only read for columns that map to a field.
+ */
+public final class RowBinder<T> {
+
+    /**
+     * Positional source of a single row; index is 0 based into the binder's column layout.
+     */
+    public interface ColumnValues {
+        Object valueAt(int index) throws SQLException;
+    }
+
+    private static final class Layout {
+        private final String[] columns;
+        private final Map<String, String> mappingKeys;
+        private final int hash;
+
+        Layout(String[] columns, Map<String, String> mappingKeys) {
+            this.columns = columns;
+            this.mappingKeys = mappingKeys;
+            this.hash = 31 * Arrays.hashCode(columns) + Objects.hashCode(mappingKeys);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Layout)) return false;
+            Layout layout = (Layout) o;
+            return Arrays.equals(columns, layout.columns) && Objects.equals(mappingKeys, layout.mappingKeys);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final int MAX_LAYOUTS_PER_CLASS = 64;
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final ClassValue<ConcurrentMap<Layout, RowBinder<?>>> BINDERS = new ClassValue<ConcurrentMap<Layout, RowBinder<?>>>() {
+        @Override
+        protected ConcurrentMap<Layout, RowBinder<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * @param type
+     * @param columns column names in result order.
+     * @param mappingKeys Column:Name -> field name; null or empty means column name == field name.
+     * @return
+     * @throws InstantiationException when type has no accessible no-arg constructor.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowBinder<T> of(Class<T> type, String[] columns, Map<String, String> mappingKeys) throws InstantiationException {
+        Map<String, String> mapping = (mappingKeys == null || mappingKeys.isEmpty()) ? null : mappingKeys;
+        ConcurrentMap<Layout, RowBinder<?>> binders = BINDERS.get(type);
+        RowBinder<?> binder = binders.get(new Layout(columns, mapping));
+        if (binder != null) return (RowBinder<T>) binder;
+        Layout layout = new Layout(columns.clone(), (mapping == null) ? null : new HashMap<>(mapping));
+        RowBinder<T> created = new RowBinder<>(type, layout);
+        if (binders.size() < MAX_LAYOUTS_PER_CLASS){
+            RowBinder<?> existing = binders.putIfAbsent(layout, created);
+            if (existing != null) return (RowBinder<T>) existing;
+        }
+        return created;
+    }
+
+    private final Class<T> type;
+    private final String[] columns;
+    private final MethodHandle constructor;
+    private final int[] boundIndexes;
+    private final MethodHandle[] setters;
+    private final boolean[] primitives;
+
+    private RowBinder(Class<T> type, Layout layout) throws InstantiationException {
+        this.type = type;
+        this.columns = layout.columns;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Object prototype;
+        try {
+            Constructor<T> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(ctor).asType(CONSTRUCTOR_TYPE);
+            prototype = ctor.newInstance();
+        } catch (ReflectiveOperationException | SecurityException e) {
+            InstantiationException exp = new InstantiationException(type.getName() + " needs a no-arg constructor.");
+            exp.initCause(e);
+            throw exp;
+        }
+        Field[] fields = (prototype instanceof EntityInterface)
+                ? ((EntityInterface) prototype).getDeclaredFields(true)
+                : type.getDeclaredFields();
+        Map<String, Field> fieldsByName = new HashMap<>();
+        for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            fieldsByName.putIfAbsent(field.getName(), field);
+        }
+        int[] indexes = new int[columns.length];
+        MethodHandle[] setters = new MethodHandle[columns.length];
+        boolean[] primitives = new boolean[columns.length];
+        int count = 0;
+        for (int index = 0; index < columns.length; index++) {
+            String fieldName = (layout.mappingKeys == null) ? columns[index] : layout.mappingKeys.get(columns[index]);
+            Field field = (fieldName == null) ? null : fieldsByName.get(fieldName);
+            if (field == null) continue;
+            indexes[count] = index;
+            setters[count] = setterFor(lookup, field);
+            primitives[count] = field.getType().isPrimitive();
+            count++;
+        }
+        this.boundIndexes = Arrays.copyOf(indexes, count);
+        this.setters = Arrays.copyOf(setters, count);
+        this.primitives = Arrays.copyOf(primitives, count);
+    }
+
+    private static MethodHandle setterFor(MethodHandles.Lookup lookup, Field field) throws InstantiationException {
+        try {
+            field.setAccessible(true);
+            return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException | SecurityException e) {
+            //e.g. final fields: fall back to reflective Field.set
+            try {
+                MethodHandle set = lookup.findVirtual(Field.class, "set", SETTER_TYPE);
+                return set.bindTo(field);
+            } catch (NoSuchMethodException | IllegalAccessException exp) {
+                InstantiationException ie = new InstantiationException("Can't bind field " + field.getName());
+                ie.initCause(exp);
+                throw ie;
+            }
+        }
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @param columns
+     * @return true if this binder was built for exactly these column names.
+     */
+    public boolean matches(String[] columns) {
+        return Arrays.equals(this.columns, columns);
+    }
+
+    public boolean matches(Row row) {
+        List<Property> properties = row.getProperties();
+        if (properties.size() != columns.length) return false;
+        for (int index = 0; index < columns.length; index++) {
+            if (!columns[index].equals(properties.get(index).getKey())) return false;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T bind(ColumnValues values) throws InstantiationException, IllegalAccessException, SQLException {
+        T instance;
+        try {
+            instance = (T) (Object) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            InstantiationException exp = new InstantiationException(e.getMessage());
+            exp.initCause(e);
+            throw exp;
+        }
+        for (int slot = 0; slot < setters.length; slot++) {
+            Object value = values.valueAt(boundIndexes[slot]);
+            if (value == null && primitives[slot]) continue;
+            try {
+                setters[slot].invokeExact((Object) instance, value);
+            } catch (ClassCastException e) {
+                throw new IllegalArgumentException("Can not set " + columns[boundIndexes[slot]] + " of " + type.getName() + ": " + e.getMessage(), e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (IllegalAccessException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+        return instance;
+    }
+
+    public T bind(Row row) throws InstantiationException, IllegalAccessException {
+        List<Property> properties = row.getProperties();
+        try {
+            return bind(index -> properties.get(index).getValue());
+        } catch (SQLException e) {
+            //Row values never throw.
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param row
+     * @return column names of the row, in order.
+     */
+    public static String[] columnsOf(Row row) {
+        List<Property> properties = row.getProperties();
+        String[] columns = new String[properties.size()];
+        for (int index = 0; index < columns.length; index++) {
+            columns[index] = properties.get(index).getKey();
+        }
+        return columns;
+    }
+}
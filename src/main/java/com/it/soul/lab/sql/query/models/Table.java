@@ -23,17 +23,17 @@ public class Table {
 		return this;
 	}
 	public <T> List<T> inflate(Class<T> type) throws InstantiationException, IllegalAccessException{
-		List<T> inflatedRows = new ArrayList<>();
-		for (Row row : getRows()) {
-			T item = (T) row.inflate(type);
-			inflatedRows.add(item);
-		}
-		return inflatedRows;
+		return inflate(type, null);
 	}
 	public <T> List<T> inflate(Class<T> type, Map<String, String> mappingKeys) throws InstantiationException, IllegalAccessException{
-		List<T> inflatedRows = new ArrayList<>();
+		List<T> inflatedRows = new ArrayList<>(getRows().size());
+		//Rows of one result share a layout, so the binder is looked up once:
+		RowBinder<T> binder = null;
 		for (Row row : getRows()) {
-			T item = (T) row.inflate(type, mappingKeys);
+			if (binder == null || !binder.matches(row)) {
+				binder = RowBinder.of(type, RowBinder.columnsOf(row), mappingKeys);
+			}
+			T item = binder.bind(row);
 			inflatedRows.add(item);
 		}
 		return inflatedRows;
@@ -0,0 +1,89 @@
+package com.it.soul.lab.connect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectionPoolTest {
+
+	private ConnectionPool pool;
+
+	@Before
+	public void before(){
+		pool = new ConnectionPool.Builder(DriverClass.H2_EMBEDDED)
+				.database("testH2DB")
+				.credential("sa", "")
+				.minSize(1)
+				.maxSize(2)
+				.borrowTimeout(200, TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	@After
+	public void after(){
+		pool.close();
+	}
+
+	@Test
+	public void testBorrowAndReturn() throws SQLException {
+		Assert.assertEquals(1, pool.idleConnections());
+		Connection conn = pool.getConnection();
+		Assert.assertFalse(conn.isClosed());
+		Assert.assertEquals(1, pool.activeConnections());
+		conn.close();
+		Assert.assertTrue(conn.isClosed());
+		Assert.assertEquals(0, pool.activeConnections());
+		Assert.assertEquals(1, pool.totalConnections());
+	}
+
+	@Test
+	public void testBoundedBorrow() throws SQLException {
+		Connection a = pool.getConnection();
+		Connection b = pool.getConnection();
+		Assert.assertEquals(2, pool.totalConnections());
+		try {
+			pool.getConnection();
+			Assert.fail("Third borrow must time out.");
+		} catch (SQLException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Timeout"));
+		}
+		b.close();
+		Connection c = pool.getConnection();
+		Assert.assertEquals(2, pool.totalConnections());
+		a.close();
+		c.close();
+		Assert.assertEquals(2, pool.idleConnections());
+	}
+
+	@Test(expected = SQLException.class)
+	public void testUseAfterReturn() throws SQLException {
+		Connection conn = pool.getConnection();
+		conn.close();
+		conn.createStatement();
+	}
+
+	@Test
+	public void testReturnResetsSession() throws SQLException {
+		Connection conn = pool.getConnection();
+		int isolation = conn.getTransactionIsolation();
+		conn.setReadOnly(true);
+		conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+		Statement stmt = conn.createStatement();
+		//Closing the statement's connection returns the pooled one, not the physical:
+		Assert.assertSame(conn, stmt.getConnection());
+		stmt.getConnection().close();
+		Assert.assertEquals(1, pool.totalConnections());
+		Connection again = pool.getConnection();
+		Assert.assertFalse(again.isClosed());
+		Assert.assertFalse(again.isReadOnly());
+		Assert.assertEquals(isolation, again.getTransactionIsolation());
+		again.close();
+	}
+
+}
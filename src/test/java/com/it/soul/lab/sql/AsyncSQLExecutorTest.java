@@ -0,0 +1,202 @@
+package com.it.soul.lab.sql;
+
+import com.it.soul.lab.connect.ConnectionPool;
+import com.it.soul.lab.connect.DriverClass;
+import com.it.soul.lab.sql.entity.ParallelScan;
+import com.it.soul.lab.sql.query.QueryType;
+import com.it.soul.lab.sql.query.SQLInsertQuery;
+import com.it.soul.lab.sql.query.SQLQuery;
+import com.it.soul.lab.sql.query.SQLScalarQuery;
+import com.it.soul.lab.sql.query.SQLSelectQuery;
+import com.it.soul.lab.sql.query.models.Property;
+import com.it.soul.lab.sql.query.models.Row;
+import com.it.soul.lab.sql.query.models.Where;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncSQLExecutorTest {
+
+    private ConnectionPool pool;
+    private AsyncSQLExecutor async;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new ConnectionPool.Builder(DriverClass.H2_EMBEDDED)
+                .database("asyncH2DB;DATABASE_TO_LOWER=TRUE") //so id binds to Passenger.id
+                .credential("sa", "")
+                .minSize(1)
+                .maxSize(3)
+                .build();
+        async = new AsyncSQLExecutor.Builder(pool).threads(3).build();
+        async.submit(exe -> exe.executeDDLQuery("CREATE TABLE IF NOT EXISTS Passenger (" +
+                "id int auto_increment primary key" +
+                ", name varchar(1024) null" +
+                ", age int default '18' null" +
+                ", sex varchar(12) null);")).get(5, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        async.submit(exe -> exe.executeDDLQuery("DROP TABLE Passenger")).get(5, TimeUnit.SECONDS);
+        async.close();
+        pool.close();
+    }
+
+    @Test
+    public void concurrentQueries() throws Exception {
+        List<CompletableFuture<Integer>> inserts = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            SQLInsertQuery insert = new SQLQuery.Builder(QueryType.INSERT)
+                    .into("Passenger")
+                    .values(new Property("name", "async-" + i), new Property("age", 20 + i), new Property("sex", "male"))
+                    .build();
+            inserts.add(async.executeInsert(true, insert));
+        }
+        CompletableFuture.allOf(inserts.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        SQLScalarQuery count = new SQLQuery.Builder(QueryType.COUNT)
+                .columns().on("Passenger").build();
+        SQLSelectQuery select = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("age").isGreaterThenOrEqual(23))
+                .build();
+        CompletableFuture<Integer> total = async.getScalarValue(count);
+        CompletableFuture<List<Passenger>> older = async.executeSelect(select, Passenger.class);
+
+        Assert.assertEquals(Integer.valueOf(6), total.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(3, older.get(5, TimeUnit.SECONDS).size());
+        //Every connection went back to the pool:
+        Assert.assertEquals(0, pool.activeConnections());
+    }
+
+    @Test
+    public void taskStatementsClosed() throws Exception {
+        //A ResultSet left open by the task must not keep its statement open on the pooled connection:
+        ResultSet rst = async.submit(exe -> {
+            exe.setStatementCacheSize(4);
+            return exe.executeSelect("SELECT * FROM Passenger");
+        }).get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(rst.isClosed());
+        Assert.assertEquals(0, pool.activeConnections());
+    }
+
+    @Test
+    public void parallelScan() throws Exception {
+        List<CompletableFuture<Integer>> inserts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            SQLInsertQuery insert = new SQLQuery.Builder(QueryType.INSERT)
+                    .into("Passenger")
+                    .values(new Property("name", "scan-" + i), new Property("age", i % 2 == 0 ? 20 : 40), new Property("sex", "male"))
+                    .build();
+            inserts.add(async.executeInsert(true, insert));
+        }
+        CompletableFuture.allOf(inserts.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        List<Integer> ids = new ArrayList<>();
+        new ParallelScan.Builder<>(Passenger.class, async)
+                .partitions(3)
+                .pageSize(2)
+                .where(new Where("age").isEqualTo(20))
+                .ordering(ParallelScan.Ordering.PARTITION)
+                .build()
+                .read(items -> items.forEach(item -> ids.add(item.getId())));
+        Assert.assertEquals(10, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            Assert.assertTrue(ids.get(i - 1) < ids.get(i));
+        }
+        Assert.assertEquals(0, pool.activeConnections());
+    }
+
+    @Test
+    public void failedQuery() throws Exception {
+        CompletableFuture<Integer> result = async.submit(exe -> exe.getScalerValue("SELECT COUNT(*) FROM NoSuchTable"));
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            Assert.fail("Table must not exist.");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof SQLException);
+        }
+        Assert.assertEquals(0, pool.activeConnections());
+    }
+
+    @Test
+    public void parallelBatchWriter() throws Exception {
+        SQLInsertQuery insert = new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name"), new Property("age"), new Property("sex"))
+                .build();
+        SQLScalarQuery count = new SQLQuery.Builder(QueryType.COUNT)
+                .columns().on("Passenger").build();
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 1050; i++) {
+            rows.add(new Row().add("name", "writer-" + i).add("age", i % 90).add("sex", "male"));
+        }
+        ParallelBatchWriter writer = new ParallelBatchWriter.Builder(pool)
+                .parallelism(3)
+                .shardSize(100)
+                .batchSize(100)
+                .build();
+        Integer[] counts = writer.insert(false, insert, rows);
+        Assert.assertEquals(1050, counts.length);
+        Assert.assertEquals(1050, async.getScalarValue(count).get(5, TimeUnit.SECONDS).intValue());
+        //All or nothing: one failing shard rolls back the others.
+        ParallelBatchWriter atomic = new ParallelBatchWriter.Builder(pool)
+                .parallelism(3)
+                .shardSize(100)
+                .commit(ParallelBatchWriter.Commit.ALL_OR_NOTHING)
+                .build();
+        try {
+            atomic.write(rows.stream(), (exe, shard) -> {
+                if (shard.get(0) == rows.get(500)) throw new SQLException("shard failed");
+                return exe.executeInsert(false, 100, insert, shard);
+            });
+            Assert.fail("The failing shard must be reported.");
+        } catch (SQLException e) {
+            Assert.assertEquals("shard failed", e.getMessage());
+        }
+        Assert.assertEquals(1050, async.getScalarValue(count).get(5, TimeUnit.SECONDS).intValue());
+    }
+
+    @Test
+    public void bulkWriter() throws Exception {
+        SQLInsertQuery insert = new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name"), new Property("age"), new Property("sex"))
+                .build();
+        SQLScalarQuery count = new SQLQuery.Builder(QueryType.COUNT)
+                .columns().on("Passenger").build();
+        BulkWriter writer = new BulkWriter.Builder(pool, insert)
+                .queueCapacity(200)
+                .batchSize(100)
+                .flushInterval(50, TimeUnit.MILLISECONDS)
+                .build();
+        for (int i = 0; i < 1234; i++) {
+            writer.put(new Row().add("name", "bulk-" + i).add("age", i % 90).add("sex", "female"));
+        }
+        writer.flush();
+        Assert.assertEquals(1234, writer.getWrittenRows());
+        Assert.assertEquals(1234, async.getScalarValue(count).get(5, TimeUnit.SECONDS).intValue());
+        Assert.assertTrue(writer.getFlushCount() >= 13);
+        //A partial batch goes out once flushInterval has passed:
+        Assert.assertTrue(writer.offer(new Row().add("name", "bulk-last").add("age", 1).add("sex", "female")));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writer.getWrittenRows() < 1235 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        Assert.assertEquals(1235, writer.getWrittenRows());
+        writer.close();
+        Assert.assertEquals(0, writer.getFailedRows());
+        try {
+            writer.offer(new Row().add("name", "closed"));
+            Assert.fail("Rows must be refused after close().");
+        } catch (IllegalStateException e) {}
+    }
+}
@@ -1,6 +1,7 @@
 package com.it.soul.lab.sql;
 
 import com.it.soul.lab.sql.entity.Entity;
+import com.it.soul.lab.sql.entity.EntityMetadata;
 import com.it.soul.lab.sql.entity.Ignore;
 import org.junit.Assert;
 import org.junit.Test;
@@ -38,6 +39,20 @@ public class EntityTest {
         Assert.assertEquals("Both Owner Must Be same! Too", me, nOwner);
     }
 
+    @Test
+    public void metadataTest(){
+        EntityMetadata metadata = EntityMetadata.of(Passenger.class);
+        Assert.assertSame(metadata, EntityMetadata.of(Passenger.class));
+        Assert.assertEquals("Passenger", metadata.getTableName());
+        Assert.assertTrue(metadata.isAutoIncrement());
+        Assert.assertEquals(1, metadata.getPrimaryFields().size());
+        Assert.assertEquals("id", metadata.getPrimaryFields().get(0).getColumnName());
+        Assert.assertEquals(4, metadata.getProperties().size());
+        //Without @TableName(acceptAll) only annotated fields are properties:
+        Assert.assertTrue(EntityMetadata.of(Owner.class).getField("serialVersionUID", true).isIgnored());
+        Assert.assertTrue(EntityMetadata.of(Owner.class).getProperties().isEmpty());
+    }
+
     public static class Owner extends Entity {
         @Ignore
         private static final long serialVersionUID = 1L;
@@ -3,6 +3,9 @@ package com.it.soul.lab.sql;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import com.it.soul.lab.connect.io.ScriptRunner;
@@ -13,6 +16,11 @@ import org.junit.Test;
 
 import com.it.soul.lab.connect.JDBConnection;
 import com.it.soul.lab.connect.DriverClass;
+import com.it.soul.lab.sql.entity.EnableCache;
+import com.it.soul.lab.sql.entity.Entity;
+import com.it.soul.lab.sql.entity.EntityCache;
+import com.it.soul.lab.sql.entity.TableName;
+import com.it.soul.lab.sql.query.models.Where;
 import com.it.soul.lab.sql.query.models.Property;
 
 public class PassengerTest {
@@ -110,6 +118,110 @@ public class PassengerTest {
 		//Assert.assertTrue(prop != null);
 	}
 
+	@Test
+	public void keysetRead() throws Exception {
+		//Lower-case identifiers, so the id column binds to Passenger.id:
+		try (SQLExecutor lowerCase = new SQLExecutor.Builder(DriverClass.H2_EMBEDDED)
+				.database("keysetH2DB;DATABASE_TO_LOWER=TRUE")
+				.credential("sa", "").build()) {
+			lowerCase.executeDDLQuery("CREATE TABLE IF NOT EXISTS Passenger (id int auto_increment primary key" +
+					", name varchar(1024) null, age int null, sex varchar(12) null)");
+			for (int i = 0; i < 7; i++) {
+				Passenger passenger = new Passenger();
+				passenger.setName("keyset");
+				passenger.setAge(getRandomAge());
+				passenger.insert(lowerCase);
+			}
+			List<Integer> pageSizes = new ArrayList<>();
+			List<Integer> ids = new ArrayList<>();
+			Entity.readKeyset(Passenger.class, lowerCase, 3
+					, new Where("name").isEqualTo("keyset")
+					, (items) -> {
+						pageSizes.add(items.size());
+						items.forEach(item -> ids.add(item.getId()));
+					});
+			Assert.assertEquals(Arrays.asList(3, 3, 1), pageSizes);
+			for (int i = 1; i < ids.size(); i++) {
+				Assert.assertTrue(ids.get(i - 1) < ids.get(i));
+			}
+			lowerCase.executeDDLQuery("DROP TABLE Passenger");
+			//A failed page is thrown, not taken for the end of data:
+			try {
+				Entity.readKeyset(Passenger.class, lowerCase, 3, null, (items) -> {});
+				Assert.fail("Reading a dropped table must fail.");
+			} catch (SQLException e) {}
+		}
+	}
+
+	@TableName("Passenger")
+	@EnableCache(maxSize = 2)
+	public static class CachedPassenger extends Passenger {}
+
+	@Test
+	public void entityCache() throws Exception {
+		try (SQLExecutor lowerCase = new SQLExecutor.Builder(DriverClass.H2_EMBEDDED)
+				.database("cacheH2DB;DATABASE_TO_LOWER=TRUE")
+				.credential("sa", "").build()) {
+			lowerCase.executeDDLQuery("CREATE TABLE IF NOT EXISTS Passenger (id int auto_increment primary key" +
+					", name varchar(1024) null, age int null, sex varchar(12) null)");
+			EntityCache cache = EntityCache.of(CachedPassenger.class);
+			cache.clear();
+			List<CachedPassenger> inserted = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				CachedPassenger passenger = new CachedPassenger();
+				passenger.setName("cached-" + i);
+				passenger.setAge(getRandomAge());
+				passenger.insert(lowerCase);
+				inserted.add(passenger);
+			}
+			//Write-through on insert, bounded by maxSize:
+			Assert.assertEquals(2, cache.size());
+			CachedPassenger last = inserted.get(2);
+			List<CachedPassenger> hit = Entity.read(CachedPassenger.class, lowerCase, new Property("id", last.getId()));
+			Assert.assertEquals(1, cache.getHits());
+			Assert.assertEquals("cached-2", hit.get(0).getName());
+			Assert.assertNotSame(last, hit.get(0));
+			//The evicted one is read from the table and cached again:
+			List<CachedPassenger> miss = Entity.read(CachedPassenger.class, lowerCase, new Property("id", inserted.get(0).getId()));
+			Assert.assertEquals(1, cache.getMisses());
+			Assert.assertEquals("cached-0", miss.get(0).getName());
+			Assert.assertEquals(2, cache.size());
+
+			last.setName("renamed");
+			last.update(lowerCase, "name");
+			Assert.assertEquals("renamed", Entity.read(CachedPassenger.class, lowerCase, new Property("id", last.getId())).get(0).getName());
+			Assert.assertEquals(2, cache.getHits());
+
+			//Same table and id in another database is not served from this database's entries:
+			try (SQLExecutor other = new SQLExecutor.Builder(DriverClass.H2_EMBEDDED)
+					.database("otherCacheH2DB;DATABASE_TO_LOWER=TRUE")
+					.credential("sa", "").build()) {
+				other.executeDDLQuery("CREATE TABLE IF NOT EXISTS Passenger (id int auto_increment primary key" +
+						", name varchar(1024) null, age int null, sex varchar(12) null)");
+				Assert.assertTrue(Entity.read(CachedPassenger.class, other, new Property("id", last.getId())).isEmpty());
+				other.executeDDLQuery("DROP TABLE Passenger");
+			}
+			Assert.assertEquals(2, cache.getHits());
+
+			//A write inside a transaction evicts instead of storing, and reads in it are not cached:
+			CachedPassenger first = inserted.get(0);
+			lowerCase.begin();
+			first.setName("uncommitted");
+			first.update(lowerCase, "name");
+			Assert.assertEquals(1, cache.size());
+			Assert.assertEquals("uncommitted", Entity.read(CachedPassenger.class, lowerCase, new Property("id", first.getId())).get(0).getName());
+			Assert.assertEquals(1, cache.size());
+			lowerCase.abort();
+			Assert.assertEquals("cached-0", Entity.read(CachedPassenger.class, lowerCase, new Property("id", first.getId())).get(0).getName());
+			Assert.assertEquals(2, cache.size());
+
+			last.delete(lowerCase);
+			Assert.assertTrue(Entity.read(CachedPassenger.class, lowerCase, new Property("id", last.getId())).isEmpty());
+			cache.clear();
+			lowerCase.executeDDLQuery("DROP TABLE Passenger");
+		}
+	}
+
 	@Test
 	public void transactionTest(){
 		//
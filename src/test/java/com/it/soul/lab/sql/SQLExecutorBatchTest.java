@@ -7,15 +7,22 @@ import com.it.soul.lab.sql.entity.Entity;
 import com.it.soul.lab.sql.query.*;
 import com.it.soul.lab.sql.query.models.Property;
 import com.it.soul.lab.sql.query.models.Row;
+import com.it.soul.lab.sql.query.models.Table;
 import com.it.soul.lab.sql.query.models.Where;
+import org.h2.tools.Server;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.net.ServerSocket;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class SQLExecutorBatchTest {
 
@@ -237,4 +244,150 @@ public class SQLExecutorBatchTest {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void bulkInsert() throws SQLException {
+        SQLInsertQuery insert = new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name"), new Property("age"), new Property("sex"))
+                .build();
+        Assert.assertEquals("INSERT INTO Passenger ( name, age, sex) VALUES ( ?, ?, ?), ( ?, ?, ?)"
+                , insert.toMultiRowString(2));
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            rows.add(new Row().add("name", getRandomName()).add("age", getRandomAge()).add("sex", "male"));
+        }
+        //autoId: one generated key per row, in row order:
+        Integer[] keys = exe.executeBulkInsert(true, 100, insert, rows);
+        Assert.assertEquals(250, keys.length);
+        for (int i = 1; i < keys.length; i++) {
+            Assert.assertNotNull(keys[i]);
+            Assert.assertTrue(keys[i] > keys[i - 1]);
+        }
+        Integer[] counts = exe.executeBulkInsert(false, 100, insert, rows.subList(0, 30));
+        Assert.assertEquals(30, counts.length);
+        Assert.assertTrue(Arrays.stream(counts).allMatch(count -> count == 1));
+    }
+
+    @Test
+    public void batchBindingByPosition() throws SQLException {
+        SQLInsertQuery insert = new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name"), new Property("age"), new Property("sex"))
+                .build();
+        List<Row> rows = new ArrayList<>();
+        //Slot types come from the first row; a null there, a row in another column order:
+        rows.add(new Row().add("name", "Binder-A").add("age", null).add("sex", "binder"));
+        rows.add(new Row().add("name", "Binder-B").add("age", 41).add("sex", "binder"));
+        rows.add(new Row().add("sex", "binder").add("age", 42).add("name", "Binder-C"));
+        Integer[] inserted = exe.executeInsert(false, 100, insert, rows);
+        Assert.assertEquals(3, inserted.length);
+        //
+        SQLUpdateQuery update = new SQLQuery.Builder(QueryType.UPDATE)
+                .set(new Property("age"))
+                .from("Passenger")
+                .where(new Where("name").isEqualTo("Binder-C").and("sex").isEqualTo("binder"))
+                .build();
+        exe.executeUpdate(100, update, Arrays.asList(new Row().add("age", 50)));
+        SQLSelectQuery select = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("sex").isEqualTo("binder").and("age").isGreaterThen(40))
+                .build();
+        List<Row> found = exe.convertToLists(exe.executeSelect(select));
+        Assert.assertEquals(2, found.size());
+        SQLDeleteQuery delete = new SQLQuery.Builder(QueryType.DELETE)
+                .rowsFrom("Passenger")
+                .where(new Where("sex").isEqualTo("binder"))
+                .build();
+        Assert.assertEquals(3, exe.executeDelete(delete).intValue());
+    }
+
+    @Test
+    public void bulkLoad() throws SQLException {
+        Table data = new Table();
+        data.add(new Row().add("name", "Loader, \"A\"").add("age", 21).add("sex", "loader"));
+        data.add(new Row().add("name", "Loader-B").add("age", null).add("sex", "loader"));
+        data.add(new Row().add("sex", "loader").add("name", "Loader-C"));
+        Assert.assertEquals(3, exe.bulkLoad("Passenger", data));
+        //
+        List<Passenger> passengers = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            Passenger passenger = new Passenger();
+            passenger.setName("Loader-" + i);
+            passenger.setAge(getRandomAge());
+            passenger.setSex("loader");
+            passengers.add(passenger);
+        }
+        //a value repeated in the entity (name equals sex) must still fill both columns:
+        Passenger same = new Passenger();
+        same.setName("loader");
+        same.setAge(40);
+        same.setSex("loader");
+        passengers.add(same);
+        Assert.assertEquals(1201, exe.bulkLoad(Passenger.class, passengers.iterator()));
+        //
+        SQLSelectQuery select = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("sex").isEqualTo("loader"))
+                .build();
+        List<Row> found = exe.convertToLists(exe.executeSelect(select));
+        Assert.assertEquals(1204, found.size());
+        select = new SQLQuery.Builder(QueryType.SELECT)
+                .columns("name", "age").from("Passenger")
+                .where(new Where("sex").isEqualTo("loader").and("age").isNull())
+                .build();
+        found = exe.convertToLists(exe.executeSelect(select));
+        Assert.assertEquals(2, found.size());
+        select = new SQLQuery.Builder(QueryType.SELECT)
+                .columns("age").from("Passenger")
+                .where(new Where("name").isEqualTo("Loader, \"A\""))
+                .build();
+        found = exe.convertToLists(exe.executeSelect(select));
+        Assert.assertEquals(1, found.size());
+        Assert.assertEquals(21, found.get(0).getProperties().get(0).getValue());
+    }
+
+    @Test
+    public void bulkLoadFailure() throws SQLException {
+        List<Row> rows = new ArrayList<>();
+        rows.add(new Row().add("name", "Broken-A").add("age", 20).add("sex", "broken"));
+        rows.add(new Row().add("name", "Broken-B").add("age", "not-a-number").add("sex", "broken"));
+        try {
+            exe.bulkLoad("Passenger", new String[]{"name", "age", "sex"}, rows.iterator());
+            Assert.fail("A native load that failed must throw.");
+        } catch (SQLException e) {}
+        SQLSelectQuery select = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("sex").isEqualTo("broken"))
+                .build();
+        Assert.assertEquals(0, exe.convertToLists(exe.executeSelect(select)).size());
+    }
+
+    @Test
+    public void bulkLoadFallback() throws Exception {
+        //H2 over TCP has no native path in bulkLoad, so it takes the chunked insert:
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Server server = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+        Connection connection = DriverManager.getConnection("jdbc:h2:tcp://localhost:" + port + "/mem:bulkFallback", "sa", "");
+        try (SQLExecutor remote = new SQLExecutor(connection)) {
+            Assert.assertEquals(DriverClass.H2_SERVER, DriverClass.getMatchedDriver(connection.getMetaData().getURL()));
+            remote.executeDDLQuery("CREATE TABLE Passenger (id int auto_increment primary key, name varchar(1024) null, age int null, sex varchar(12) null)");
+            Stream<Row> rows = IntStream.range(0, 2500).mapToObj(i -> new Row()
+                    .add("sex", "fallback")
+                    .add("name", "Fallback-" + i)
+                    .add("age", (i % 2 == 0) ? null : i));
+            Assert.assertEquals(2500, remote.bulkLoad("Passenger", new String[]{"name", "age", "sex"}, rows));
+            SQLSelectQuery select = new SQLQuery.Builder(QueryType.SELECT)
+                    .columns().from("Passenger")
+                    .where(new Where("sex").isEqualTo("fallback").and("age").isNull())
+                    .build();
+            Assert.assertEquals(1250, remote.convertToLists(remote.executeSelect(select)).size());
+            Assert.assertTrue(connection.getAutoCommit());
+        } finally {
+            server.stop();
+        }
+    }
+}
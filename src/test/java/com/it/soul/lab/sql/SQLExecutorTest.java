@@ -1,8 +1,10 @@
 package com.it.soul.lab.sql;
 
+import com.codahale.metrics.MetricRegistry;
 import com.it.soul.lab.connect.DriverClass;
 import com.it.soul.lab.connect.io.ScriptRunner;
 import com.it.soul.lab.sql.query.*;
+import com.it.soul.lab.sql.query.models.ColumnarTable;
 import com.it.soul.lab.sql.query.models.DataType;
 import com.it.soul.lab.sql.query.models.Property;
 import com.it.soul.lab.sql.query.models.Row;
@@ -14,6 +16,12 @@ import org.junit.Test;
 
 import java.io.File;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 public class SQLExecutorTest {
 
@@ -92,4 +100,274 @@ public class SQLExecutorTest {
         int deleted = exe.executeDelete(query);
         Assert.assertTrue(deleted >= 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void streamSelect() throws SQLException {
+        for (int i = 0; i < 5; i++) {
+            insert();
+        }
+        SQLSelectQuery query = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("name").isEqualTo("MyName-A"))
+                .build();
+        try(Stream<Row> rows = exe.stream(query, 2)) {
+            Assert.assertTrue(rows.count() >= 5);
+        }
+        List<Passenger> passengers = new ArrayList<>();
+        exe.executeSelect(query, SQLExecutor.STREAMING_FETCH_SIZE, Passenger.class, null, passengers::add);
+        Assert.assertTrue(passengers.size() >= 5);
+    }
+
+    @Test
+    public void statementCache() throws Exception {
+        exe.setStatementCacheSize(4);
+        SQLScalarQuery count = new SQLQuery.Builder(QueryType.COUNT)
+                .columns().on("Passenger")
+                .where(new Where("name").isEqualTo("MyName-A"))
+                .build();
+        for (int i = 0; i < 3; i++) {
+            insert();
+            exe.getScalarValue(count);
+        }
+        Assert.assertEquals(2, exe.getStatementCacheMisses());
+        Assert.assertEquals(4, exe.getStatementCacheHits());
+        //Rollback drops cached statements, next prepare is a miss.
+        exe.begin();
+        exe.abort();
+        exe.getScalarValue(count);
+        Assert.assertEquals(3, exe.getStatementCacheMisses());
+        exe.setStatementCacheSize(0);
+        exe.getScalarValue(count);
+        Assert.assertEquals(4, exe.getStatementCacheHits());
+    }
+
+    @Test
+    public void metrics() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        exe.setMetrics(new MetricRegistryQueryMetrics(registry, "test"));
+        insert();
+        insert();
+        try {
+            exe.executeSelect("SELECT * FROM NoSuchTable WHERE id = 7", Passenger.class);
+            Assert.fail("Table must not exist.");
+        } catch (SQLException e) {}
+        exe.setMetrics(null);
+        insert();
+
+        String insertShape = QueryMetrics.shapeOf("INSERT INTO Passenger (name, age, sex) VALUES (?, ?, ?)");
+        Assert.assertEquals("INSERT INTO Passenger (name, age, sex) VALUES (?)", insertShape);
+        Assert.assertEquals(2, registry.timer("test.latency." + insertShape).getCount());
+        Assert.assertEquals(2, registry.histogram("test.rows-written." + insertShape).getCount());
+        //Failed prepare of the unknown table is an error, not a prepare:
+        Assert.assertEquals(2, registry.counter("test.prepare.driver").getCount());
+        Assert.assertEquals(1, registry.meter("test.errors.SELECT * FROM NoSuchTable WHERE id = ?").getCount());
+        Assert.assertEquals("SELECT * FROM T WHERE name = ? AND id IN (?) AND col1 > ?"
+                , QueryMetrics.shapeOf("SELECT  *  FROM T WHERE name = 'it''s' AND id IN (1, 2,3) AND col1 > 2.5;"));
+    }
+
+    @Test
+    public void columnarTable() throws Exception {
+        insert();
+        SQLSelectQuery query = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("name").isEqualTo("MyName-A"))
+                .build();
+        ColumnarTable table = exe.executeSelectColumnar(query, 0);
+        Assert.assertTrue(table.size() > 0);
+        int age = table.getColumnIndex("age");
+        int name = table.getColumnIndex("name");
+        Assert.assertEquals(DataType.INT, table.getType(age));
+        Assert.assertEquals(DataType.STRING, table.getType(name));
+        //insert() leaves age null, kept in the null bitmap instead of a boxed value:
+        Assert.assertTrue(table.isNull(0, age));
+        Assert.assertNull(table.getObject(0, age));
+        Assert.assertEquals("MyName-A", table.getObject(0, name));
+
+        //H2 reports upper-case column names:
+        Map<String, String> mapping = new HashMap<>();
+        mapping.put(table.getColumns()[name], "name");
+        List<Passenger> passengers = table.inflate(Passenger.class, mapping);
+        Assert.assertEquals(table.size(), passengers.size());
+        Assert.assertEquals("MyName-A", passengers.get(0).getName());
+        Assert.assertEquals(table.size(), table.toTable().getRows().size());
+
+        //a row whose values repeat (name equals sex) keeps every column:
+        SQLInsertQuery insert = new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name", "Columnar"), new Property("age", 18), new Property("sex", "m"))
+                .build();
+        Assert.assertEquals(1, exe.executeInsert(false, insert).intValue());
+        //the insert builder de-duplicates values too, so sex is set to the name separately:
+        Assert.assertEquals(1, exe.executeUpdate(new SQLQuery.Builder(QueryType.UPDATE)
+                .set(new Property("sex", "Columnar"))
+                .from("Passenger")
+                .where(new Where("name").isEqualTo("Columnar"))
+                .build()).intValue());
+        query = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("name").isEqualTo("Columnar"))
+                .build();
+        table = exe.executeSelectColumnar(query, 0);
+        Assert.assertEquals(table.getColumns().length, table.getRow(0).getProperties().size());
+        Assert.assertEquals(table.getColumns().length, table.toTable().getRows().get(0).getProperties().size());
+        exe.executeDelete(new SQLQuery.Builder(QueryType.DELETE)
+                .rowsFrom("Passenger")
+                .where(new Where("name").isEqualTo("Columnar"))
+                .build());
+    }
+
+    @Test
+    public void resultCache() throws Exception {
+        QueryResultCache cache = new QueryResultCache.Builder()
+                .maxEntries(10)
+                .ttl(1, TimeUnit.MINUTES)
+                .build();
+        exe.setResultCache(cache);
+        insert();
+        SQLSelectQuery query = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("name").isEqualTo("MyName-A"))
+                .build();
+        int size = exe.executeSelect(query, Passenger.class).size();
+        Assert.assertTrue(size > 0);
+        Assert.assertEquals(size, exe.executeSelect(query, Passenger.class).size());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        //Other where values are another entry:
+        SQLSelectQuery other = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("name").isEqualTo("MyName-B"))
+                .build();
+        Assert.assertEquals(0, exe.executeSelect(other, Passenger.class).size());
+        Assert.assertEquals(2, cache.size());
+        //A write to the table drops its entries:
+        insert();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(size + 1, exe.executeSelect(query, Passenger.class).size());
+        Assert.assertEquals(0.25, cache.getHitRatio(), 0.0001);
+        exe.setResultCache(null);
+    }
+
+    @Test
+    public void resultCacheSkipsOpenTransaction() throws Exception {
+        QueryResultCache cache = new QueryResultCache.Builder().build();
+        exe.setResultCache(cache);
+        SQLExecutor other = new SQLExecutor.Builder(DriverClass.H2_EMBEDDED)
+                .database("testH2DB")
+                .credential("sa", "").build();
+        other.setResultCache(cache);
+        SQLSelectQuery query = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("name").isEqualTo("Uncommitted"))
+                .build();
+        SQLInsertQuery insert = new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name", "Uncommitted"), new Property("age", 40))
+                .build();
+        try {
+            exe.begin();
+            exe.executeInsert(false, insert);
+            Assert.assertEquals(1, exe.executeSelect(query, Passenger.class).size());
+            exe.abort();
+            Assert.assertEquals(0, cache.size());
+            Assert.assertEquals(0, other.executeSelect(query, Passenger.class).size());
+            Assert.assertEquals(0, exe.executeSelect(query, Passenger.class).size());
+        } finally {
+            other.close();
+            exe.setResultCache(null);
+        }
+    }
+
+    @Test
+    public void resultCacheInvalidatedOnCommit() throws Exception {
+        QueryResultCache cache = new QueryResultCache.Builder().build();
+        exe.setResultCache(cache);
+        SQLExecutor other = new SQLExecutor.Builder(DriverClass.H2_EMBEDDED)
+                .database("testH2DB")
+                .credential("sa", "").build();
+        other.setResultCache(cache);
+        SQLSelectQuery query = new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("name").isEqualTo("Committed"))
+                .build();
+        SQLInsertQuery insert = new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name", "Committed"), new Property("age", 41))
+                .build();
+        try {
+            exe.begin();
+            exe.executeInsert(false, insert);
+            //the other executor reads (and caches) the rows before the commit:
+            Assert.assertEquals(0, other.executeSelect(query, Passenger.class).size());
+            Assert.assertEquals(1, cache.size());
+            exe.end();
+            Assert.assertEquals(0, cache.size());
+            Assert.assertEquals(1, other.executeSelect(query, Passenger.class).size());
+            Assert.assertEquals(1, exe.executeSelect(query, Passenger.class).size());
+        } finally {
+            other.close();
+            exe.setResultCache(null);
+            exe.executeDelete(new SQLQuery.Builder(QueryType.DELETE)
+                    .rowsFrom("Passenger")
+                    .where(new Where("name").isEqualTo("Committed"))
+                    .build());
+        }
+    }
+
+    @Test
+    public void queryTemplate() throws Exception {
+        QueryTemplate insert = QueryTemplate.of(new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name", ""), new Property("age", 0))
+                .build());
+        Assert.assertEquals(2, insert.getSlotCount());
+        Assert.assertEquals(1, exe.executeUpdate(insert.bind("Template-A", 21)).intValue());
+        Assert.assertEquals(1, exe.executeUpdate(insert.bind("Template-B", 22)).intValue());
+        //
+        QueryTemplate select = QueryTemplate.of(new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("name").isEqualTo(""))
+                .build());
+        Assert.assertEquals(1, exe.executeSelect(select.bind("Template-A"), Passenger.class, null).size());
+        Assert.assertEquals(1, exe.executeSelect(select.bind("Template-B"), Passenger.class, null).size());
+        //IS NULL takes no slot:
+        QueryTemplate update = QueryTemplate.of(new SQLQuery.Builder(QueryType.UPDATE)
+                .set(new Property("age", 0))
+                .from("Passenger")
+                .where(new Where("name").isEqualTo("").and("sex").isNull())
+                .build());
+        Assert.assertEquals(2, update.getSlotCount());
+        Assert.assertEquals(1, exe.executeUpdate(update.bind(30, "Template-A")).intValue());
+        //
+        QueryTemplate delete = QueryTemplate.of(new SQLQuery.Builder(QueryType.DELETE)
+                .rowsFrom("Passenger")
+                .where(new Where("name").isEqualTo(""))
+                .build());
+        Assert.assertEquals(1, exe.executeUpdate(delete.bind("Template-B")).intValue());
+        try {
+            select.bind("Template-A", "extra");
+            Assert.fail("Slot count must be checked.");
+        } catch (IllegalArgumentException e) {}
+    }
+
+    @Test
+    public void queryTemplateRepeatedValues() throws Exception {
+        QueryTemplate range = QueryTemplate.of(new SQLQuery.Builder(QueryType.SELECT)
+                .columns().from("Passenger")
+                .where(new Where("age").isGreaterThenOrEqual(0).and("age").isLessThenOrEqual(0))
+                .build());
+        QueryTemplate.Bound bound = range.bind(44, 44);
+        //Equal values still take one slot each:
+        Row row = bound.toRow();
+        Assert.assertEquals(2, row.getProperties().size());
+        Assert.assertEquals(44, row.getProperties().get(1).getValue());
+        //
+        QueryTemplate insert = QueryTemplate.of(new SQLQuery.Builder(QueryType.INSERT)
+                .into("Passenger")
+                .values(new Property("name", "n"), new Property("sex", "s"), new Property("age", 0))
+                .build());
+        Assert.assertEquals(3, insert.bind("same", "same", 44).toRow().getProperties().size());
+        Assert.assertEquals(1, exe.executeUpdate(insert.bind("same", "same", 44)).intValue());
+        Assert.assertEquals(1, exe.executeSelect(bound, Passenger.class, null).size());
+    }
+}
@@ -0,0 +1,48 @@
+package com.it.soul.lab.sql.query.models;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RowBinderTest {
+
+    @Test
+    public void inflateTest() throws Exception {
+        Table table = new Table();
+        table.add(new Row().add("user_name", "towhid").add("age", 36).add("extra", "skipped"));
+        table.add(new Row().add("user_name", "sohana").add("age", null).add("extra", "skipped"));
+
+        Map<String, String> mapping = new HashMap<>();
+        mapping.put("user_name", "name");
+        mapping.put("age", "age");
+        List<Person> persons = table.inflate(Person.class, mapping);
+
+        Assert.assertEquals(2, persons.size());
+        Assert.assertEquals("towhid", persons.get(0).name);
+        Assert.assertEquals(36, persons.get(0).age);
+        //null is not pushed into a primitive field:
+        Assert.assertEquals("sohana", persons.get(1).name);
+        Assert.assertEquals(0, persons.get(1).age);
+    }
+
+    @Test
+    public void layoutCacheTest() throws Exception {
+        String[] columns = {"name", "age"};
+        RowBinder<Person> binder = RowBinder.of(Person.class, columns, null);
+        Assert.assertSame(binder, RowBinder.of(Person.class, new String[]{"name", "age"}, null));
+        Assert.assertNotSame(binder, RowBinder.of(Person.class, new String[]{"age", "name"}, null));
+
+        Person person = binder.bind(index -> (index == 0) ? "towhid" : 36);
+        Assert.assertEquals("towhid", person.name);
+        Assert.assertEquals(36, person.age);
+    }
+
+    public static class Person {
+        private String name;
+        private int age;
+    }
+
+}